@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.maven;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * Result of resolving several {@link MavenResource}s at once. Every requested
+ * resource ends up either in {@link #getResolved()} or in {@link #getFailures()},
+ * so a single missing artifact does not fail the whole batch.
+ *
+ * @see MavenResourceLoader#resolveAll(java.util.Collection)
+ */
+public class BatchResolutionResult {
+
+	private final Map<MavenResource, Resource> resolved = new LinkedHashMap<>();
+
+	private final Map<MavenResource, Exception> failures = new LinkedHashMap<>();
+
+	void addResolved(MavenResource resource, Resource resolvedResource) {
+		this.resolved.put(resource, resolvedResource);
+	}
+
+	void addFailure(MavenResource resource, Exception failure) {
+		this.failures.put(resource, failure);
+	}
+
+	/**
+	 * Return the successfully resolved artifacts, mapping each requested
+	 * {@link MavenResource} to the {@link Resource} in the local repository.
+	 *
+	 * @return the resolved artifacts
+	 */
+	public Map<MavenResource, Resource> getResolved() {
+		return Collections.unmodifiableMap(this.resolved);
+	}
+
+	/**
+	 * Return the artifacts which could not be resolved together with the reason.
+	 *
+	 * @return the failed artifacts
+	 */
+	public Map<MavenResource, Exception> getFailures() {
+		return Collections.unmodifiableMap(this.failures);
+	}
+
+	/**
+	 * Return whether all requested artifacts were resolved.
+	 *
+	 * @return {@code true} if there are no failures
+	 */
+	public boolean isSuccessful() {
+		return this.failures.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "BatchResolutionResult{" +
+				"resolved=" + this.resolved.keySet() +
+				", failures=" + this.failures.keySet() +
+				'}';
+	}
+}
@@ -20,13 +20,27 @@ import java.io.File;
 import java.text.ChoiceFormat;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
 import org.eclipse.aether.ConfigurationProperties;
+import org.eclipse.aether.DefaultRepositoryCache;
 import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
@@ -56,13 +70,18 @@ import org.eclipse.aether.transport.wagon.WagonProvider;
 import org.eclipse.aether.transport.wagon.WagonTransporterFactory;
 import org.eclipse.aether.util.artifact.JavaScopes;
 import org.eclipse.aether.util.repository.DefaultProxySelector;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
 import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionConstraint;
+import org.eclipse.aether.version.VersionScheme;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadFactory;
 import org.springframework.util.StringUtils;
 
 /**
@@ -82,6 +101,14 @@ class MavenArtifactResolver {
 
 	private static final String DEFAULT_CONTENT_TYPE = "default";
 
+	private static final String CONNECTOR_THREADS = "aether.connector.basic.threads";
+
+	static final int MAX_CACHED_VERSION_LISTS = 256;
+
+	private static final String ALL_VERSIONS = "(,)";
+
+	private static final VersionScheme versionScheme = new GenericVersionScheme();
+
 	private final RepositorySystem repositorySystem;
 
 	private final MavenProperties properties;
@@ -90,6 +117,29 @@ class MavenArtifactResolver {
 
 	private final Authentication proxyAuthentication;
 
+	private final ResolvedArtifactCache resolvedArtifactCache;
+
+	private final RepositoryConnectionLimiter connectionLimiter;
+
+	private final Map<String, CompletableFuture<Resource>> inFlightResolutions = new ConcurrentHashMap<>();
+
+	private final AtomicLong coalescedResolutionCount = new AtomicLong();
+
+	private volatile ExecutorService resolutionExecutor;
+
+	private volatile SharedSession sharedSession;
+
+	// keyed by groupId:artifactId and access ordered, so the least recently used artifact is evicted
+	@SuppressWarnings("serial")
+	private final Map<String, CachedVersions> versionCache =
+			new LinkedHashMap<String, CachedVersions>(16, 0.75f, true) {
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, CachedVersions> eldest) {
+					return size() > MAX_CACHED_VERSION_LISTS;
+				}
+			};
+
 	/**
 	 * Create an instance using the provided properties.
 	 *
@@ -178,6 +228,11 @@ class MavenArtifactResolver {
 			this.remoteRepositories.add(remoteRepositoryBuilder.build());
 		}
 		this.repositorySystem = newRepositorySystem();
+		this.resolvedArtifactCache = new ResolvedArtifactCache(properties.isCacheResolvedArtifacts(),
+				properties.getSnapshotCacheTtl());
+		Integer maxConnections = properties.getMaxConnectionsPerRepository();
+		this.connectionLimiter = maxConnections != null && maxConnections > 0
+				? new RepositoryConnectionLimiter(maxConnections) : null;
 	}
 
 	/**
@@ -243,6 +298,37 @@ class MavenArtifactResolver {
 	DefaultRepositorySystemSession newRepositorySystemSession() {
 		return this.newRepositorySystemSession(this.repositorySystem, this.properties.getLocalRepository());
 	}
+
+	/**
+	 * Return the session to use for a resolution. If
+	 * {@link MavenProperties#getSharedSessionRefreshInterval()} is positive, one read-only session
+	 * backed by a shared {@link DefaultRepositoryCache} is reused by all resolutions until the
+	 * interval elapses, so artifact, metadata and update check state are not fetched again
+	 * within that window. Otherwise a new session is created for every resolution.
+	 * @return the session
+	 */
+	RepositorySystemSession repositorySystemSession() {
+		long refreshInterval = this.properties.getSharedSessionRefreshInterval();
+		if (refreshInterval <= 0) {
+			return newRepositorySystemSession();
+		}
+		long now = System.currentTimeMillis();
+		SharedSession shared = this.sharedSession;
+		if (shared == null || shared.isExpired(now, refreshInterval)) {
+			synchronized (this) {
+				shared = this.sharedSession;
+				if (shared == null || shared.isExpired(now, refreshInterval)) {
+					DefaultRepositorySystemSession session = newRepositorySystemSession();
+					session.setCache(new DefaultRepositoryCache());
+					session.setReadOnly();
+					shared = new SharedSession(session, now);
+					this.sharedSession = shared;
+				}
+			}
+		}
+		return shared.session;
+	}
+
 	/*
 	 * Create a session to manage remote and local synchronization.
 	 */
@@ -262,6 +348,12 @@ class MavenArtifactResolver {
 		if (this.properties.getRequestTimeout() != null) {
 			session.setConfigProperty(ConfigurationProperties.REQUEST_TIMEOUT, this.properties.getRequestTimeout());
 		}
+		if (this.properties.getMaxConnectionsPerRepository() != null) {
+			session.setConfigProperty(CONNECTOR_THREADS, this.properties.getMaxConnectionsPerRepository());
+		}
+		if (this.connectionLimiter != null) {
+			session.setTransferListener(this.connectionLimiter);
+		}
 		if (isProxyEnabled()) {
 			DefaultProxySelector proxySelector = new DefaultProxySelector();
 			Proxy proxy = new Proxy(this.properties.getProxy().getProtocol(),
@@ -305,29 +397,135 @@ class MavenArtifactResolver {
 		return locator.getService(RepositorySystem.class);
 	}
 
+	/**
+	 * Return the available versions for coordinates with a version range. With a
+	 * {@link MavenProperties#getVersionCacheTtl() version cache TTL} all versions of the
+	 * artifact are looked up and cached for that many milliseconds, keyed by group and
+	 * artifact id, so lookups of other ranges of the same artifact are served from the cache.
+	 * At most {@value #MAX_CACHED_VERSION_LISTS} artifacts are cached, evicting the least
+	 * recently used one. Repositories which fail to respond are logged and skipped, so the
+	 * versions found in the other repositories are still returned.
+	 * @param coordinates the coordinates with a version range
+	 * @return the available versions
+	 */
 	List<String> getVersions(String coordinates) {
 		Artifact artifact = new DefaultArtifact(coordinates);
+		long ttl = this.properties.getVersionCacheTtl();
+		VersionConstraint constraint = ttl > 0 ? versionConstraint(artifact) : null;
+		if (constraint == null || constraint.getRange() == null) {
+			// nothing to cache for a single version, which the resolver returns as is
+			return toStrings(lookupVersions(artifact, coordinates).getVersions());
+		}
+		String key = artifact.getGroupId() + ":" + artifact.getArtifactId();
+		long now = System.currentTimeMillis();
+		CachedVersions cached;
+		synchronized (this.versionCache) {
+			cached = this.versionCache.get(key);
+		}
+		List<Version> versions;
+		if (cached != null && now < cached.expires) {
+			versions = cached.versions;
+		}
+		else {
+			VersionRangeResult versionResult = lookupVersions(artifact.setVersion(ALL_VERSIONS), coordinates);
+			versions = new ArrayList<>(versionResult.getVersions());
+			if (versionResult.getExceptions().isEmpty()) {
+				synchronized (this.versionCache) {
+					this.versionCache.put(key, new CachedVersions(versions, now + ttl));
+				}
+			}
+		}
+		List<String> matching = new ArrayList<>();
+		for (Version version : versions) {
+			if (constraint.containsVersion(version)) {
+				matching.add(version.toString());
+			}
+		}
+		return matching;
+	}
+
+	private VersionRangeResult lookupVersions(Artifact artifact, String coordinates) {
 		VersionRangeRequest rangeRequest = new VersionRangeRequest();
 		rangeRequest.setArtifact(artifact);
 		rangeRequest.setRepositories(this.remoteRepositories);
 		try {
-			VersionRangeResult versionResult = this.repositorySystem.resolveVersionRange(newRepositorySystemSession(), rangeRequest);
-			List<String> versions = new ArrayList<>();
-			for (Version version: versionResult.getVersions()) {
-				versions.add(version.toString());
+			VersionRangeResult versionResult = this.repositorySystem.resolveVersionRange(repositorySystemSession(), rangeRequest);
+			if (!versionResult.getExceptions().isEmpty() && log.isWarnEnabled()) {
+				log.warn("Partial version lookup for " + coordinates + ": " + versionResult.getExceptions());
 			}
-			return versions;
+			return versionResult;
 		}
 		catch (VersionRangeResolutionException e) {
 			throw new IllegalStateException(e);
 		}
 	}
 
+	/**
+	 * Return the version constraint of the artifact, or {@code null} if it is invalid, in
+	 * which case the uncached lookup reports the error.
+	 */
+	private static VersionConstraint versionConstraint(Artifact artifact) {
+		try {
+			return versionScheme.parseVersionConstraint(artifact.getVersion());
+		}
+		catch (InvalidVersionSpecificationException e) {
+			return null;
+		}
+	}
+
+	private static List<String> toStrings(List<Version> versions) {
+		List<String> strings = new ArrayList<>(versions.size());
+		for (Version version : versions) {
+			strings.add(version.toString());
+		}
+		return strings;
+	}
+
+	/**
+	 * Return the number of artifacts whose versions are cached.
+	 */
+	int versionCacheSize() {
+		synchronized (this.versionCache) {
+			return this.versionCache.size();
+		}
+	}
+
+	/**
+	 * Return the available versions for several coordinates, looking them up concurrently on
+	 * the resolution executor. Coordinates whose lookup fails are logged and left out of the result.
+	 * @param coordinates the coordinates with version ranges
+	 * @return the available versions keyed by coordinates
+	 */
+	Map<String, List<String>> getVersions(Collection<String> coordinates) {
+		Assert.notNull(coordinates, "coordinates must not be null");
+		Map<String, CompletableFuture<List<String>>> lookups = new LinkedHashMap<>();
+		for (String coordinate : coordinates) {
+			if (!lookups.containsKey(coordinate)) {
+				lookups.put(coordinate, CompletableFuture.supplyAsync(() -> getVersions(coordinate),
+						getResolutionExecutor()));
+			}
+		}
+		Map<String, List<String>> versions = new LinkedHashMap<>();
+		for (Map.Entry<String, CompletableFuture<List<String>>> lookup : lookups.entrySet()) {
+			try {
+				versions.put(lookup.getKey(), lookup.getValue().join());
+			}
+			catch (CompletionException e) {
+				log.warn("Failed to get versions for " + lookup.getKey(), e.getCause());
+			}
+		}
+		return versions;
+	}
+
 	/**
 	 * Resolve an artifact and return its location in the local repository. Aether performs the normal
 	 * Maven resolution process ensuring that the latest update is cached to the local repository.
 	 * In addition, if the {@link MavenProperties#resolvePom} flag is <code>true</code>,
 	 * the POM is also resolved and cached.
+	 * Concurrent calls for the same coordinates are coalesced: the first caller resolves
+	 * the artifact while the others wait for and share its result.
+	 * Artifacts resolved before are served from the {@link ResolvedArtifactCache} as long as
+	 * their file is still present in the local repository.
 	 * @param resource the {@link MavenResource} representing the artifact
 	 * @return a {@link FileSystemResource} representing the resolved artifact in the local repository
 	 * @throws IllegalStateException if the artifact does not exist or the resolution fails
@@ -335,8 +533,42 @@ class MavenArtifactResolver {
 	Resource resolve(MavenResource resource) {
 		Assert.notNull(resource, "MavenResource must not be null");
 		validateCoordinates(resource);
-		RepositorySystemSession session = newRepositorySystemSession(this.repositorySystem,
-				this.properties.getLocalRepository());
+		String coordinates = resource.toString();
+		File cachedFile = this.resolvedArtifactCache.get(coordinates);
+		if (cachedFile != null) {
+			return new FileSystemResource(cachedFile);
+		}
+		CompletableFuture<Resource> future = new CompletableFuture<>();
+		CompletableFuture<Resource> existing = this.inFlightResolutions.putIfAbsent(coordinates, future);
+		if (existing != null) {
+			// another thread is already resolving these coordinates; wait for its result
+			this.coalescedResolutionCount.incrementAndGet();
+			return await(existing);
+		}
+		return resolveInFlight(resource, coordinates, future);
+	}
+
+	/**
+	 * Resolve an artifact on behalf of all callers waiting on the in-flight future,
+	 * removing the future once the resolution is done.
+	 */
+	private Resource resolveInFlight(MavenResource resource, String coordinates, CompletableFuture<Resource> future) {
+		try {
+			Resource resolved = doResolve(resource, coordinates);
+			future.complete(resolved);
+			return resolved;
+		}
+		catch (RuntimeException | Error e) {
+			future.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			this.inFlightResolutions.remove(coordinates, future);
+		}
+	}
+
+	private Resource doResolve(MavenResource resource, String coordinates) {
+		RepositorySystemSession session = repositorySystemSession();
 		ArtifactResult resolvedArtifact;
 		try {
 			List<ArtifactRequest> artifactRequests = new ArrayList<>(2);
@@ -353,23 +585,195 @@ class MavenArtifactResolver {
 			resolvedArtifact = results.get(results.size() - 1);
 		}
 		catch (ArtifactResolutionException e) {
-
-			ChoiceFormat pluralizer = new ChoiceFormat(
-					new double[] { 0d, 1d, ChoiceFormat.nextDouble(1d) },
-					new String[] { "repositories: ", "repository: ", "repositories: " });
-			MessageFormat messageFormat = new MessageFormat(
-					"Failed to resolve MavenResource: {0}. Configured remote {1}: {2}");
-			messageFormat.setFormat(1, pluralizer);
-			String repos = properties.getRemoteRepositories().isEmpty()
-					? "none"
-					: StringUtils.collectionToDelimitedString(properties.getRemoteRepositories().keySet(), ",", "[", "]");
-			throw new IllegalStateException(
-					messageFormat.format(new Object[] { resource, properties.getRemoteRepositories().size(), repos }),
-					e);
+			throw new IllegalStateException(resolutionFailureMessage(resource), e);
 		}
+		Artifact artifact = resolvedArtifact.getArtifact();
+		this.resolvedArtifactCache.put(coordinates, artifact.isSnapshot(), artifact.getFile());
 		return toResource(resolvedArtifact);
 	}
 
+	private static Resource await(CompletableFuture<Resource> future) {
+		try {
+			return future.join();
+		}
+		catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Return how many resolutions waited for a concurrent resolution of the same
+	 * coordinates instead of resolving the artifact themselves.
+	 *
+	 * @return the number of coalesced resolutions
+	 */
+	long getCoalescedResolutionCount() {
+		return this.coalescedResolutionCount.get();
+	}
+
+	/**
+	 * Return the cache of artifacts resolved by this resolver.
+	 *
+	 * @return the resolved artifact cache
+	 */
+	ResolvedArtifactCache getResolvedArtifactCache() {
+		return this.resolvedArtifactCache;
+	}
+
+	/**
+	 * Resolve several artifacts using a single {@link RepositorySystemSession}, sharing the session's
+	 * caches and repository connectors between all artifacts. Downloads from the same repository
+	 * run in parallel, limited by {@link MavenProperties#getMaxConnectionsPerRepository()}.
+	 * Artifacts already present in the
+	 * {@link ResolvedArtifactCache} are not resolved again. A failure to resolve one artifact is
+	 * reported for that artifact only and does not fail the other ones.
+	 * @param resources the {@link MavenResource}s representing the artifacts
+	 * @return the per artifact resolution result
+	 */
+	BatchResolutionResult resolveAll(Collection<MavenResource> resources) {
+		Assert.notNull(resources, "MavenResources must not be null");
+		BatchResolutionResult result = new BatchResolutionResult();
+		List<MavenResource> pending = new ArrayList<>();
+		List<ArtifactRequest> artifactRequests = new ArrayList<>();
+		for (MavenResource resource : new LinkedHashSet<>(resources)) {
+			try {
+				Assert.notNull(resource, "MavenResource must not be null");
+				validateCoordinates(resource);
+			}
+			catch (IllegalArgumentException e) {
+				result.addFailure(resource, e);
+				continue;
+			}
+			File cachedFile = this.resolvedArtifactCache.get(resource.toString());
+			if (cachedFile != null) {
+				result.addResolved(resource, new FileSystemResource(cachedFile));
+				continue;
+			}
+			if (properties.isResolvePom()) {
+				artifactRequests.add(new ArtifactRequest(toPomArtifact(resource),
+						this.remoteRepositories,
+						JavaScopes.RUNTIME));
+			}
+			artifactRequests.add(new ArtifactRequest(toJarArtifact(resource),
+					this.remoteRepositories,
+					JavaScopes.RUNTIME));
+			pending.add(resource);
+		}
+		if (pending.isEmpty()) {
+			return result;
+		}
+		List<ArtifactResult> results;
+		try {
+			results = this.repositorySystem.resolveArtifacts(repositorySystemSession(), artifactRequests);
+		}
+		catch (ArtifactResolutionException e) {
+			// results are still reported for every request, failed or not
+			results = e.getResults();
+		}
+		int requestsPerResource = properties.isResolvePom() ? 2 : 1;
+		for (int i = 0; i < pending.size(); i++) {
+			MavenResource resource = pending.get(i);
+			ArtifactResult unresolved = null;
+			for (int j = 0; j < requestsPerResource; j++) {
+				ArtifactResult artifactResult = results.get(i * requestsPerResource + j);
+				if (!artifactResult.isResolved()) {
+					unresolved = artifactResult;
+					break;
+				}
+			}
+			if (unresolved != null) {
+				ArtifactResolutionException cause = new ArtifactResolutionException(
+						Collections.singletonList(unresolved));
+				result.addFailure(resource, new IllegalStateException(resolutionFailureMessage(resource), cause));
+			}
+			else {
+				ArtifactResult resolvedArtifact = results.get((i + 1) * requestsPerResource - 1);
+				Artifact artifact = resolvedArtifact.getArtifact();
+				this.resolvedArtifactCache.put(resource.toString(), artifact.isSnapshot(), artifact.getFile());
+				result.addResolved(resource, toResource(resolvedArtifact));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Resolve an artifact asynchronously. At most {@link MavenProperties#getMaxParallelDownloads()}
+	 * artifacts are resolved at the same time, and concurrent requests for the same coordinates
+	 * share one resolution.
+	 * @param resource the {@link MavenResource} representing the artifact
+	 * @return a future completing with the resolved artifact in the local repository
+	 */
+	CompletableFuture<Resource> resolveAsync(MavenResource resource) {
+		Assert.notNull(resource, "MavenResource must not be null");
+		validateCoordinates(resource);
+		String coordinates = resource.toString();
+		File cachedFile = this.resolvedArtifactCache.get(coordinates);
+		if (cachedFile != null) {
+			return CompletableFuture.completedFuture(new FileSystemResource(cachedFile));
+		}
+		CompletableFuture<Resource> future = new CompletableFuture<>();
+		CompletableFuture<Resource> existing = this.inFlightResolutions.putIfAbsent(coordinates, future);
+		if (existing != null) {
+			this.coalescedResolutionCount.incrementAndGet();
+			return existing;
+		}
+		try {
+			getResolutionExecutor().execute(() -> {
+				try {
+					resolveInFlight(resource, coordinates, future);
+				}
+				catch (RuntimeException | Error e) {
+					// already reported through the future
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			this.inFlightResolutions.remove(coordinates, future);
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	private ExecutorService getResolutionExecutor() {
+		ExecutorService executor = this.resolutionExecutor;
+		if (executor == null) {
+			synchronized (this) {
+				executor = this.resolutionExecutor;
+				if (executor == null) {
+					int threads = Math.max(1, this.properties.getMaxParallelDownloads());
+					CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("maven-resolver-");
+					threadFactory.setDaemon(true);
+					ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 60L,
+							TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+					threadPoolExecutor.allowCoreThreadTimeOut(true);
+					executor = threadPoolExecutor;
+					this.resolutionExecutor = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	private String resolutionFailureMessage(MavenResource resource) {
+		ChoiceFormat pluralizer = new ChoiceFormat(
+				new double[] { 0d, 1d, ChoiceFormat.nextDouble(1d) },
+				new String[] { "repositories: ", "repository: ", "repositories: " });
+		MessageFormat messageFormat = new MessageFormat(
+				"Failed to resolve MavenResource: {0}. Configured remote {1}: {2}");
+		messageFormat.setFormat(1, pluralizer);
+		String repos = properties.getRemoteRepositories().isEmpty()
+				? "none"
+				: StringUtils.collectionToDelimitedString(properties.getRemoteRepositories().keySet(), ",", "[", "]");
+		return messageFormat.format(new Object[] { resource, properties.getRemoteRepositories().size(), repos });
+	}
+
 	private void validateCoordinates(MavenResource resource) {
 		Assert.hasText(resource.getGroupId(), "groupId must not be blank.");
 		Assert.hasText(resource.getArtifactId(), "artifactId must not be blank.");
@@ -396,4 +800,38 @@ class MavenArtifactResolver {
 				extension,
 				resource.getVersion());
 	}
+
+	/**
+	 * A session shared between resolutions together with its creation time.
+	 */
+	private static final class SharedSession {
+
+		private final RepositorySystemSession session;
+
+		private final long created;
+
+		SharedSession(RepositorySystemSession session, long created) {
+			this.session = session;
+			this.created = created;
+		}
+
+		boolean isExpired(long now, long refreshInterval) {
+			return now - this.created >= refreshInterval;
+		}
+	}
+
+	/**
+	 * Versions found for coordinates together with their expiry time.
+	 */
+	private static final class CachedVersions {
+
+		private final List<Version> versions;
+
+		private final long expires;
+
+		CachedVersions(List<Version> versions, long expires) {
+			this.versions = versions;
+			this.expires = expires;
+		}
+	}
 }
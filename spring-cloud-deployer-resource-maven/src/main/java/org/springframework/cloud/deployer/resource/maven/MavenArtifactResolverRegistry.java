@@ -0,0 +1,283 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.maven;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.util.Assert;
+
+/**
+ * Registry of shared {@link MavenArtifactResolver}s. Creating a resolver builds a complete
+ * Aether {@link org.eclipse.aether.RepositorySystem} together with all remote repositories,
+ * proxies and authentication, so every {@link MavenResource} created from equivalent
+ * {@link MavenProperties} uses the same (thread-safe) resolver instance.
+ * <p>
+ * Resolvers are keyed by a digest of the content of the {@link MavenProperties} rather
+ * than their identity; changing a property therefore results in a new resolver the next
+ * time one is requested. A resolver is built from a copy of the properties, so later
+ * changes to the caller's instance do not leak into the resolver shared with other
+ * callers. At most {@value #MAX_RESOLVERS} resolvers are kept, evicting the least
+ * recently used one; resources already holding an evicted resolver keep using it.
+ */
+final class MavenArtifactResolverRegistry {
+
+	static final int MAX_RESOLVERS = 16;
+
+	// access ordered, so the least recently used resolver is the eldest entry
+	@SuppressWarnings("serial")
+	private static final Map<String, MavenArtifactResolver> resolvers =
+			new LinkedHashMap<String, MavenArtifactResolver>(MAX_RESOLVERS, 0.75f, true) {
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, MavenArtifactResolver> eldest) {
+					return size() > MAX_RESOLVERS;
+				}
+			};
+
+	private MavenArtifactResolverRegistry() {
+	}
+
+	/**
+	 * Return the shared {@link MavenArtifactResolver} for the given properties,
+	 * creating it on first use.
+	 *
+	 * @param properties the maven properties
+	 * @return the shared resolver
+	 */
+	static MavenArtifactResolver getResolver(MavenProperties properties) {
+		Assert.notNull(properties, "MavenProperties must not be null");
+		String key = key(properties);
+		synchronized (resolvers) {
+			MavenArtifactResolver resolver = resolvers.get(key);
+			if (resolver != null) {
+				return resolver;
+			}
+		}
+		// built outside the lock, so a slow build does not block lookups of other resolvers;
+		// of several concurrent builds for the same key the first one published wins
+		MavenArtifactResolver resolver = new MavenArtifactResolver(copy(properties));
+		synchronized (resolvers) {
+			MavenArtifactResolver existing = resolvers.putIfAbsent(key, resolver);
+			return existing != null ? existing : resolver;
+		}
+	}
+
+	/**
+	 * Remove all shared resolvers.
+	 */
+	static void clear() {
+		synchronized (resolvers) {
+			resolvers.clear();
+		}
+	}
+
+	/**
+	 * Return the number of shared resolvers.
+	 *
+	 * @return the number of resolvers
+	 */
+	static int size() {
+		synchronized (resolvers) {
+			return resolvers.size();
+		}
+	}
+
+	/**
+	 * Create a key from everything in {@link MavenProperties} which affects how a
+	 * {@link MavenArtifactResolver} is built or how its sessions are configured. The key
+	 * is a SHA-256 digest, so the registry does not hold repository passwords in clear.
+	 */
+	static String key(MavenProperties properties) {
+		StringBuilder key = new StringBuilder(256);
+		key.append(properties.getLocalRepository())
+				.append('|').append(properties.isOffline())
+				.append('|').append(properties.getConnectTimeout())
+				.append('|').append(properties.getRequestTimeout())
+				.append('|').append(properties.isResolvePom())
+				.append('|').append(properties.isEnableRepositoryListener())
+				.append('|').append(properties.isUseWagon())
+				.append('|').append(properties.getUpdatePolicy())
+				.append('|').append(properties.getChecksumPolicy())
+				.append('|').append(properties.isCacheResolvedArtifacts())
+				.append('|').append(properties.getSnapshotCacheTtl())
+				.append('|').append(properties.getMaxParallelDownloads())
+				.append('|').append(properties.getMaxConnectionsPerRepository())
+				.append('|').append(properties.getSharedSessionRefreshInterval())
+				.append('|').append(properties.getVersionCacheTtl());
+		MavenProperties.Proxy proxy = properties.getProxy();
+		if (proxy != null) {
+			key.append("|proxy:").append(proxy.getProtocol())
+					.append(',').append(proxy.getHost())
+					.append(',').append(proxy.getPort())
+					.append(',').append(proxy.getNonProxyHosts());
+			appendAuthentication(key, proxy.getAuth());
+		}
+		for (Map.Entry<String, MavenProperties.RemoteRepository> entry : properties.getRemoteRepositories()
+				.entrySet()) {
+			MavenProperties.RemoteRepository repository = entry.getValue();
+			key.append("|repo:").append(entry.getKey());
+			if (repository == null) {
+				continue;
+			}
+			key.append(',').append(repository.getUrl());
+			appendAuthentication(key, repository.getAuth());
+			appendPolicy(key, repository.getPolicy());
+			appendPolicy(key, repository.getSnapshotPolicy());
+			appendPolicy(key, repository.getReleasePolicy());
+			if (repository.getWagon() != null) {
+				for (Map.Entry<MavenProperties.WagonHttpMethod, MavenProperties.WagonHttpMethodProperties> http : repository
+						.getWagon().getHttp().entrySet()) {
+					MavenProperties.WagonHttpMethodProperties wagon = http.getValue();
+					key.append(",wagon:").append(http.getKey());
+					if (wagon != null) {
+						key.append(',').append(wagon.isUsePreemptive())
+								.append(',').append(wagon.isUseDefaultHeaders())
+								.append(',').append(wagon.getConnectionTimeout())
+								.append(',').append(wagon.getReadTimeout())
+								.append(',').append(sorted(wagon.getHeaders()))
+								.append(',').append(sorted(wagon.getParams()));
+					}
+				}
+			}
+		}
+		return digest(key.toString());
+	}
+
+	/**
+	 * Create a deep copy of everything the key is built from.
+	 */
+	static MavenProperties copy(MavenProperties properties) {
+		MavenProperties copy = new MavenProperties();
+		copy.setLocalRepository(properties.getLocalRepository());
+		copy.setOffline(properties.isOffline());
+		copy.setConnectTimeout(properties.getConnectTimeout());
+		copy.setRequestTimeout(properties.getRequestTimeout());
+		copy.setResolvePom(properties.isResolvePom());
+		copy.setEnableRepositoryListener(properties.isEnableRepositoryListener());
+		copy.setUseWagon(properties.isUseWagon());
+		copy.setUpdatePolicy(properties.getUpdatePolicy());
+		copy.setChecksumPolicy(properties.getChecksumPolicy());
+		copy.setCacheResolvedArtifacts(properties.isCacheResolvedArtifacts());
+		copy.setSnapshotCacheTtl(properties.getSnapshotCacheTtl());
+		copy.setMaxParallelDownloads(properties.getMaxParallelDownloads());
+		copy.setMaxConnectionsPerRepository(properties.getMaxConnectionsPerRepository());
+		copy.setSharedSessionRefreshInterval(properties.getSharedSessionRefreshInterval());
+		copy.setVersionCacheTtl(properties.getVersionCacheTtl());
+		MavenProperties.Proxy proxy = properties.getProxy();
+		if (proxy != null) {
+			MavenProperties.Proxy proxyCopy = new MavenProperties.Proxy();
+			proxyCopy.setProtocol(proxy.getProtocol());
+			proxyCopy.setHost(proxy.getHost());
+			proxyCopy.setPort(proxy.getPort());
+			proxyCopy.setNonProxyHosts(proxy.getNonProxyHosts());
+			proxyCopy.setAuth(copy(proxy.getAuth()));
+			copy.setProxy(proxyCopy);
+		}
+		for (Map.Entry<String, MavenProperties.RemoteRepository> entry : properties.getRemoteRepositories()
+				.entrySet()) {
+			MavenProperties.RemoteRepository repository = entry.getValue();
+			MavenProperties.RemoteRepository repositoryCopy = null;
+			if (repository != null) {
+				repositoryCopy = new MavenProperties.RemoteRepository(repository.getUrl(), copy(repository.getAuth()));
+				repositoryCopy.setPolicy(copy(repository.getPolicy()));
+				repositoryCopy.setSnapshotPolicy(copy(repository.getSnapshotPolicy()));
+				repositoryCopy.setReleasePolicy(copy(repository.getReleasePolicy()));
+				if (repository.getWagon() == null) {
+					repositoryCopy.setWagon(null);
+				}
+				else {
+					for (Map.Entry<MavenProperties.WagonHttpMethod, MavenProperties.WagonHttpMethodProperties> http : repository
+							.getWagon().getHttp().entrySet()) {
+						repositoryCopy.getWagon().getHttp().put(http.getKey(), copy(http.getValue()));
+					}
+				}
+			}
+			copy.getRemoteRepositories().put(entry.getKey(), repositoryCopy);
+		}
+		return copy;
+	}
+
+	private static MavenProperties.Authentication copy(MavenProperties.Authentication auth) {
+		return auth != null ? new MavenProperties.Authentication(auth.getUsername(), auth.getPassword()) : null;
+	}
+
+	private static MavenProperties.RepositoryPolicy copy(MavenProperties.RepositoryPolicy policy) {
+		if (policy == null) {
+			return null;
+		}
+		MavenProperties.RepositoryPolicy copy = new MavenProperties.RepositoryPolicy();
+		copy.setEnabled(policy.isEnabled());
+		copy.setUpdatePolicy(policy.getUpdatePolicy());
+		copy.setChecksumPolicy(policy.getChecksumPolicy());
+		return copy;
+	}
+
+	private static MavenProperties.WagonHttpMethodProperties copy(MavenProperties.WagonHttpMethodProperties wagon) {
+		if (wagon == null) {
+			return null;
+		}
+		MavenProperties.WagonHttpMethodProperties copy = new MavenProperties.WagonHttpMethodProperties();
+		copy.setUsePreemptive(wagon.isUsePreemptive());
+		copy.setUseDefaultHeaders(wagon.isUseDefaultHeaders());
+		copy.setConnectionTimeout(wagon.getConnectionTimeout());
+		copy.setReadTimeout(wagon.getReadTimeout());
+		copy.setHeaders(wagon.getHeaders() != null ? new HashMap<>(wagon.getHeaders()) : null);
+		copy.setParams(wagon.getParams() != null ? new HashMap<>(wagon.getParams()) : null);
+		return copy;
+	}
+
+	private static String digest(String key) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return hex.toString();
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void appendAuthentication(StringBuilder key, MavenProperties.Authentication auth) {
+		if (auth != null) {
+			key.append(",auth:").append(auth.getUsername()).append(',').append(auth.getPassword());
+		}
+	}
+
+	private static void appendPolicy(StringBuilder key, MavenProperties.RepositoryPolicy policy) {
+		if (policy == null) {
+			key.append(",-");
+		}
+		else {
+			key.append(",policy:").append(policy.isEnabled())
+					.append(',').append(policy.getUpdatePolicy())
+					.append(',').append(policy.getChecksumPolicy());
+		}
+	}
+
+	private static Map<String, String> sorted(Map<String, String> map) {
+		return map == null ? null : new TreeMap<>(map);
+	}
+}
@@ -85,6 +85,44 @@ public class MavenProperties {
 	 */
 	private boolean useWagon;
 
+	/**
+	 * Whether artifacts already resolved into the local repository are cached and reused
+	 * without running another resolution.
+	 */
+	private boolean cacheResolvedArtifacts = true;
+
+	/**
+	 * Time in milliseconds a resolved SNAPSHOT artifact is reused without resolving it again.
+	 * Resolved release artifacts are reused until their file is removed from the local repository.
+	 * A value of 0 disables caching of SNAPSHOT artifacts.
+	 */
+	private long snapshotCacheTtl = 0;
+
+	/**
+	 * Maximum number of artifacts resolved concurrently by asynchronous resolutions.
+	 */
+	private int maxParallelDownloads = 5;
+
+	/**
+	 * Maximum number of concurrent downloads from a single remote repository, across all
+	 * resolutions sharing these properties. If <code>null</code>, downloads are only
+	 * limited by the connector threads of each resolution.
+	 */
+	private Integer maxConnectionsPerRepository;
+
+	/**
+	 * Time in milliseconds one resolution session, including its repository cache and update
+	 * check state, is shared between all resolutions before a fresh session is created.
+	 * A value of 0 creates a new session for every resolution.
+	 */
+	private long sharedSessionRefreshInterval = 0;
+
+	/**
+	 * Time in milliseconds the versions found for a version range are reused before the
+	 * remote repositories are asked again. A value of 0 disables caching of versions.
+	 */
+	private long versionCacheTtl = 0;
+
 	public void setUseWagon(boolean useWagon) {
 		this.useWagon = useWagon;
 	}
@@ -177,6 +215,54 @@ public class MavenProperties {
 		this.resolvePom = resolvePom;
 	}
 
+	public boolean isCacheResolvedArtifacts() {
+		return cacheResolvedArtifacts;
+	}
+
+	public void setCacheResolvedArtifacts(boolean cacheResolvedArtifacts) {
+		this.cacheResolvedArtifacts = cacheResolvedArtifacts;
+	}
+
+	public long getSnapshotCacheTtl() {
+		return snapshotCacheTtl;
+	}
+
+	public void setSnapshotCacheTtl(long snapshotCacheTtl) {
+		this.snapshotCacheTtl = snapshotCacheTtl;
+	}
+
+	public int getMaxParallelDownloads() {
+		return maxParallelDownloads;
+	}
+
+	public void setMaxParallelDownloads(int maxParallelDownloads) {
+		this.maxParallelDownloads = maxParallelDownloads;
+	}
+
+	public Integer getMaxConnectionsPerRepository() {
+		return maxConnectionsPerRepository;
+	}
+
+	public void setMaxConnectionsPerRepository(Integer maxConnectionsPerRepository) {
+		this.maxConnectionsPerRepository = maxConnectionsPerRepository;
+	}
+
+	public long getSharedSessionRefreshInterval() {
+		return sharedSessionRefreshInterval;
+	}
+
+	public void setSharedSessionRefreshInterval(long sharedSessionRefreshInterval) {
+		this.sharedSessionRefreshInterval = sharedSessionRefreshInterval;
+	}
+
+	public long getVersionCacheTtl() {
+		return versionCacheTtl;
+	}
+
+	public void setVersionCacheTtl(long versionCacheTtl) {
+		this.versionCacheTtl = versionCacheTtl;
+	}
+
 	public static class Proxy {
 
 		/**
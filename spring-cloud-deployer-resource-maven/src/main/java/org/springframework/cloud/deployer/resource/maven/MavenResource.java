@@ -20,7 +20,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -121,7 +123,7 @@ public class MavenResource extends AbstractResource {
 		this.extension = extension;
 		this.classifier = classifier == null ? EMPTY_CLASSIFIER : classifier;
 		this.version = version;
-		this.resolver = new MavenArtifactResolver(properties != null ? properties : new MavenProperties());
+		this.resolver = MavenArtifactResolverRegistry.getResolver(properties != null ? properties : new MavenProperties());
 	}
 
 	/**
@@ -280,6 +282,16 @@ public class MavenResource extends AbstractResource {
 		return this.resolver.getVersions(coordinates);
 	}
 
+	/**
+	 * Get all the available versions for several maven co-ordinates. The lookups run concurrently
+	 * and co-ordinates whose lookup fails are left out of the result.
+	 * @param coordinates the co-ordinates with the version constraint added.
+	 * @return the list of all the available versions keyed by co-ordinates
+	 */
+	public Map<String, List<String>> getVersions(Collection<String> coordinates) {
+		return this.resolver.getVersions(coordinates);
+	}
+
 	public static class Builder {
 
 		private String groupId;
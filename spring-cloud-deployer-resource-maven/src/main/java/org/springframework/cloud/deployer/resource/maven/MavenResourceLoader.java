@@ -16,6 +16,9 @@
 
 package org.springframework.cloud.deployer.resource.maven;
 
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.util.Assert;
@@ -62,6 +65,51 @@ public class MavenResourceLoader implements ResourceLoader {
 		return MavenResource.parse(coordinates, this.properties);
 	}
 
+	/**
+	 * Resolves the provided {@link MavenResource}s in a single resolution session using the
+	 * {@link MavenProperties} of this loader. Artifacts which can not be resolved are reported
+	 * in {@link BatchResolutionResult#getFailures()} without failing the others.
+	 *
+	 * @param resources the {@link MavenResource}s to resolve
+	 * @return the per artifact resolution result
+	 */
+	public BatchResolutionResult resolveAll(Collection<MavenResource> resources) {
+		return MavenArtifactResolverRegistry.getResolver(this.properties).resolveAll(resources);
+	}
+
+	/**
+	 * Resolves the provided {@link MavenResource} asynchronously using the {@link MavenProperties}
+	 * of this loader. Resolutions run on a bounded pool of
+	 * {@link MavenProperties#getMaxParallelDownloads()} threads, and a resolution of coordinates
+	 * already in flight is shared rather than started again.
+	 *
+	 * @param resource the {@link MavenResource} to resolve
+	 * @return a future completing with the resolved artifact in the local repository
+	 */
+	public CompletableFuture<Resource> resolveAsync(MavenResource resource) {
+		return MavenArtifactResolverRegistry.getResolver(this.properties).resolveAsync(resource);
+	}
+
+	/**
+	 * Returns the {@link ResolvedArtifactCache} shared by all {@link MavenResource}s
+	 * created by this loader, e.g. to inspect its hit and miss counts.
+	 *
+	 * @return the resolved artifact cache
+	 */
+	public ResolvedArtifactCache getResolvedArtifactCache() {
+		return MavenArtifactResolverRegistry.getResolver(this.properties).getResolvedArtifactCache();
+	}
+
+	/**
+	 * Returns how many resolutions of {@link MavenResource}s created by this loader waited for a
+	 * concurrent resolution of the same coordinates rather than resolving the artifact again.
+	 *
+	 * @return the number of coalesced resolutions
+	 */
+	public long getCoalescedResolutionCount() {
+		return MavenArtifactResolverRegistry.getResolver(this.properties).getCoalescedResolutionCount();
+	}
+
 	/**
 	 * Returns the {@link ClassLoader} for this ResourceLoader.
 	 */
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.maven;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import org.eclipse.aether.transfer.AbstractTransferListener;
+import org.eclipse.aether.transfer.TransferCancelledException;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferResource;
+
+/**
+ * Limits the number of transfers in flight from each remote repository across all
+ * resolutions of a {@link MavenArtifactResolver}. Aether only bounds the connector threads
+ * of a single resolution, so concurrent resolutions would otherwise multiply the number
+ * of connections to a repository.
+ * <p>
+ * A transfer takes a permit of its repository when it is initiated, waiting for one if
+ * necessary, and returns it once it succeeded or failed.
+ */
+final class RepositoryConnectionLimiter extends AbstractTransferListener {
+
+	private final int maxConnections;
+
+	private final Map<String, Semaphore> repositories = new ConcurrentHashMap<>();
+
+	private final Map<TransferResource, Semaphore> transfers = new ConcurrentHashMap<>();
+
+	RepositoryConnectionLimiter(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+
+	@Override
+	public void transferInitiated(TransferEvent event) throws TransferCancelledException {
+		Semaphore permits = this.repositories.computeIfAbsent(event.getResource().getRepositoryUrl(),
+				url -> new Semaphore(this.maxConnections, true));
+		try {
+			permits.acquire();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TransferCancelledException("Interrupted while waiting for a connection to "
+					+ event.getResource().getRepositoryUrl());
+		}
+		this.transfers.put(event.getResource(), permits);
+	}
+
+	@Override
+	public void transferSucceeded(TransferEvent event) {
+		release(event);
+	}
+
+	@Override
+	public void transferFailed(TransferEvent event) {
+		release(event);
+	}
+
+	private void release(TransferEvent event) {
+		Semaphore permits = this.transfers.remove(event.getResource());
+		if (permits != null) {
+			permits.release();
+		}
+	}
+}
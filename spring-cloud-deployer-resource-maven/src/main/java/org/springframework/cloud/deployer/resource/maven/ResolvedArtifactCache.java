@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.maven;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of artifacts already resolved into the local repository, keyed by the
+ * coordinates of a {@link MavenResource}. Release artifacts are immutable and are
+ * kept until their file disappears or changes on disk, SNAPSHOT artifacts are kept
+ * for the configured {@link MavenProperties#getSnapshotCacheTtl() time to live}.
+ * <p>
+ * Each entry records the size and last modification time of the resolved file
+ * as a cheap checksum, so an entry is dropped as soon as the file in the local
+ * repository is deleted or replaced.
+ */
+public final class ResolvedArtifactCache {
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final boolean enabled;
+
+	private final long snapshotTtl;
+
+	/**
+	 * Create a new cache.
+	 *
+	 * @param enabled whether resolved artifacts should be cached at all
+	 * @param snapshotTtl time in milliseconds SNAPSHOT artifacts are cached; {@code 0} disables it
+	 */
+	ResolvedArtifactCache(boolean enabled, long snapshotTtl) {
+		this.enabled = enabled;
+		this.snapshotTtl = snapshotTtl;
+	}
+
+	/**
+	 * Return the cached file for the coordinates, or {@literal null} if there is
+	 * no valid entry.
+	 *
+	 * @param coordinates the artifact coordinates
+	 * @return the resolved file or {@literal null}
+	 */
+	File get(String coordinates) {
+		if (!this.enabled) {
+			return null;
+		}
+		Entry entry = this.entries.get(coordinates);
+		if (entry != null) {
+			if (entry.isValid(System.currentTimeMillis())) {
+				this.hitCount.incrementAndGet();
+				return entry.file;
+			}
+			this.entries.remove(coordinates, entry);
+		}
+		this.missCount.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Cache a resolved file for the coordinates.
+	 *
+	 * @param coordinates the artifact coordinates
+	 * @param snapshot whether the artifact is a SNAPSHOT
+	 * @param file the resolved file in the local repository
+	 */
+	void put(String coordinates, boolean snapshot, File file) {
+		if (!this.enabled || file == null || (snapshot && this.snapshotTtl <= 0)) {
+			return;
+		}
+		long expires = snapshot ? System.currentTimeMillis() + this.snapshotTtl : Long.MAX_VALUE;
+		this.entries.put(coordinates, new Entry(file, expires));
+	}
+
+	/**
+	 * Remove the entry for the coordinates.
+	 *
+	 * @param coordinates the artifact coordinates
+	 */
+	public void invalidate(String coordinates) {
+		this.entries.remove(coordinates);
+	}
+
+	/**
+	 * Remove all entries.
+	 */
+	public void clear() {
+		this.entries.clear();
+	}
+
+	/**
+	 * Return the number of cached entries.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Return how many lookups were served from the cache.
+	 *
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * Return how many lookups required a resolution.
+	 *
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	private static final class Entry {
+
+		private final File file;
+
+		private final long length;
+
+		private final long lastModified;
+
+		private final long expires;
+
+		Entry(File file, long expires) {
+			this.file = file;
+			this.length = file.length();
+			this.lastModified = file.lastModified();
+			this.expires = expires;
+		}
+
+		boolean isValid(long now) {
+			return now < this.expires && this.file.isFile() && this.file.length() == this.length
+					&& this.file.lastModified() == this.lastModified;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.maven;
+
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.util.ReflectionUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MavenArtifactResolverRegistry}.
+ */
+class MavenArtifactResolverRegistryTests {
+
+	@AfterEach
+	void clean() {
+		MavenArtifactResolverRegistry.clear();
+	}
+
+	@Test
+	void resourcesShareResolverForSameProperties(@TempDir Path tempDir) {
+		MavenProperties properties = mavenProperties(tempDir);
+		MavenResource resource1 = MavenResource.parse("org.example:app1:1.0.0", properties);
+		MavenResource resource2 = MavenResource.parse("org.example:app2:1.0.0", properties);
+		MavenResource resource3 = new MavenResource.Builder(properties)
+				.groupId("org.example").artifactId("app3").version("1.0.0").build();
+		assertThat(resolver(resource1)).isSameAs(resolver(resource2));
+		assertThat(resolver(resource1)).isSameAs(resolver(resource3));
+		assertThat(MavenArtifactResolverRegistry.size()).isEqualTo(1);
+	}
+
+	@Test
+	void resourcesShareResolverForEqualProperties(@TempDir Path tempDir) {
+		MavenResource resource1 = MavenResource.parse("org.example:app1:1.0.0", mavenProperties(tempDir));
+		MavenResource resource2 = MavenResource.parse("org.example:app2:1.0.0", mavenProperties(tempDir));
+		assertThat(resolver(resource1)).isSameAs(resolver(resource2));
+	}
+
+	@Test
+	void changedPropertiesCreateNewResolver(@TempDir Path tempDir) {
+		MavenProperties properties = mavenProperties(tempDir);
+		MavenResource resource1 = MavenResource.parse("org.example:app1:1.0.0", properties);
+		properties.setOffline(true);
+		MavenResource resource2 = MavenResource.parse("org.example:app1:1.0.0", properties);
+		assertThat(resolver(resource1)).isNotSameAs(resolver(resource2));
+		assertThat(MavenArtifactResolverRegistry.size()).isEqualTo(2);
+		// the first resolver keeps the settings it was created with
+		assertThat(properties(resolver(resource1)).isOffline()).isFalse();
+		assertThat(properties(resolver(resource2)).isOffline()).isTrue();
+		MavenResource resource3 = MavenResource.parse("org.example:app1:1.0.0", mavenProperties(tempDir));
+		assertThat(resolver(resource3)).isSameAs(resolver(resource1));
+	}
+
+	@Test
+	void registryEvictsLeastRecentlyUsedResolver(@TempDir Path tempDir) {
+		MavenProperties first = mavenProperties(tempDir);
+		MavenArtifactResolver firstResolver = MavenArtifactResolverRegistry.getResolver(first);
+		for (int i = 0; i < MavenArtifactResolverRegistry.MAX_RESOLVERS; i++) {
+			MavenProperties properties = mavenProperties(tempDir);
+			properties.setConnectTimeout(1000 + i);
+			MavenArtifactResolverRegistry.getResolver(properties);
+		}
+		assertThat(MavenArtifactResolverRegistry.size()).isEqualTo(MavenArtifactResolverRegistry.MAX_RESOLVERS);
+		assertThat(MavenArtifactResolverRegistry.getResolver(first)).isNotSameAs(firstResolver);
+	}
+
+	@Test
+	void concurrentCallersShareOneResolver(@TempDir Path tempDir) throws Exception {
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<MavenArtifactResolver>> resolvers = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				resolvers.add(executor.submit(() -> {
+					start.await();
+					return MavenArtifactResolverRegistry.getResolver(mavenProperties(tempDir));
+				}));
+			}
+			start.countDown();
+			for (Future<MavenArtifactResolver> resolver : resolvers) {
+				assertThat(resolver.get(30, TimeUnit.SECONDS)).isSameAs(resolvers.get(0).get());
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertThat(MavenArtifactResolverRegistry.size()).isEqualTo(1);
+	}
+
+	@Test
+	void keyDoesNotContainPasswords(@TempDir Path tempDir) {
+		MavenProperties properties = mavenProperties(tempDir);
+		properties.getRemoteRepositories().get("default")
+				.setAuth(new MavenProperties.Authentication("user", "s3cr3t-password"));
+		String key = MavenArtifactResolverRegistry.key(properties);
+		assertThat(key).doesNotContain("s3cr3t-password");
+		properties.getRemoteRepositories().get("default")
+				.setAuth(new MavenProperties.Authentication("user", "other-password"));
+		assertThat(MavenArtifactResolverRegistry.key(properties)).isNotEqualTo(key);
+	}
+
+	private static MavenProperties mavenProperties(Path tempDir) {
+		MavenProperties properties = new MavenProperties();
+		properties.setLocalRepository(tempDir.toAbsolutePath().toString());
+		properties.getRemoteRepositories().put("default",
+				new MavenProperties.RemoteRepository("https://repo.spring.io/libs-snapshot-local"));
+		return properties;
+	}
+
+	private static MavenProperties properties(MavenArtifactResolver resolver) {
+		Field field = ReflectionUtils.findField(MavenArtifactResolver.class, "properties");
+		ReflectionUtils.makeAccessible(field);
+		return (MavenProperties) ReflectionUtils.getField(field, resolver);
+	}
+
+	private static MavenArtifactResolver resolver(MavenResource resource) {
+		Field field = ReflectionUtils.findField(MavenResource.class, "resolver");
+		ReflectionUtils.makeAccessible(field);
+		return (MavenArtifactResolver) ReflectionUtils.getField(field, resource);
+	}
+}
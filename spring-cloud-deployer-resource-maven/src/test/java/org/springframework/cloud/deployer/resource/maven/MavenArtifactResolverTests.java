@@ -18,12 +18,16 @@ package org.springframework.cloud.deployer.resource.maven;
 
 import java.net.UnknownHostException;
 
+import org.eclipse.aether.RepositorySystemSession;
 import org.junit.Assert;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.core.io.Resource;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 /**
@@ -73,6 +77,26 @@ class MavenArtifactResolverTests {
         //resolver.resolve(mvnresource);
     }
 
+    @Test
+    void testRepositorySystemSession_notSharedByDefault() {
+        MavenArtifactResolver resolver = new MavenArtifactResolver(new MavenProperties());
+        assertNotSame(resolver.repositorySystemSession(), resolver.repositorySystemSession());
+    }
+
+    @Test
+    void testRepositorySystemSession_sharedWithinRefreshInterval() throws Exception {
+        MavenProperties mavenProperties = new MavenProperties();
+        mavenProperties.setSharedSessionRefreshInterval(60000);
+        MavenArtifactResolver resolver = new MavenArtifactResolver(mavenProperties);
+        RepositorySystemSession session = resolver.repositorySystemSession();
+        assertSame(session, resolver.repositorySystemSession());
+        assertNotNull(session.getCache());
+
+        mavenProperties.setSharedSessionRefreshInterval(1);
+        Thread.sleep(5);
+        assertNotSame(session, resolver.repositorySystemSession());
+    }
+
     private MavenProperties mavenPropertiesWithProxyRepo() {
         MavenProperties mavenProperties = new MavenProperties();
         mavenProperties.setLocalRepository("~/.m2");
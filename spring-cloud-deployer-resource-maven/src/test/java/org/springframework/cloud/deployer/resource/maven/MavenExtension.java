@@ -15,6 +15,8 @@
  */
 package org.springframework.cloud.deployer.resource.maven;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
@@ -26,6 +28,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
@@ -35,6 +38,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -46,14 +50,38 @@ import org.springframework.web.bind.annotation.RestController;
  */
 public class MavenExtension implements AfterEachCallback, BeforeEachCallback {
 
+	private static final AtomicInteger concurrentDownloads = new AtomicInteger();
+
+	private static final AtomicInteger peakConcurrentDownloads = new AtomicInteger();
+
+	private static final AtomicInteger metadataRequests = new AtomicInteger();
+
 	private ConfigurableApplicationContext context;
 
 	public int getPort() {
 		return Integer.parseInt(this.context.getEnvironment().getProperty("local.server.port"));
 	}
 
+	/**
+	 * Return the maximum number of downloads from the {@code /concurrent} repository which
+	 * were in flight at the same time during the current test.
+	 */
+	public int getPeakConcurrentDownloads() {
+		return peakConcurrentDownloads.get();
+	}
+
+	/**
+	 * Return the number of requests for the metadata of {@code org.example:app} during the
+	 * current test.
+	 */
+	public int getMetadataRequests() {
+		return metadataRequests.get();
+	}
+
 	@Override
 	public void beforeEach(ExtensionContext context) throws Exception {
+		peakConcurrentDownloads.set(0);
+		metadataRequests.set(0);
 		SpringApplication application = new SpringApplication(ServerConfig.class);
 		this.context = application.run("--server.port=0");
 	}
@@ -79,6 +107,49 @@ public class MavenExtension implements AfterEachCallback, BeforeEachCallback {
 			return new byte[0];
 		}
 
+		@GetMapping(path = "/org/example/app/maven-metadata.xml", produces = "application/xml")
+		public String appMetadata() {
+			metadataRequests.incrementAndGet();
+			return "<metadata><groupId>org.example</groupId><artifactId>app</artifactId><versioning>"
+					+ "<versions><version>1.0.0.RELEASE</version><version>1.1.0.RELEASE</version></versions>"
+					+ "</versioning></metadata>";
+		}
+
+	}
+
+	@RestController
+	@RequestMapping("/slow")
+	static class SlowRepoController {
+
+		@GetMapping(path = "/org/example/slow/1.0.0.RELEASE/slow-1.0.0.RELEASE.jar")
+		public byte[] slow100release() throws InterruptedException {
+			// keep the download in flight long enough for concurrent callers to pile up
+			Thread.sleep(1000);
+			return new byte[0];
+		}
+
+	}
+
+	@RestController
+	@RequestMapping("/concurrent")
+	static class ConcurrentRepoController {
+
+		@GetMapping(path = "/org/example/{artifact}/1.0.0.RELEASE/{file:.+\\.jar}")
+		public ResponseEntity<byte[]> artifact100release(@PathVariable String artifact) throws InterruptedException {
+			if (artifact.equals("missing")) {
+				return ResponseEntity.notFound().build();
+			}
+			peakConcurrentDownloads.accumulateAndGet(concurrentDownloads.incrementAndGet(), Math::max);
+			try {
+				// keep the download in flight long enough for concurrent downloads to overlap
+				Thread.sleep(200);
+				return ResponseEntity.ok(new byte[0]);
+			}
+			finally {
+				concurrentDownloads.decrementAndGet();
+			}
+		}
+
 	}
 
 	@RestController
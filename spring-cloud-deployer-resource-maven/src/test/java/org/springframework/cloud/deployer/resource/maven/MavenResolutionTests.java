@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.maven;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.Resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for resolving several {@link MavenResource}s against a local http repository.
+ */
+public class MavenResolutionTests {
+
+	@RegisterExtension
+	static MavenExtension server = new MavenExtension();
+
+	@Test
+	public void resolveAllReportsFailuresPerArtifact(@TempDir Path tempDir) throws Exception {
+		MavenResourceLoader loader = new MavenResourceLoader(mavenProperties(tempDir));
+		MavenResource app = (MavenResource) loader.getResource("maven://org.example:app:jar:1.0.0.RELEASE");
+		MavenResource missing = (MavenResource) loader.getResource("maven://org.example:doesnotexist:jar:1.0.0.RELEASE");
+
+		BatchResolutionResult result = loader.resolveAll(Arrays.asList(app, missing));
+
+		assertThat(result.isSuccessful()).isFalse();
+		assertThat(result.getResolved()).containsOnlyKeys(app);
+		assertThat(result.getResolved().get(app).getFile()).exists();
+		assertThat(result.getFailures()).containsOnlyKeys(missing);
+		assertThat(result.getFailures().get(missing)).isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("org.example:doesnotexist:jar:1.0.0.RELEASE");
+	}
+
+	@Test
+	public void resolveAllUsesResolvedArtifactCache(@TempDir Path tempDir) throws Exception {
+		MavenResourceLoader loader = new MavenResourceLoader(mavenProperties(tempDir));
+		MavenResource app = (MavenResource) loader.getResource("maven://org.example:app:jar:1.0.0.RELEASE");
+		app.getFile();
+
+		BatchResolutionResult result = loader.resolveAll(Arrays.asList(app));
+
+		assertThat(result.isSuccessful()).isTrue();
+		assertThat(result.getResolved().get(app).getFile()).isEqualTo(app.getFile());
+		assertThat(loader.getResolvedArtifactCache().getHitCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void resolveAsyncWithBoundedConcurrency(@TempDir Path tempDir) throws Exception {
+		MavenProperties mavenProperties = mavenProperties(tempDir, "/concurrent");
+		mavenProperties.setMaxParallelDownloads(2);
+		MavenResourceLoader loader = new MavenResourceLoader(mavenProperties);
+		List<MavenResource> apps = new ArrayList<>();
+		List<CompletableFuture<Resource>> futures = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			apps.add((MavenResource) loader.getResource("maven://org.example:app" + i + ":jar:1.0.0.RELEASE"));
+			futures.add(loader.resolveAsync(apps.get(i)));
+		}
+		MavenResource missing = (MavenResource) loader.getResource("maven://org.example:missing:jar:1.0.0.RELEASE");
+		CompletableFuture<Resource> failed = loader.resolveAsync(missing);
+
+		for (int i = 0; i < futures.size(); i++) {
+			assertThat(futures.get(i).get(30, TimeUnit.SECONDS).getFile()).isEqualTo(apps.get(i).getFile());
+		}
+		assertThatThrownBy(() -> failed.get(30, TimeUnit.SECONDS))
+				.hasCauseInstanceOf(IllegalStateException.class);
+		assertThat(server.getPeakConcurrentDownloads()).isBetween(1, 2);
+	}
+
+	@Test
+	public void connectionsPerRepositoryAreLimitedAcrossResolutions(@TempDir Path tempDir) throws Exception {
+		MavenProperties mavenProperties = mavenProperties(tempDir, "/concurrent");
+		mavenProperties.setMaxParallelDownloads(6);
+		mavenProperties.setMaxConnectionsPerRepository(2);
+		MavenResourceLoader loader = new MavenResourceLoader(mavenProperties);
+		List<CompletableFuture<Resource>> futures = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			futures.add(loader.resolveAsync(
+					(MavenResource) loader.getResource("maven://org.example:app" + i + ":jar:1.0.0.RELEASE")));
+		}
+
+		for (CompletableFuture<Resource> future : futures) {
+			assertThat(future.get(30, TimeUnit.SECONDS).getFile()).exists();
+		}
+		assertThat(server.getPeakConcurrentDownloads()).isBetween(1, 2);
+	}
+
+	@Test
+	public void concurrentResolutionsAreCoalesced(@TempDir Path tempDir) throws Exception {
+		MavenProperties mavenProperties = new MavenProperties();
+		mavenProperties.setLocalRepository(tempDir.toAbsolutePath().toString());
+		mavenProperties.getRemoteRepositories().put("default",
+				new MavenProperties.RemoteRepository("http://localhost:" + server.getPort() + "/slow"));
+		MavenResourceLoader loader = new MavenResourceLoader(mavenProperties);
+		MavenResource slow = (MavenResource) loader.getResource("maven://org.example:slow:jar:1.0.0.RELEASE");
+
+		int threads = 16;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<File>> files = new ArrayList<>();
+		try {
+			for (int i = 0; i < threads; i++) {
+				files.add(executor.submit(() -> {
+					start.await();
+					return slow.getFile();
+				}));
+			}
+			start.countDown();
+			for (Future<File> file : files) {
+				assertThat(file.get(30, TimeUnit.SECONDS)).isEqualTo(files.get(0).get());
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		long coalesced = loader.getCoalescedResolutionCount();
+		long misses = loader.getResolvedArtifactCache().getMissCount();
+		assertThat(coalesced).isGreaterThan(0);
+		// every call which missed the cache either resolved the artifact or waited for another one
+		assertThat(misses - coalesced).isGreaterThanOrEqualTo(1).isLessThan(threads);
+	}
+
+	@Test
+	public void getVersionsForSeveralCoordinates(@TempDir Path tempDir) {
+		MavenProperties mavenProperties = mavenProperties(tempDir);
+		mavenProperties.setVersionCacheTtl(60000);
+		MavenResource app = MavenResource.parse("org.example:app:jar:1.0.0.RELEASE", mavenProperties);
+
+		Map<String, List<String>> versions = app.getVersions(
+				Arrays.asList("org.example:app:jar:[0,)", "org.example:doesnotexist:jar:[0,)"));
+
+		assertThat(versions.get("org.example:app:jar:[0,)")).containsExactly("1.0.0.RELEASE", "1.1.0.RELEASE");
+		assertThat(versions.get("org.example:doesnotexist:jar:[0,)")).isEmpty();
+		assertThat(app.getVersions("org.example:app:jar:[0,)")).containsExactly("1.0.0.RELEASE", "1.1.0.RELEASE");
+	}
+
+	@Test
+	public void versionsAreCachedPerArtifact(@TempDir Path tempDir) {
+		MavenProperties mavenProperties = mavenProperties(tempDir);
+		mavenProperties.setVersionCacheTtl(60000);
+		MavenResource app = MavenResource.parse("org.example:app:jar:1.0.0.RELEASE", mavenProperties);
+
+		assertThat(app.getVersions("org.example:app:jar:[0,)")).containsExactly("1.0.0.RELEASE", "1.1.0.RELEASE");
+		assertThat(app.getVersions("org.example:app:jar:[1.1,)")).containsExactly("1.1.0.RELEASE");
+		assertThat(app.getVersions("org.example:app:pom:(,1.1)")).containsExactly("1.0.0.RELEASE");
+
+		assertThat(server.getMetadataRequests()).isEqualTo(1);
+		assertThat(MavenArtifactResolverRegistry.getResolver(mavenProperties).versionCacheSize()).isEqualTo(1);
+	}
+
+	static MavenProperties mavenProperties(Path tempDir) {
+		return mavenProperties(tempDir, "/public");
+	}
+
+	static MavenProperties mavenProperties(Path tempDir, String path) {
+		MavenProperties mavenProperties = new MavenProperties();
+		mavenProperties.setLocalRepository(tempDir.toAbsolutePath().toString());
+		Map<String, MavenProperties.RemoteRepository> remoteRepositoryMap = new HashMap<>();
+		remoteRepositoryMap.put("default",
+				new MavenProperties.RemoteRepository("http://localhost:" + server.getPort() + path));
+		mavenProperties.setRemoteRepositories(remoteRepositoryMap);
+		return mavenProperties;
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.maven;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ResolvedArtifactCache}.
+ */
+class ResolvedArtifactCacheTests {
+
+	@RegisterExtension
+	static MavenExtension server = new MavenExtension();
+
+	@Test
+	void releaseIsCachedUntilFileDisappears(@TempDir Path tempDir) throws Exception {
+		File file = Files.createFile(tempDir.resolve("app-1.0.0.jar")).toFile();
+		ResolvedArtifactCache cache = new ResolvedArtifactCache(true, 0);
+		cache.put("org.example:app:jar:1.0.0", false, file);
+		assertThat(cache.get("org.example:app:jar:1.0.0")).isEqualTo(file);
+		assertThat(file.delete()).isTrue();
+		assertThat(cache.get("org.example:app:jar:1.0.0")).isNull();
+		assertThat(cache.size()).isEqualTo(0);
+		assertThat(cache.getHitCount()).isEqualTo(1);
+		assertThat(cache.getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	void snapshotIsCachedForTtl(@TempDir Path tempDir) throws Exception {
+		File file = Files.createFile(tempDir.resolve("app-1.0.0-SNAPSHOT.jar")).toFile();
+		ResolvedArtifactCache noTtl = new ResolvedArtifactCache(true, 0);
+		noTtl.put("org.example:app:jar:1.0.0-SNAPSHOT", true, file);
+		assertThat(noTtl.get("org.example:app:jar:1.0.0-SNAPSHOT")).isNull();
+
+		ResolvedArtifactCache ttl = new ResolvedArtifactCache(true, 60000);
+		ttl.put("org.example:app:jar:1.0.0-SNAPSHOT", true, file);
+		assertThat(ttl.get("org.example:app:jar:1.0.0-SNAPSHOT")).isEqualTo(file);
+	}
+
+	@Test
+	void disabledCacheNeverHits(@TempDir Path tempDir) throws Exception {
+		File file = Files.createFile(tempDir.resolve("app-1.0.0.jar")).toFile();
+		ResolvedArtifactCache cache = new ResolvedArtifactCache(false, 0);
+		cache.put("org.example:app:jar:1.0.0", false, file);
+		assertThat(cache.get("org.example:app:jar:1.0.0")).isNull();
+		assertThat(cache.getMissCount()).isEqualTo(0);
+	}
+
+	@Test
+	void repeatedResolutionIsServedFromCache(@TempDir Path tempDir) throws Exception {
+		MavenProperties mavenProperties = new MavenProperties();
+		mavenProperties.setLocalRepository(tempDir.toAbsolutePath().toString());
+		Map<String, MavenProperties.RemoteRepository> remoteRepositoryMap = new HashMap<>();
+		remoteRepositoryMap.put("default",
+				new MavenProperties.RemoteRepository("http://localhost:" + server.getPort() + "/public"));
+		mavenProperties.setRemoteRepositories(remoteRepositoryMap);
+		MavenResourceLoader loader = new MavenResourceLoader(mavenProperties);
+		ResolvedArtifactCache cache = loader.getResolvedArtifactCache();
+		MavenResource resource = (MavenResource) loader.getResource("maven://org.example:app:jar:1.0.0.RELEASE");
+		File file1 = resource.getFile();
+		File file2 = resource.getFile();
+		assertThat(resource.exists()).isTrue();
+		assertThat(file1).isEqualTo(file2);
+		assertThat(cache.getMissCount()).isEqualTo(1);
+		assertThat(cache.getHitCount()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,429 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.registry;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.util.Assert;
+
+/**
+ * In-memory (non persistent) {@link UriRegistry} implementation optimized for footprint.
+ * <p>
+ * Instead of a {@link URI} object per key, each registration is stored as a single
+ * {@code long} referring to an interned prefix and to a suffix kept in a shared byte
+ * arena. The prefix is the scheme and group of a {@code maven://} URI, e.g.
+ * {@code maven://org.springframework.cloud.stream.app:}, or everything up to the last
+ * {@code /} for other URIs, so registries of apps from the same few groups or hosts
+ * store each prefix once. {@code URI} objects are built on lookup. Keys and their
+ * {@code long}s are kept in an open-addressed hash table of two parallel arrays, so no
+ * entry or boxed {@code Long} is allocated per registration.
+ * <p>
+ * The arena is compacted once more than half of it belongs to overwritten or removed
+ * registrations.
+ */
+public class CompactUriRegistry implements UriRegistry {
+
+	private static final int PREFIX_BITS = 12;
+
+	private static final int LENGTH_BITS = 20;
+
+	private static final int MAX_PREFIXES = 1 << PREFIX_BITS;
+
+	private static final int MAX_SUFFIX_LENGTH = (1 << LENGTH_BITS) - 1;
+
+	private static final int MIN_COMPACTION_GARBAGE = 64 * 1024;
+
+	private static final int MAX_ARENA_SIZE = Integer.MAX_VALUE - 8;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// open-addressed with linear probing; a null key marks a free slot
+	private String[] keys = new String[INITIAL_CAPACITY];
+
+	private long[] values = new long[INITIAL_CAPACITY];
+
+	private int size;
+
+	private final List<String> prefixes = new ArrayList<>();
+
+	private final Map<String, Integer> prefixIds = new HashMap<>();
+
+	private byte[] arena = new byte[4096];
+
+	private int arenaSize;
+
+	private int garbage;
+
+	/**
+	 * Create an empty registry.
+	 */
+	public CompactUriRegistry() {
+		// prefix id 0 is the empty prefix, used once the prefix table is full
+		this.prefixes.add("");
+		this.prefixIds.put("", 0);
+	}
+
+	@Override
+	public URI find(String key) {
+		Assert.hasLength(key, "key required");
+		URI uri = lookup(key);
+		if (uri == null) {
+			throw new IllegalArgumentException("No URI found for " + key);
+		}
+		return uri;
+	}
+
+	@Override
+	public Optional<URI> findIfPresent(String key) {
+		Assert.hasLength(key, "key required");
+		return Optional.ofNullable(lookup(key));
+	}
+
+	@Override
+	public Map<String, URI> findAll() {
+		return findByPrefix("");
+	}
+
+	@Override
+	public Map<String, URI> findByPrefix(String prefix) {
+		this.lock.readLock().lock();
+		try {
+			Map<String, URI> uris = new LinkedHashMap<>();
+			for (int i = 0; i < this.keys.length; i++) {
+				String key = this.keys[i];
+				if (key != null && key.startsWith(prefix)) {
+					uris.put(key, decode(this.values[i]));
+				}
+			}
+			return Collections.unmodifiableMap(uris);
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void register(String key, URI uri) {
+		registerAll(Collections.singletonMap(key, uri));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The whole batch is validated before any of it is registered, so an invalid entry
+	 * leaves the registry unchanged.
+	 */
+	@Override
+	public void registerAll(Map<String, URI> uris) {
+		this.lock.writeLock().lock();
+		try {
+			int count = uris.size();
+			String[] batchKeys = new String[count];
+			String[] batchPrefixes = new String[count];
+			byte[][] batchSuffixes = new byte[count][];
+			Set<String> newPrefixes = new HashSet<>();
+			long arenaSize = this.arenaSize;
+			int i = 0;
+			for (Map.Entry<String, URI> entry : uris.entrySet()) {
+				Assert.hasLength(entry.getKey(), "key required");
+				Assert.notNull(entry.getValue(), "uri required");
+				String uri = entry.getValue().toString();
+				int split = prefixLength(uri);
+				String prefix = uri.substring(0, split);
+				if (!this.prefixIds.containsKey(prefix) && !newPrefixes.contains(prefix)) {
+					if (this.prefixes.size() + newPrefixes.size() < MAX_PREFIXES) {
+						newPrefixes.add(prefix);
+					}
+					else {
+						// the prefix table is full, store the whole URI as the suffix
+						split = 0;
+						prefix = "";
+					}
+				}
+				byte[] suffix = uri.substring(split).getBytes(StandardCharsets.UTF_8);
+				if (suffix.length > MAX_SUFFIX_LENGTH) {
+					throw new IllegalArgumentException("URI exceeds " + MAX_SUFFIX_LENGTH + " bytes: "
+							+ uri.substring(0, 100) + "...");
+				}
+				arenaSize += suffix.length;
+				batchKeys[i] = entry.getKey();
+				batchPrefixes[i] = prefix;
+				batchSuffixes[i] = suffix;
+				i++;
+			}
+			Assert.state(arenaSize <= MAX_ARENA_SIZE, "URI registry arena exceeds 2GB");
+			for (i = 0; i < count; i++) {
+				int slot = slot(batchKeys[i]);
+				long value = pack(internPrefix(batchPrefixes[i]), batchSuffixes[i].length, append(batchSuffixes[i]));
+				if (this.keys[slot] != null) {
+					this.garbage += length(this.values[slot]);
+					this.values[slot] = value;
+				}
+				else {
+					insert(slot, batchKeys[i], value);
+				}
+			}
+			compactIfNecessary();
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void unregister(String key) {
+		unregisterAll(Collections.singleton(key));
+	}
+
+	@Override
+	public void unregisterAll(Collection<String> keys) {
+		this.lock.writeLock().lock();
+		try {
+			for (String key : keys) {
+				int slot = slot(key);
+				if (this.keys[slot] != null) {
+					this.garbage += length(this.values[slot]);
+					remove(slot);
+				}
+			}
+			compactIfNecessary();
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Return the number of interned prefixes, including the empty prefix.
+	 */
+	int prefixCount() {
+		this.lock.readLock().lock();
+		try {
+			return this.prefixes.size();
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Return the number of bytes in use in the suffix arena.
+	 */
+	int arenaSize() {
+		this.lock.readLock().lock();
+		try {
+			return this.arenaSize;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Return the capacity of the hash table.
+	 */
+	int capacity() {
+		this.lock.readLock().lock();
+		try {
+			return this.keys.length;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	private URI lookup(String key) {
+		this.lock.readLock().lock();
+		try {
+			int slot = slot(key);
+			return this.keys[slot] != null ? decode(this.values[slot]) : null;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Return the slot holding the key, or the free slot it would be inserted at.
+	 */
+	private int slot(String key) {
+		int mask = this.keys.length - 1;
+		int slot = hash(key) & mask;
+		while (this.keys[slot] != null && !this.keys[slot].equals(key)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void insert(int slot, String key, long value) {
+		if ((this.size + 1) * 4L > this.keys.length * 3L) {
+			resize(this.keys.length * 2);
+			slot = slot(key);
+		}
+		this.keys[slot] = key;
+		this.values[slot] = value;
+		this.size++;
+	}
+
+	/**
+	 * Free the slot, moving later keys of the same probe sequence back so that lookups
+	 * need no tombstones.
+	 */
+	private void remove(int slot) {
+		int mask = this.keys.length - 1;
+		int free = slot;
+		int next = (free + 1) & mask;
+		while (this.keys[next] != null) {
+			int home = hash(this.keys[next]) & mask;
+			// move the key unless its home slot lies cyclically in (free, next]
+			if (((next - home) & mask) >= ((next - free) & mask)) {
+				this.keys[free] = this.keys[next];
+				this.values[free] = this.values[next];
+				free = next;
+			}
+			next = (next + 1) & mask;
+		}
+		this.keys[free] = null;
+		this.values[free] = 0;
+		this.size--;
+	}
+
+	private void resize(int capacity) {
+		Assert.state(capacity > 0, "URI registry exceeds its maximum number of keys");
+		String[] oldKeys = this.keys;
+		long[] oldValues = this.values;
+		this.keys = new String[capacity];
+		this.values = new long[capacity];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				int slot = slot(oldKeys[i]);
+				this.keys[slot] = oldKeys[i];
+				this.values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	private static int hash(String key) {
+		// spread similar keys such as app1, app2, ... so they do not form long probe runs
+		int hash = key.hashCode() * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	private URI decode(long entry) {
+		String prefix = this.prefixes.get((int) (entry >>> (64 - PREFIX_BITS)));
+		String suffix = new String(this.arena, offset(entry), length(entry), StandardCharsets.UTF_8);
+		return URI.create(prefix.isEmpty() ? suffix : prefix + suffix);
+	}
+
+	/**
+	 * Return the id of the prefix, adding it to the table. The caller checked that there
+	 * is room for it.
+	 */
+	private int internPrefix(String prefix) {
+		Integer id = this.prefixIds.get(prefix);
+		if (id != null) {
+			return id;
+		}
+		id = this.prefixes.size();
+		this.prefixes.add(prefix);
+		this.prefixIds.put(prefix, id);
+		return id;
+	}
+
+	private int append(byte[] suffix) {
+		if (this.arenaSize + suffix.length > this.arena.length) {
+			// registerAll checked that the batch fits
+			long capacity = Math.max((long) this.arena.length * 2, (long) this.arenaSize + suffix.length);
+			this.arena = Arrays.copyOf(this.arena, (int) Math.min(capacity, MAX_ARENA_SIZE));
+		}
+		int offset = this.arenaSize;
+		System.arraycopy(suffix, 0, this.arena, offset, suffix.length);
+		this.arenaSize += suffix.length;
+		return offset;
+	}
+
+	private void compactIfNecessary() {
+		if (this.garbage < MIN_COMPACTION_GARBAGE || this.garbage < this.arenaSize / 2) {
+			return;
+		}
+		byte[] compacted = new byte[Math.max(4096, this.arenaSize - this.garbage)];
+		int size = 0;
+		for (int i = 0; i < this.keys.length; i++) {
+			if (this.keys[i] != null) {
+				long value = this.values[i];
+				int length = length(value);
+				System.arraycopy(this.arena, offset(value), compacted, size, length);
+				this.values[i] = pack((int) (value >>> (64 - PREFIX_BITS)), length, size);
+				size += length;
+			}
+		}
+		this.arena = compacted;
+		this.arenaSize = size;
+		this.garbage = 0;
+	}
+
+	/**
+	 * Return the length of the prefix shared with other URIs: up to and including the
+	 * group of a maven URI, or up to and including the last {@code /} otherwise.
+	 */
+	static int prefixLength(String uri) {
+		int colon = uri.indexOf(':');
+		if (colon < 0) {
+			return 0;
+		}
+		int start = colon + 1;
+		if (uri.startsWith("//", start)) {
+			start += 2;
+		}
+		if (uri.regionMatches(true, 0, "maven", 0, colon) && colon == "maven".length()) {
+			int groupEnd = uri.indexOf(':', start);
+			if (groupEnd > 0) {
+				return groupEnd + 1;
+			}
+		}
+		int slash = uri.lastIndexOf('/');
+		return slash >= start ? slash + 1 : start;
+	}
+
+	private static long pack(int prefixId, int length, int offset) {
+		return ((long) prefixId << (64 - PREFIX_BITS)) | ((long) length << 32) | (offset & 0xFFFFFFFFL);
+	}
+
+	private static int length(long entry) {
+		return (int) ((entry >>> 32) & MAX_SUFFIX_LENGTH);
+	}
+
+	private static int offset(long entry) {
+		return (int) entry;
+	}
+
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.registry;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable hash array mapped trie with string keys. {@link #with(String, Object)} and
+ * {@link #without(String)} return a new map sharing all but the nodes on the path to the
+ * key, so an update copies at most seven small nodes instead of the whole map. Values
+ * must not be {@literal null}.
+ *
+ * @param <V> the value type
+ */
+final class HashTrieMap<V> extends AbstractMap<String, V> {
+
+	private static final int BITS = 5;
+
+	private static final int MASK = (1 << BITS) - 1;
+
+	private static final Object[] NO_SLOTS = new Object[0];
+
+	private static final HashTrieMap<?> EMPTY = new HashTrieMap<>(new Node(0, NO_SLOTS), 0);
+
+	private final Node root;
+
+	private final int size;
+
+	private HashTrieMap(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <V> HashTrieMap<V> empty() {
+		return (HashTrieMap<V>) EMPTY;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		if (!(key instanceof String)) {
+			return null;
+		}
+		Entry<V> entry = (Entry<V>) this.root.find((String) key, hash(key), 0);
+		return entry != null ? entry.getValue() : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Return a map with the key mapped to the value.
+	 */
+	HashTrieMap<V> with(String key, V value) {
+		if (value == null) {
+			throw new NullPointerException("value must not be null");
+		}
+		int[] added = new int[1];
+		Node root = this.root.put(new Entry<>(key, value, hash(key)), 0, added);
+		return root == this.root ? this : new HashTrieMap<>(root, this.size + added[0]);
+	}
+
+	/**
+	 * Return a map without the key.
+	 */
+	HashTrieMap<V> without(String key) {
+		Node root = this.root.remove(key, hash(key), 0);
+		if (root == this.root) {
+			return this;
+		}
+		return root != null ? new HashTrieMap<>(root, this.size - 1) : empty();
+	}
+
+	@Override
+	public Set<Map.Entry<String, V>> entrySet() {
+		return new AbstractSet<Map.Entry<String, V>>() {
+
+			@Override
+			public Iterator<Map.Entry<String, V>> iterator() {
+				return new EntryIterator<>(HashTrieMap.this.root);
+			}
+
+			@Override
+			public int size() {
+				return HashTrieMap.this.size;
+			}
+		};
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static final class Entry<V> extends AbstractMap.SimpleImmutableEntry<String, V> {
+
+		private final int hash;
+
+		Entry(String key, V value, int hash) {
+			super(key, value);
+			this.hash = hash;
+		}
+	}
+
+	/**
+	 * A trie node. Below the last level of hash bits a node is a plain list of entries
+	 * whose hashes collide; above it, the bitmap tells which of the 32 slots are present
+	 * and each slot holds an {@link Entry} or a child node.
+	 */
+	private static final class Node {
+
+		private final int bitmap;
+
+		private final Object[] slots;
+
+		Node(int bitmap, Object[] slots) {
+			this.bitmap = bitmap;
+			this.slots = slots;
+		}
+
+		Entry<?> find(String key, int hash, int shift) {
+			if (shift >= Integer.SIZE) {
+				return findCollision(key);
+			}
+			int bit = bit(hash, shift);
+			if ((this.bitmap & bit) == 0) {
+				return null;
+			}
+			Object slot = this.slots[index(bit)];
+			if (slot instanceof Entry) {
+				Entry<?> entry = (Entry<?>) slot;
+				return entry.hash == hash && entry.getKey().equals(key) ? entry : null;
+			}
+			return ((Node) slot).find(key, hash, shift + BITS);
+		}
+
+		Node put(Entry<?> entry, int shift, int[] added) {
+			if (shift >= Integer.SIZE) {
+				return putCollision(entry, added);
+			}
+			int bit = bit(entry.hash, shift);
+			int index = index(bit);
+			if ((this.bitmap & bit) == 0) {
+				added[0] = 1;
+				return new Node(this.bitmap | bit, insert(this.slots, index, entry));
+			}
+			Object slot = this.slots[index];
+			Object replacement;
+			if (slot instanceof Entry) {
+				Entry<?> existing = (Entry<?>) slot;
+				if (existing.hash == entry.hash && existing.getKey().equals(entry.getKey())) {
+					if (existing.getValue() == entry.getValue()) {
+						return this;
+					}
+					replacement = entry;
+				}
+				else {
+					added[0] = 1;
+					replacement = pair(existing, entry, shift + BITS);
+				}
+			}
+			else {
+				replacement = ((Node) slot).put(entry, shift + BITS, added);
+				if (replacement == slot) {
+					return this;
+				}
+			}
+			Object[] slots = this.slots.clone();
+			slots[index] = replacement;
+			return new Node(this.bitmap, slots);
+		}
+
+		/**
+		 * Return the node without the key, this node if the key is absent or
+		 * {@literal null} if the node became empty.
+		 */
+		Node remove(String key, int hash, int shift) {
+			if (shift >= Integer.SIZE) {
+				return removeCollision(key);
+			}
+			int bit = bit(hash, shift);
+			if ((this.bitmap & bit) == 0) {
+				return this;
+			}
+			int index = index(bit);
+			Object slot = this.slots[index];
+			Object replacement;
+			if (slot instanceof Entry) {
+				if (!((Entry<?>) slot).getKey().equals(key)) {
+					return this;
+				}
+				replacement = null;
+			}
+			else {
+				Node child = ((Node) slot).remove(key, hash, shift + BITS);
+				if (child == slot) {
+					return this;
+				}
+				// pull a single remaining entry up, so the trie stays as shallow as it was
+				replacement = child != null && child.slots.length == 1 && child.slots[0] instanceof Entry
+						? child.slots[0] : child;
+			}
+			if (replacement == null) {
+				return this.slots.length == 1 ? null : new Node(this.bitmap & ~bit, delete(this.slots, index));
+			}
+			Object[] slots = this.slots.clone();
+			slots[index] = replacement;
+			return new Node(this.bitmap, slots);
+		}
+
+		private Entry<?> findCollision(String key) {
+			for (Object slot : this.slots) {
+				if (((Entry<?>) slot).getKey().equals(key)) {
+					return (Entry<?>) slot;
+				}
+			}
+			return null;
+		}
+
+		private Node putCollision(Entry<?> entry, int[] added) {
+			for (int i = 0; i < this.slots.length; i++) {
+				Entry<?> existing = (Entry<?>) this.slots[i];
+				if (existing.getKey().equals(entry.getKey())) {
+					if (existing.getValue() == entry.getValue()) {
+						return this;
+					}
+					Object[] slots = this.slots.clone();
+					slots[i] = entry;
+					return new Node(0, slots);
+				}
+			}
+			added[0] = 1;
+			return new Node(0, insert(this.slots, this.slots.length, entry));
+		}
+
+		private Node removeCollision(String key) {
+			for (int i = 0; i < this.slots.length; i++) {
+				if (((Entry<?>) this.slots[i]).getKey().equals(key)) {
+					return this.slots.length == 1 ? null : new Node(0, delete(this.slots, i));
+				}
+			}
+			return this;
+		}
+
+		private int index(int bit) {
+			return Integer.bitCount(this.bitmap & (bit - 1));
+		}
+
+		private static Node pair(Entry<?> first, Entry<?> second, int shift) {
+			if (shift >= Integer.SIZE) {
+				return new Node(0, new Object[] { first, second });
+			}
+			int firstBit = bit(first.hash, shift);
+			int secondBit = bit(second.hash, shift);
+			if (firstBit == secondBit) {
+				return new Node(firstBit, new Object[] { pair(first, second, shift + BITS) });
+			}
+			return new Node(firstBit | secondBit,
+					Integer.compareUnsigned(firstBit, secondBit) < 0 ? new Object[] { first, second }
+							: new Object[] { second, first });
+		}
+
+		private static int bit(int hash, int shift) {
+			return 1 << ((hash >>> shift) & MASK);
+		}
+
+		private static Object[] insert(Object[] slots, int index, Object slot) {
+			Object[] copy = new Object[slots.length + 1];
+			System.arraycopy(slots, 0, copy, 0, index);
+			copy[index] = slot;
+			System.arraycopy(slots, index, copy, index + 1, slots.length - index);
+			return copy;
+		}
+
+		private static Object[] delete(Object[] slots, int index) {
+			Object[] copy = new Object[slots.length - 1];
+			System.arraycopy(slots, 0, copy, 0, index);
+			System.arraycopy(slots, index + 1, copy, index, copy.length - index);
+			return copy;
+		}
+	}
+
+	/**
+	 * Depth-first iterator over the entries of a trie.
+	 */
+	private static final class EntryIterator<V> implements Iterator<Map.Entry<String, V>> {
+
+		private final Deque<Object[]> slots = new ArrayDeque<>();
+
+		private final Deque<Integer> positions = new ArrayDeque<>();
+
+		private Entry<V> next;
+
+		EntryIterator(Node root) {
+			this.slots.push(root.slots);
+			this.positions.push(0);
+			advance();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.next != null;
+		}
+
+		@Override
+		public Map.Entry<String, V> next() {
+			Entry<V> next = this.next;
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			advance();
+			return next;
+		}
+
+		@SuppressWarnings("unchecked")
+		private void advance() {
+			this.next = null;
+			while (!this.slots.isEmpty()) {
+				Object[] slots = this.slots.peek();
+				int position = this.positions.pop();
+				if (position >= slots.length) {
+					this.slots.pop();
+					continue;
+				}
+				this.positions.push(position + 1);
+				Object slot = slots[position];
+				if (slot instanceof Entry) {
+					this.next = (Entry<V>) slot;
+					return;
+				}
+				this.slots.push(((Node) slot).slots);
+				this.positions.push(0);
+			}
+		}
+	}
+}
@@ -17,20 +17,29 @@
 package org.springframework.cloud.deployer.resource.registry;
 
 import java.net.URI;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
 
 import org.springframework.util.Assert;
 
 /**
  * In-memory (non persistent) {@link UriRegistry} implementation.
+ * <p>
+ * Registrations are kept in an immutable hash trie which is republished on every write,
+ * so a batch registered with {@link #registerAll(Map)} becomes visible at once and
+ * readers get a consistent point-in-time view without taking locks. A write copies only
+ * the path to the changed key, so registering keys one at a time stays cheap.
  *
  * @author Patrick Peralta
  */
 public class InMemoryUriRegistry implements UriRegistry {
 
-	private final Map<String, URI> map = new ConcurrentHashMap<>();
+	private final Object writeMonitor = new Object();
+
+	private volatile HashTrieMap<URI> map = HashTrieMap.empty();
 
 	@Override
 	public URI find(String key) {
@@ -42,19 +51,62 @@ public class InMemoryUriRegistry implements UriRegistry {
 		return uri;
 	}
 
+	@Override
+	public Optional<URI> findIfPresent(String key) {
+		Assert.hasLength(key, "key required");
+		return Optional.ofNullable(this.map.get(key));
+	}
+
 	@Override
 	public Map<String, URI> findAll() {
-		return Collections.unmodifiableMap(this.map);
+		return this.map;
+	}
+
+	@Override
+	public Map<String, URI> findByPrefix(String prefix) {
+		Map<String, URI> matches = new LinkedHashMap<>();
+		for (Map.Entry<String, URI> entry : this.map.entrySet()) {
+			if (entry.getKey().startsWith(prefix)) {
+				matches.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return matches;
 	}
 
 	@Override
 	public void register(String key, URI uri) {
-		this.map.put(key, uri);
+		registerAll(Collections.singletonMap(key, uri));
+	}
+
+	@Override
+	public void registerAll(Map<String, URI> uris) {
+		for (Map.Entry<String, URI> entry : uris.entrySet()) {
+			Assert.hasLength(entry.getKey(), "key required");
+			Assert.notNull(entry.getValue(), "uri required");
+		}
+		synchronized (this.writeMonitor) {
+			HashTrieMap<URI> map = this.map;
+			for (Map.Entry<String, URI> entry : uris.entrySet()) {
+				map = map.with(entry.getKey(), entry.getValue());
+			}
+			this.map = map;
+		}
 	}
 
 	@Override
 	public void unregister(String key) {
-		this.map.remove(key);
+		unregisterAll(Collections.singleton(key));
+	}
+
+	@Override
+	public void unregisterAll(Collection<String> keys) {
+		synchronized (this.writeMonitor) {
+			HashTrieMap<URI> map = this.map;
+			for (String key : keys) {
+				map = map.without(key);
+			}
+			this.map = map;
+		}
 	}
 
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.registry;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link UriRegistry} decorator keeping a radix trie over the registered keys.
+ * <p>
+ * Registry keys follow the {@code <type>.<name>[.metadata]} convention, so listing all
+ * apps of a type or completing a partially typed name is a prefix scan. The trie answers
+ * these in time proportional to the prefix length plus the number of results, in key
+ * order and with paging, instead of filtering {@link #findAll()}. Shared key prefixes
+ * are stored once. Writes go to the delegate and keep the trie in sync; lookups by key
+ * are served by the delegate.
+ * <p>
+ * The trie is an index in addition to the delegate's own storage, not a replacement for
+ * it, so the memory used by the registry grows rather than shrinks. It holds the keys
+ * only, not their {@code URI}s: for typical app registrations, e.g.
+ * {@code source.http} and {@code source.http.metadata} with Maven {@code URI}s, it adds
+ * roughly 80 bytes per key to the 400 to 450 bytes a key takes in an
+ * {@link InMemoryUriRegistry}, about 20%. Using less memory than the boxed map entries
+ * is not a goal of this class. Only wrap a registry which is queried by prefix or type
+ * often enough to be worth it, and wrap a {@link CompactUriRegistry} where the footprint
+ * of the registry matters.
+ */
+public class IndexedUriRegistry implements UriRegistry {
+
+	private final UriRegistry delegate;
+
+	private final KeyTrie keys = new KeyTrie();
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Create an index over the given registry, indexing its current registrations.
+	 *
+	 * @param delegate the registry to index
+	 */
+	public IndexedUriRegistry(UriRegistry delegate) {
+		Assert.notNull(delegate, "delegate must not be null");
+		this.delegate = delegate;
+		for (String key : delegate.findAll().keySet()) {
+			this.keys.add(key);
+		}
+	}
+
+	@Override
+	public URI find(String key) {
+		return this.delegate.find(key);
+	}
+
+	@Override
+	public Optional<URI> findIfPresent(String key) {
+		return this.delegate.findIfPresent(key);
+	}
+
+	@Override
+	public Map<String, URI> findAll() {
+		return this.delegate.findAll();
+	}
+
+	@Override
+	public Map<String, URI> findByPrefix(String prefix) {
+		return findByPrefix(prefix, 0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Return a page of the registered {@code URI}s whose keys start with the given prefix,
+	 * in key order.
+	 *
+	 * @param prefix the key prefix
+	 * @param offset the number of matching keys to skip
+	 * @param limit the maximum number of entries to return
+	 * @return map of matching keys to {@code URI}s, in key order
+	 */
+	public Map<String, URI> findByPrefix(String prefix, int offset, int limit) {
+		Assert.isTrue(offset >= 0, "offset must not be negative");
+		Assert.isTrue(limit >= 0, "limit must not be negative");
+		this.lock.readLock().lock();
+		try {
+			Map<String, URI> uris = new LinkedHashMap<>();
+			for (String key : this.keys.keys(prefix, offset, limit)) {
+				this.delegate.findIfPresent(key).ifPresent(uri -> uris.put(key, uri));
+			}
+			return uris;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Return the registered {@code URI}s of an app type, e.g. all {@code source} apps.
+	 *
+	 * @param type the app type
+	 * @return map of keys of the type to {@code URI}s, in key order
+	 */
+	public Map<String, URI> findByType(String type) {
+		Assert.hasLength(type, "type required");
+		return findByPrefix(type + ".");
+	}
+
+	/**
+	 * Return a page of the keys starting with the given prefix, in key order, without
+	 * looking up their {@code URI}s.
+	 *
+	 * @param prefix the key prefix
+	 * @param offset the number of matching keys to skip
+	 * @param limit the maximum number of keys to return
+	 * @return the matching keys
+	 */
+	public List<String> findKeysByPrefix(String prefix, int offset, int limit) {
+		Assert.isTrue(offset >= 0, "offset must not be negative");
+		Assert.isTrue(limit >= 0, "limit must not be negative");
+		this.lock.readLock().lock();
+		try {
+			return this.keys.keys(prefix, offset, limit);
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void register(String key, URI uri) {
+		this.lock.writeLock().lock();
+		try {
+			this.delegate.register(key, uri);
+			this.keys.add(key);
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void registerAll(Map<String, URI> uris) {
+		this.lock.writeLock().lock();
+		try {
+			this.delegate.registerAll(uris);
+			for (String key : uris.keySet()) {
+				this.keys.add(key);
+			}
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void unregister(String key) {
+		this.lock.writeLock().lock();
+		try {
+			this.delegate.unregister(key);
+			this.keys.remove(key);
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void unregisterAll(Collection<String> keys) {
+		this.lock.writeLock().lock();
+		try {
+			this.delegate.unregisterAll(keys);
+			for (String key : keys) {
+				this.keys.remove(key);
+			}
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.registry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Radix trie over string keys. Common prefixes are stored once in compressed edge
+ * labels and the children of a node are kept sorted, so a prefix scan visits keys in
+ * lexicographic order and only touches the nodes below the prefix. Not thread-safe.
+ */
+final class KeyTrie {
+
+	private static final Node[] NO_CHILDREN = new Node[0];
+
+	private final Node root = new Node(new char[0]);
+
+	private int size;
+
+	/**
+	 * Add a key.
+	 * @return {@code true} if the key was not present before
+	 */
+	boolean add(String key) {
+		Node node = this.root;
+		int i = 0;
+		while (i < key.length()) {
+			int index = node.indexOf(key.charAt(i));
+			if (index < 0) {
+				Node leaf = new Node(key.substring(i).toCharArray());
+				leaf.terminal = true;
+				node.insertChild(-(index + 1), leaf);
+				this.size++;
+				return true;
+			}
+			Node child = node.children[index];
+			int common = commonPrefix(child.label, key, i);
+			if (common < child.label.length) {
+				// split the edge at the end of the common prefix
+				Node split = new Node(Arrays.copyOf(child.label, common));
+				child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+				split.children = new Node[] { child };
+				node.children[index] = split;
+				child = split;
+			}
+			node = child;
+			i += common;
+		}
+		if (node.terminal) {
+			return false;
+		}
+		node.terminal = true;
+		this.size++;
+		return true;
+	}
+
+	/**
+	 * Remove a key.
+	 * @return {@code true} if the key was present
+	 */
+	boolean remove(String key) {
+		List<Node> path = new ArrayList<>();
+		Node node = this.root;
+		int i = 0;
+		while (i < key.length()) {
+			int index = node.indexOf(key.charAt(i));
+			if (index < 0) {
+				return false;
+			}
+			Node child = node.children[index];
+			if (commonPrefix(child.label, key, i) < child.label.length) {
+				return false;
+			}
+			path.add(node);
+			node = child;
+			i += child.label.length;
+		}
+		if (!node.terminal) {
+			return false;
+		}
+		node.terminal = false;
+		this.size--;
+		// drop the node if it became a leaf without a key, then merge a remaining
+		// single child into its parent to keep the trie compressed
+		Node parent = path.isEmpty() ? null : path.get(path.size() - 1);
+		if (parent != null && node.children.length == 0) {
+			parent.removeChild(node);
+			node = parent;
+			parent = path.size() > 1 ? path.get(path.size() - 2) : null;
+		}
+		if (parent != null && !node.terminal && node.children.length == 1) {
+			Node child = node.children[0];
+			char[] label = Arrays.copyOf(node.label, node.label.length + child.label.length);
+			System.arraycopy(child.label, 0, label, node.label.length, child.label.length);
+			child.label = label;
+			parent.children[parent.indexOf(label[0])] = child;
+		}
+		return true;
+	}
+
+	/**
+	 * Return the keys starting with the prefix in lexicographic order, skipping the first
+	 * {@code offset} matches and returning at most {@code limit} keys.
+	 */
+	List<String> keys(String prefix, int offset, int limit) {
+		List<String> keys = new ArrayList<>();
+		Node node = this.root;
+		int i = 0;
+		StringBuilder path = new StringBuilder(prefix.length() + 32);
+		while (i < prefix.length()) {
+			int index = node.indexOf(prefix.charAt(i));
+			if (index < 0) {
+				return keys;
+			}
+			Node child = node.children[index];
+			int common = commonPrefix(child.label, prefix, i);
+			if (i + common < prefix.length() && common < child.label.length) {
+				return keys;
+			}
+			path.append(child.label);
+			node = child;
+			i += child.label.length;
+		}
+		collect(node, path, new int[] { offset, limit }, keys);
+		return keys;
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Depth-first traversal in key order.
+	 * @param window the number of keys still to skip and still to return
+	 * @return {@code false} once the limit is reached
+	 */
+	private static boolean collect(Node node, StringBuilder path, int[] window, List<String> keys) {
+		if (node.terminal) {
+			if (window[0] > 0) {
+				window[0]--;
+			}
+			else {
+				if (window[1] <= 0) {
+					return false;
+				}
+				keys.add(path.toString());
+				window[1]--;
+			}
+		}
+		for (Node child : node.children) {
+			int length = path.length();
+			path.append(child.label);
+			boolean more = collect(child, path, window, keys);
+			path.setLength(length);
+			if (!more) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int commonPrefix(char[] label, String key, int offset) {
+		int max = Math.min(label.length, key.length() - offset);
+		int i = 0;
+		while (i < max && label[i] == key.charAt(offset + i)) {
+			i++;
+		}
+		return i;
+	}
+
+	private static final class Node {
+
+		private char[] label;
+
+		private Node[] children = NO_CHILDREN;
+
+		private boolean terminal;
+
+		Node(char[] label) {
+			this.label = label;
+		}
+
+		/**
+		 * Binary search for the child whose label starts with the character.
+		 * @return the index, or {@code -(insertion point) - 1}
+		 */
+		int indexOf(char c) {
+			int low = 0;
+			int high = this.children.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				char midChar = this.children[mid].label[0];
+				if (midChar < c) {
+					low = mid + 1;
+				}
+				else if (midChar > c) {
+					high = mid - 1;
+				}
+				else {
+					return mid;
+				}
+			}
+			return -(low + 1);
+		}
+
+		void insertChild(int index, Node child) {
+			Node[] children = new Node[this.children.length + 1];
+			System.arraycopy(this.children, 0, children, 0, index);
+			children[index] = child;
+			System.arraycopy(this.children, index, children, index + 1, this.children.length - index);
+			this.children = children;
+		}
+
+		void removeChild(Node child) {
+			int index = indexOf(child.label[0]);
+			Node[] children = new Node[this.children.length - 1];
+			System.arraycopy(this.children, 0, children, 0, index);
+			System.arraycopy(this.children, index + 1, children, index, children.length - index);
+			this.children = children.length == 0 ? NO_CHILDREN : children;
+		}
+	}
+}
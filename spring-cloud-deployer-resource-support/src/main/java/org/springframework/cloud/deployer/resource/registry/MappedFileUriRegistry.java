@@ -0,0 +1,584 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.registry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * Persistent {@link UriRegistry} implementation backed by an append-only log file.
+ * <p>
+ * Every registration and removal is appended to the file as a checksummed record and
+ * the file is read through a memory mapping. On startup the log is scanned once to
+ * rebuild the in-memory index of key to record offset; URIs are decoded from the mapping
+ * on lookup. Records appended since the file was last mapped are read from the channel,
+ * and the file is mapped again only once that tail outgrows the mapping, so a long
+ * series of writes maps the file a logarithmic number of times. A record torn by a crash
+ * fails its checksum and is truncated on the next startup, so the registry always
+ * reopens with the writes which completed.
+ * <p>
+ * Overwritten and removed records are reclaimed by compaction, which rewrites the live
+ * records to a new file and atomically replaces the log. Compaction runs automatically
+ * once the reclaimable bytes exceed the {@link #setCompactionRatio(double) compaction ratio}
+ * of the file, or on demand via {@link #compact()}.
+ * <p>
+ * Windows does not allow replacing a file which is still mapped, and a mapping is only
+ * released once it is garbage collected, so there the file is read from the channel only.
+ */
+public class MappedFileUriRegistry implements UriRegistry, Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(MappedFileUriRegistry.class);
+
+	private static final int MAGIC = 0x53434452;
+
+	private static final int HEADER_LENGTH = 4;
+
+	private static final byte REGISTER = 1;
+
+	private static final byte UNREGISTER = 2;
+
+	private static final int MIN_REMAP_SIZE = 1024 * 1024;
+
+	private static final boolean MAP_FILE = !System.getProperty("os.name", "").toLowerCase(Locale.ROOT)
+			.startsWith("windows");
+
+	private final File file;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private Map<String, Record> index = new HashMap<>();
+
+	private FileChannel channel;
+
+	private MappedByteBuffer buffer;
+
+	private long mappedLength;
+
+	private int mapCount;
+
+	private long garbage;
+
+	private boolean syncOnWrite = true;
+
+	private double compactionRatio = 0.5;
+
+	private long compactionMinSize = 64 * 1024;
+
+	/**
+	 * Open the registry stored in the given file, creating the file if it does not exist.
+	 *
+	 * @param file the log file
+	 */
+	public MappedFileUriRegistry(File file) {
+		Assert.notNull(file, "file must not be null");
+		this.file = file;
+		try {
+			open();
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Unable to open URI registry file " + file, e);
+		}
+	}
+
+	/**
+	 * Set whether every write is forced to the storage device before it returns.
+	 * Defaults to {@code true}; without it a crash of the operating system may lose the
+	 * latest writes, but never corrupts the file. Registering many keys with one
+	 * {@link #registerAll(Map)} call forces the file once for all of them.
+	 *
+	 * @param syncOnWrite whether to force writes to the storage device
+	 */
+	public void setSyncOnWrite(boolean syncOnWrite) {
+		this.syncOnWrite = syncOnWrite;
+	}
+
+	/**
+	 * Set the ratio of reclaimable bytes to the file size which triggers a compaction.
+	 *
+	 * @param compactionRatio the compaction ratio
+	 */
+	public void setCompactionRatio(double compactionRatio) {
+		Assert.isTrue(compactionRatio > 0, "compactionRatio must be positive");
+		this.compactionRatio = compactionRatio;
+	}
+
+	/**
+	 * Set the minimum number of reclaimable bytes before a compaction is triggered.
+	 *
+	 * @param compactionMinSize the minimum reclaimable bytes
+	 */
+	public void setCompactionMinSize(long compactionMinSize) {
+		this.compactionMinSize = compactionMinSize;
+	}
+
+	@Override
+	public URI find(String key) {
+		Assert.hasLength(key, "key required");
+		URI uri = lookup(key);
+		if (uri == null) {
+			throw new IllegalArgumentException("No URI found for " + key);
+		}
+		return uri;
+	}
+
+	@Override
+	public Optional<URI> findIfPresent(String key) {
+		Assert.hasLength(key, "key required");
+		return Optional.ofNullable(lookup(key));
+	}
+
+	@Override
+	public Map<String, URI> findAll() {
+		return findByPrefix("");
+	}
+
+	@Override
+	public Map<String, URI> findByPrefix(String prefix) {
+		this.lock.readLock().lock();
+		try {
+			assertOpen();
+			Map<String, URI> uris = new LinkedHashMap<>();
+			for (Map.Entry<String, Record> entry : this.index.entrySet()) {
+				if (entry.getKey().startsWith(prefix)) {
+					uris.put(entry.getKey(), readUri(entry.getValue()));
+				}
+			}
+			return Collections.unmodifiableMap(uris);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Unable to read URI registry file " + this.file, e);
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void register(String key, URI uri) {
+		registerAll(Collections.singletonMap(key, uri));
+	}
+
+	@Override
+	public void registerAll(Map<String, URI> uris) {
+		Map<String, String> values = new LinkedHashMap<>();
+		for (Map.Entry<String, URI> entry : uris.entrySet()) {
+			Assert.hasLength(entry.getKey(), "key required");
+			Assert.notNull(entry.getValue(), "uri required");
+			values.put(entry.getKey(), entry.getValue().toString());
+		}
+		append(REGISTER, values);
+	}
+
+	@Override
+	public void unregister(String key) {
+		unregisterAll(Collections.singleton(key));
+	}
+
+	@Override
+	public void unregisterAll(Collection<String> keys) {
+		Map<String, String> values = new LinkedHashMap<>();
+		for (String key : keys) {
+			values.put(key, "");
+		}
+		append(UNREGISTER, values);
+	}
+
+	/**
+	 * Rewrite the log with only the live registrations and atomically replace the file.
+	 */
+	public void compact() {
+		this.lock.writeLock().lock();
+		try {
+			assertOpen();
+			File compacted = compactionFile();
+			Map<String, Record> compactedIndex = new HashMap<>();
+			try (FileChannel out = FileChannel.open(compacted.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				writeFully(out, header(), 0);
+				int position = HEADER_LENGTH;
+				for (Map.Entry<String, Record> entry : this.index.entrySet()) {
+					Record record = entry.getValue();
+					writeFully(out, read(record.position, record.length), position);
+					compactedIndex.put(entry.getKey(), new Record(position, record.length));
+					position += record.length;
+				}
+				out.force(true);
+			}
+			long before = this.channel.size();
+			this.channel.close();
+			this.buffer = null;
+			this.mappedLength = 0;
+			Files.move(compacted.toPath(), this.file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+			syncDirectory();
+			this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+			remap();
+			this.index = compactedIndex;
+			this.garbage = 0;
+			logger.debug("Compacted " + this.file + " from " + before + " to " + this.channel.size() + " bytes");
+		}
+		catch (IOException e) {
+			if (!this.channel.isOpen()) {
+				// the original log is still in place, carry on with it
+				try {
+					this.index = new HashMap<>();
+					this.garbage = 0;
+					open();
+				}
+				catch (IOException ex) {
+					e.addSuppressed(ex);
+				}
+			}
+			throw new IllegalStateException("Unable to compact URI registry file " + this.file, e);
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Return the current size of the log file in bytes.
+	 *
+	 * @return the file size
+	 */
+	public long getFileSize() {
+		this.lock.readLock().lock();
+		try {
+			assertOpen();
+			return this.channel.size();
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Return the number of times the file was mapped.
+	 */
+	int mapCount() {
+		this.lock.readLock().lock();
+		try {
+			return this.mapCount;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.lock.writeLock().lock();
+		try {
+			if (this.channel != null) {
+				this.channel.close();
+			}
+			this.buffer = null;
+			this.mappedLength = 0;
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	private void open() throws IOException {
+		File parent = this.file.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists()) {
+			parent.mkdirs();
+		}
+		// left over from a compaction which did not complete
+		Files.deleteIfExists(compactionFile().toPath());
+		this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		if (this.channel.size() < HEADER_LENGTH) {
+			this.channel.truncate(0);
+			writeFully(this.channel, header(), 0);
+			this.channel.force(true);
+		}
+		remap();
+		ByteBuffer contents = read(0, (int) this.channel.size());
+		if (contents.getInt(0) != MAGIC) {
+			this.channel.close();
+			throw new IOException("Not a URI registry file: " + this.file);
+		}
+		int end = load(contents);
+		if (end < this.channel.size()) {
+			logger.warn("Discarding " + (this.channel.size() - end) + " bytes of incomplete records at the end of "
+					+ this.file);
+			this.channel.truncate(end);
+			this.channel.force(true);
+			remap();
+		}
+	}
+
+	/**
+	 * Scan the log and rebuild the index.
+	 * @return the offset after the last valid record
+	 */
+	private int load(ByteBuffer bytes) {
+		int position = HEADER_LENGTH;
+		while (true) {
+			int length = recordLength(bytes, position);
+			if (length < 0) {
+				return position;
+			}
+			String key = readString(bytes, position + 1);
+			Record previous = bytes.get(position) == REGISTER
+					? this.index.put(key, new Record(position, length))
+					: this.index.remove(key);
+			if (previous != null) {
+				this.garbage += previous.length;
+			}
+			if (bytes.get(position) == UNREGISTER) {
+				this.garbage += length;
+			}
+			position += length;
+		}
+	}
+
+	private void append(byte type, Map<String, String> values) {
+		if (values.isEmpty()) {
+			return;
+		}
+		this.lock.writeLock().lock();
+		try {
+			assertOpen();
+			long start = this.channel.size();
+			Assert.state(start <= Integer.MAX_VALUE, "URI registry file exceeds 2GB: " + this.file);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			Map<String, Record> records = new LinkedHashMap<>();
+			for (Map.Entry<String, String> entry : values.entrySet()) {
+				byte[] record = encode(type, entry.getKey(), entry.getValue());
+				records.put(entry.getKey(), new Record((int) start + out.size(), record.length));
+				out.write(record, 0, record.length);
+			}
+			try {
+				writeFully(this.channel, ByteBuffer.wrap(out.toByteArray()), start);
+				if (this.syncOnWrite) {
+					this.channel.force(false);
+				}
+			}
+			catch (IOException e) {
+				this.channel.truncate(start);
+				throw e;
+			}
+			long size = start + out.size();
+			if (size - this.mappedLength > Math.max(this.mappedLength, MIN_REMAP_SIZE)) {
+				remap();
+			}
+			for (Map.Entry<String, Record> entry : records.entrySet()) {
+				Record previous = type == REGISTER
+						? this.index.put(entry.getKey(), entry.getValue())
+						: this.index.remove(entry.getKey());
+				if (previous != null) {
+					this.garbage += previous.length;
+				}
+				if (type == UNREGISTER) {
+					this.garbage += entry.getValue().length;
+				}
+			}
+			if (this.garbage >= this.compactionMinSize && this.garbage >= this.channel.size() * this.compactionRatio) {
+				compact();
+			}
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Unable to write URI registry file " + this.file, e);
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	private URI lookup(String key) {
+		this.lock.readLock().lock();
+		try {
+			assertOpen();
+			Record record = this.index.get(key);
+			return record != null ? readUri(record) : null;
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Unable to read URI registry file " + this.file, e);
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	private URI readUri(Record record) throws IOException {
+		ByteBuffer bytes = read(record.position, record.length);
+		int keyLength = bytes.getInt(1);
+		return URI.create(readString(bytes, 1 + 4 + keyLength));
+	}
+
+	/**
+	 * Return the bytes of the file in the range, indexed from the start of the range.
+	 */
+	private ByteBuffer read(int position, int length) throws IOException {
+		if (position + length <= this.mappedLength) {
+			ByteBuffer bytes = this.buffer.duplicate();
+			bytes.position(position);
+			bytes.limit(position + length);
+			return bytes.slice();
+		}
+		ByteBuffer bytes = ByteBuffer.allocate(length);
+		while (bytes.hasRemaining()) {
+			if (this.channel.read(bytes, position + bytes.position()) < 0) {
+				throw new EOFException("Unexpected end of URI registry file " + this.file);
+			}
+		}
+		bytes.flip();
+		return bytes;
+	}
+
+	private void remap() throws IOException {
+		if (MAP_FILE) {
+			this.mappedLength = this.channel.size();
+			this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, this.mappedLength);
+			this.mapCount++;
+		}
+	}
+
+	/**
+	 * Force the directory entry of a renamed file to the storage device. Not supported
+	 * on all platforms, where the rename is left to the file system.
+	 */
+	private void syncDirectory() {
+		File directory = this.file.getAbsoluteFile().getParentFile();
+		try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+			channel.force(true);
+		}
+		catch (IOException e) {
+			logger.debug("Unable to sync directory " + directory + ": " + e.getMessage());
+		}
+	}
+
+	private void assertOpen() {
+		Assert.state(this.channel != null && this.channel.isOpen(), "URI registry is closed: " + this.file);
+	}
+
+	private File compactionFile() {
+		return new File(this.file.getAbsoluteFile().getParentFile(), this.file.getName() + ".compact");
+	}
+
+	/**
+	 * Encode a record: type, key length, key, uri length, uri and a CRC32 of the preceding bytes.
+	 */
+	private static byte[] encode(byte type, String key, String uri) {
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		byte[] uriBytes = uri.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer record = ByteBuffer.allocate(1 + 4 + keyBytes.length + 4 + uriBytes.length + 4);
+		record.put(type).putInt(keyBytes.length).put(keyBytes).putInt(uriBytes.length).put(uriBytes);
+		CRC32 crc = new CRC32();
+		crc.update(record.array(), 0, record.position());
+		record.putInt((int) crc.getValue());
+		return record.array();
+	}
+
+	/**
+	 * Return the length of the record at the position, or -1 if it is incomplete or corrupt.
+	 */
+	private static int recordLength(ByteBuffer bytes, int position) {
+		int limit = bytes.limit();
+		if (limit - position < 1 + 4) {
+			return -1;
+		}
+		byte type = bytes.get(position);
+		if (type != REGISTER && type != UNREGISTER) {
+			return -1;
+		}
+		// lengths read from a torn tail may be garbage, so the bounds are checked in long
+		// arithmetic, which cannot overflow for lengths of up to Integer.MAX_VALUE
+		int keyLength = bytes.getInt(position + 1);
+		if (keyLength < 0 || (long) limit - position - 1 - 4 < (long) keyLength + 4) {
+			return -1;
+		}
+		int uriLength = bytes.getInt(position + 1 + 4 + keyLength);
+		if (uriLength < 0 || (long) limit - position - 1 - 4 - keyLength - 4 < (long) uriLength + 4) {
+			return -1;
+		}
+		int length = 1 + 4 + keyLength + 4 + uriLength + 4;
+		ByteBuffer content = bytes.duplicate();
+		content.position(position);
+		content.limit(position + length - 4);
+		CRC32 crc = new CRC32();
+		crc.update(content);
+		return (int) crc.getValue() == bytes.getInt(position + length - 4) ? length : -1;
+	}
+
+	private static String readString(ByteBuffer bytes, int position) {
+		byte[] value = new byte[bytes.getInt(position)];
+		ByteBuffer source = bytes.duplicate();
+		source.position(position + 4);
+		source.get(value);
+		return new String(value, StandardCharsets.UTF_8);
+	}
+
+	private static ByteBuffer header() {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+		header.putInt(MAGIC);
+		header.flip();
+		return header;
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer bytes, long position) throws IOException {
+		while (bytes.hasRemaining()) {
+			position += channel.write(bytes, position);
+		}
+	}
+
+	/**
+	 * Offset and length of a register record in the log.
+	 */
+	private static final class Record {
+
+		private final int position;
+
+		private final int length;
+
+		Record(int position, int length) {
+			this.position = position;
+			this.length = length;
+		}
+	}
+}
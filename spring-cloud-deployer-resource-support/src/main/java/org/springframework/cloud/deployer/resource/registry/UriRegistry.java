@@ -17,7 +17,10 @@
 package org.springframework.cloud.deployer.resource.registry;
 
 import java.net.URI;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Registry for storing and finding {@link URI}s via a string key.
@@ -35,6 +38,22 @@ public interface UriRegistry {
 	 */
 	URI find(String key);
 
+	/**
+	 * Return the {@link URI} for a string key if one is registered. The default
+	 * implementation delegates to {@link #find(String)}.
+	 *
+	 * @param key the key for the URI
+	 * @return the {@code URI} for the given key, or an empty {@code Optional}
+	 */
+	default Optional<URI> findIfPresent(String key) {
+		try {
+			return Optional.ofNullable(find(key));
+		}
+		catch (IllegalArgumentException e) {
+			return Optional.empty();
+		}
+	}
+
 	/**
 	 * Return all registered {@code URI}s.
 	 *
@@ -42,6 +61,24 @@ public interface UriRegistry {
 	 */
 	Map<String, URI> findAll();
 
+	/**
+	 * Return the registered {@code URI}s whose keys start with the given prefix,
+	 * for example all {@code source.} keys. The default implementation filters
+	 * {@link #findAll()}.
+	 *
+	 * @param prefix the key prefix
+	 * @return map of matching keys to {@code URI}s.
+	 */
+	default Map<String, URI> findByPrefix(String prefix) {
+		Map<String, URI> matches = new LinkedHashMap<>();
+		for (Map.Entry<String, URI> entry : findAll().entrySet()) {
+			if (entry.getKey().startsWith(prefix)) {
+				matches.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return matches;
+	}
+
 	/**
 	 * Register a {@link URI} with a string key. Existing
 	 * registrations will be overwritten.
@@ -51,6 +88,19 @@ public interface UriRegistry {
 	 */
 	void register(String key, URI uri);
 
+	/**
+	 * Register several {@link URI}s with their string keys. Existing
+	 * registrations will be overwritten. The default implementation
+	 * calls {@link #register(String, URI)} for each entry.
+	 *
+	 * @param uris map of keys to the {@code URI}s to associate with them
+	 */
+	default void registerAll(Map<String, URI> uris) {
+		for (Map.Entry<String, URI> entry : uris.entrySet()) {
+			register(entry.getKey(), entry.getValue());
+		}
+	}
+
 	/**
 	 * Remove the registration for a string key.
 	 *
@@ -58,4 +108,16 @@ public interface UriRegistry {
 	 */
 	void unregister(String key);
 
+	/**
+	 * Remove the registrations for several string keys. The default
+	 * implementation calls {@link #unregister(String)} for each key.
+	 *
+	 * @param keys the keys for the {@code URI}s to unregister
+	 */
+	default void unregisterAll(Collection<String> keys) {
+		for (String key : keys) {
+			unregister(key);
+		}
+	}
+
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.registry;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-key outcome of
+ * {@link UriRegistryPopulator#populateRegistryConcurrently(boolean, UriRegistry, String...)}.
+ */
+public class UriRegistryPopulationResult {
+
+	private final Map<String, URI> registered = new LinkedHashMap<>();
+
+	private final Set<String> skipped = new LinkedHashSet<>();
+
+	private final Map<String, String> invalid = new LinkedHashMap<>();
+
+	private final Map<String, Exception> failedResources = new LinkedHashMap<>();
+
+	/**
+	 * Return the keys and {@link URI}s which were registered.
+	 *
+	 * @return the registered URIs keyed by property name
+	 */
+	public Map<String, URI> getRegistered() {
+		return Collections.unmodifiableMap(this.registered);
+	}
+
+	/**
+	 * Return the keys which were not registered because they already existed
+	 * and overwriting was disabled.
+	 *
+	 * @return the skipped keys
+	 */
+	public Set<String> getSkipped() {
+		return Collections.unmodifiableSet(this.skipped);
+	}
+
+	/**
+	 * Return the keys whose values were not valid URIs, with the reason.
+	 *
+	 * @return the reasons keyed by property name
+	 */
+	public Map<String, String> getInvalid() {
+		return Collections.unmodifiableMap(this.invalid);
+	}
+
+	/**
+	 * Return the resource URIs which could not be read.
+	 *
+	 * @return the failures keyed by resource URI
+	 */
+	public Map<String, Exception> getFailedResources() {
+		return Collections.unmodifiableMap(this.failedResources);
+	}
+
+	void addRegistered(String key, URI uri) {
+		this.registered.put(key, uri);
+	}
+
+	void addSkipped(String key) {
+		this.skipped.add(key);
+	}
+
+	void addInvalid(String key, String reason) {
+		this.invalid.put(key, reason);
+	}
+
+	void addFailedResource(String resourceUri, Exception e) {
+		this.failedResources.put(resourceUri, e);
+	}
+
+	@Override
+	public String toString() {
+		return "UriRegistryPopulationResult{registered=" + this.registered.size() + ", skipped=" + this.skipped.size()
+				+ ", invalid=" + this.invalid + ", failedResources=" + this.failedResources.keySet() + "}";
+	}
+}
@@ -16,13 +16,24 @@
 
 package org.springframework.cloud.deployer.resource.registry;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +42,7 @@ import org.springframework.context.ResourceLoaderAware;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadFactory;
 import org.springframework.util.StringUtils;
 
 /**
@@ -49,12 +61,24 @@ public class UriRegistryPopulator implements ResourceLoaderAware {
 
 	private volatile ResourceLoader resourceLoader;
 
+	private volatile int parallelism = 4;
 
 	@Override
 	public void setResourceLoader(ResourceLoader resourceLoader) {
 		this.resourceLoader = resourceLoader;
 	}
 
+	/**
+	 * Set the maximum number of resources fetched concurrently by
+	 * {@link #populateRegistryConcurrently(boolean, UriRegistry, String...)}.
+	 *
+	 * @param parallelism the maximum number of concurrent fetches
+	 */
+	public void setParallelism(int parallelism) {
+		Assert.isTrue(parallelism > 0, "parallelism must be positive");
+		this.parallelism = parallelism;
+	}
+
 	/**
 	 * Populate the provided registry with the contents of
 	 * the property files indicated by {@code resourceUris}.
@@ -66,7 +90,20 @@ public class UriRegistryPopulator implements ResourceLoaderAware {
 	 */
 	public Map<String, URI> populateRegistry(boolean overwrite, UriRegistry registry, String... resourceUris) {
 		Assert.notEmpty(resourceUris);
-		Map<String, URI> registered = new HashMap<>();
+		// collected and registered with one registerAll call, also when an invalid
+		// entry aborts the population halfway
+		Map<String, URI> registered = new LinkedHashMap<>();
+		try {
+			populate(overwrite, registry, registered, resourceUris);
+		}
+		finally {
+			registry.registerAll(registered);
+		}
+		return registered;
+	}
+
+	private void populate(boolean overwrite, UriRegistry registry, Map<String, URI> registered,
+			String... resourceUris) {
 		for (String resourceUri : resourceUris) {
 			Resource resource = this.resourceLoader.getResource(resourceUri);
 			Properties properties = new Properties();
@@ -90,7 +127,7 @@ public class UriRegistryPopulator implements ResourceLoaderAware {
 						}
 						if (!overwrite) {
 							try {
-								if (registry.find(key) != null) {
+								if (registered.containsKey(key) || registry.find(key) != null) {
 									// already exists; move on
 									continue;
 								}
@@ -100,7 +137,6 @@ public class UriRegistryPopulator implements ResourceLoaderAware {
 							}
 						}
 						if (validUri) {
-							registry.register(key, uri);
 							registered.put(key, uri);
 						}
 					}
@@ -114,7 +150,234 @@ public class UriRegistryPopulator implements ResourceLoaderAware {
 				throw new RuntimeException(e);
 			}
 		}
-		return registered;
+	}
+
+	/**
+	 * Populate the provided registry with the contents of the property files indicated by
+	 * {@code resourceUris}. The resources are fetched concurrently and parsed line by line
+	 * without building a {@link Properties} copy; the valid entries are then registered with
+	 * a single {@link UriRegistry#registerAll(Map)} call. As with
+	 * {@link #populateRegistry(boolean, UriRegistry, String...)}, entries of later resources
+	 * take precedence over the same keys in earlier ones when overwriting, and the first
+	 * resource defining a key wins otherwise.
+	 * <p>
+	 * Unlike {@link #populateRegistry(boolean, UriRegistry, String...)} invalid URIs and
+	 * unreadable resources do not abort the population but are reported in the result.
+	 *
+	 * @param overwrite    if {@code true}, overwrites any pre-existing registrations with the same key
+	 * @param registry     the registry to populate
+	 * @param resourceUris string(s) indicating the URIs to load properties from
+	 * @return the outcome for each key
+	 */
+	public UriRegistryPopulationResult populateRegistryConcurrently(boolean overwrite, UriRegistry registry,
+			String... resourceUris) {
+		Assert.notEmpty(resourceUris, "resourceUris must not be empty");
+		UriRegistryPopulationResult result = new UriRegistryPopulationResult();
+		List<CompletableFuture<Manifest>> manifests = new ArrayList<>();
+		ExecutorService executor = null;
+		if (resourceUris.length > 1 && this.parallelism > 1) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("uri-registry-populator-");
+			threadFactory.setDaemon(true);
+			executor = Executors.newFixedThreadPool(Math.min(this.parallelism, resourceUris.length), threadFactory);
+		}
+		try {
+			// without a pool the resources are loaded on the caller's thread, still through a
+			// future so a failure is reported like that of a concurrent load
+			Executor loader = executor != null ? executor : Runnable::run;
+			for (String resourceUri : resourceUris) {
+				manifests.add(CompletableFuture.supplyAsync(() -> load(resourceUri), loader));
+			}
+			Map<String, URI> uris = new LinkedHashMap<>();
+			for (int i = 0; i < resourceUris.length; i++) {
+				Manifest manifest;
+				try {
+					manifest = manifests.get(i).join();
+				}
+				catch (CompletionException e) {
+					Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+					logger.warn(String.format("Error when loading '%s': %s", resourceUris[i], cause.getMessage()));
+					result.addFailedResource(resourceUris[i], cause instanceof Exception ? (Exception) cause
+							: new IllegalStateException(cause));
+					continue;
+				}
+				if (overwrite) {
+					uris.putAll(manifest.uris);
+				}
+				else {
+					manifest.uris.forEach(uris::putIfAbsent);
+				}
+				manifest.invalid.forEach((key, reason) -> {
+					logger.warn(String.format("Error when registering '%s': %s", key, reason));
+					result.addInvalid(key, reason);
+				});
+			}
+			if (!overwrite) {
+				uris.keySet().removeIf(key -> {
+					if (registry.findIfPresent(key).isPresent()) {
+						result.addSkipped(key);
+						return true;
+					}
+					return false;
+				});
+			}
+			registry.registerAll(uris);
+			uris.forEach(result::addRegistered);
+			return result;
+		}
+		finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	private Manifest load(String resourceUri) {
+		Manifest manifest = new Manifest();
+		Resource resource = this.resourceLoader.getResource(resourceUri);
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(resource.getInputStream(), StandardCharsets.ISO_8859_1))) {
+			StringBuilder logicalLine = new StringBuilder();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int start = 0;
+				while (start < line.length() && isWhitespace(line.charAt(start))) {
+					start++;
+				}
+				if (logicalLine.length() == 0
+						&& (start == line.length() || line.charAt(start) == '#' || line.charAt(start) == '!')) {
+					continue;
+				}
+				int end = line.length();
+				int backslashes = 0;
+				while (end - backslashes > start && line.charAt(end - backslashes - 1) == '\\') {
+					backslashes++;
+				}
+				if (backslashes % 2 == 1) {
+					// continued on the next line
+					logicalLine.append(line, start, end - 1);
+					continue;
+				}
+				logicalLine.append(line, start, end);
+				addEntry(manifest, logicalLine);
+				logicalLine.setLength(0);
+			}
+			if (logicalLine.length() > 0) {
+				addEntry(manifest, logicalLine);
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return manifest;
+	}
+
+	/**
+	 * Split a logical line of a properties file into its key and value, following the
+	 * rules of {@link Properties#load(java.io.Reader)}.
+	 */
+	private static void addEntry(Manifest manifest, CharSequence line) {
+		int length = line.length();
+		int keyEnd = 0;
+		while (keyEnd < length) {
+			char c = line.charAt(keyEnd);
+			if (c == '\\') {
+				keyEnd += 2;
+				continue;
+			}
+			if (c == '=' || c == ':' || isWhitespace(c)) {
+				break;
+			}
+			keyEnd++;
+		}
+		keyEnd = Math.min(keyEnd, length);
+		int valueStart = keyEnd;
+		while (valueStart < length && isWhitespace(line.charAt(valueStart))) {
+			valueStart++;
+		}
+		if (valueStart < length && (line.charAt(valueStart) == '=' || line.charAt(valueStart) == ':')) {
+			valueStart++;
+			while (valueStart < length && isWhitespace(line.charAt(valueStart))) {
+				valueStart++;
+			}
+		}
+		manifest.add(unescape(line, 0, keyEnd), unescape(line, valueStart, length));
+	}
+
+	private static String unescape(CharSequence chars, int start, int end) {
+		StringBuilder result = new StringBuilder(end - start);
+		for (int i = start; i < end; i++) {
+			char c = chars.charAt(i);
+			if (c != '\\' || i + 1 == end) {
+				result.append(c);
+				continue;
+			}
+			c = chars.charAt(++i);
+			switch (c) {
+				case 't':
+					result.append('\t');
+					break;
+				case 'n':
+					result.append('\n');
+					break;
+				case 'r':
+					result.append('\r');
+					break;
+				case 'f':
+					result.append('\f');
+					break;
+				case 'u':
+					if (i + 4 >= end) {
+						throw new IllegalArgumentException("Malformed \\uxxxx encoding");
+					}
+					try {
+						result.append((char) Integer.parseInt(chars.subSequence(i + 1, i + 5).toString(), 16));
+					}
+					catch (NumberFormatException e) {
+						throw new IllegalArgumentException("Malformed \\uxxxx encoding", e);
+					}
+					i += 4;
+					break;
+				default:
+					result.append(c);
+			}
+		}
+		return result.toString();
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\f';
+	}
+
+	/**
+	 * The valid URIs and invalid entries of a single properties resource, in file order.
+	 */
+	private static class Manifest {
+
+		private final Map<String, URI> uris = new LinkedHashMap<>();
+
+		private final Map<String, String> invalid = new LinkedHashMap<>();
+
+		void add(String key, String value) {
+			this.uris.remove(key);
+			this.invalid.remove(key);
+			URI uri;
+			try {
+				uri = new URI(value);
+			}
+			catch (URISyntaxException e) {
+				this.invalid.put(key, String.format("'%s' is not a properly formed URI", value));
+				return;
+			}
+			if (!StringUtils.hasText(uri.getScheme())) {
+				this.invalid.put(key, String.format("URI %s: URI scheme must be specified", uri));
+			}
+			else if (!StringUtils.hasText(uri.getSchemeSpecificPart())) {
+				this.invalid.put(key, String.format("URI %s: URI scheme-specific part must be specified", uri));
+			}
+			else {
+				this.uris.put(key, uri);
+			}
+		}
 	}
 
 }
@@ -18,7 +18,9 @@ package org.springframework.cloud.deployer.resource.support;
 
 import java.net.URI;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.core.io.DefaultResourceLoader;
@@ -33,6 +35,11 @@ import org.springframework.util.CollectionUtils;
  * that are stored in a Map with their associated URI schemes as the keys. If a scheme does not
  * exist within the Map, it will fallback to a {@link DefaultResourceLoader}.
  * The Map may be empty (or {@literal null}).
+ * <p>
+ * Optionally a bounded cache of resources keyed by location may be enabled with
+ * {@link #setResourceCacheSize(int)}, so repeated lookups of the same location return
+ * the same {@link Resource} and any file it already downloaded or resolved. The least
+ * recently used resources are evicted once the cache is full.
  *
  * @author Mark Fisher
  * @author Janne Valkealahti
@@ -46,6 +53,14 @@ public class DelegatingResourceLoader implements ResourceLoader, ResourceLoaderA
 
 	private ResourceLoader defaultResourceLoader = new DefaultResourceLoader();
 
+	private final ResourceLoader downloadingResourceLoader = new DownloadingUrlResourceLoader();
+
+	private volatile Map<String, Resource> resourceCache;
+
+	private final AtomicLong resourceCacheHits = new AtomicLong();
+
+	private final AtomicLong resourceCacheMisses = new AtomicLong();
+
 	/**
 	 * Instantiates a new delegating resource loader.
 	 */
@@ -71,8 +86,45 @@ public class DelegatingResourceLoader implements ResourceLoader, ResourceLoaderA
 		}
 	}
 
+	/**
+	 * Set the maximum number of resources cached by location. A value of 0 (the default)
+	 * disables the cache.
+	 *
+	 * @param resourceCacheSize the maximum number of cached resources
+	 */
+	public void setResourceCacheSize(int resourceCacheSize) {
+		Assert.isTrue(resourceCacheSize >= 0, "resourceCacheSize must not be negative");
+		if (resourceCacheSize == 0) {
+			this.resourceCache = null;
+			return;
+		}
+		this.resourceCache = Collections.synchronizedMap(new LinkedHashMap<String, Resource>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Resource> eldest) {
+				return size() > resourceCacheSize;
+			}
+		});
+	}
+
 	@Override
 	public Resource getResource(String location) {
+		Map<String, Resource> cache = this.resourceCache;
+		if (cache == null) {
+			return loadResource(location);
+		}
+		Resource resource = cache.get(location);
+		if (resource != null) {
+			this.resourceCacheHits.incrementAndGet();
+			return resource;
+		}
+		this.resourceCacheMisses.incrementAndGet();
+		resource = loadResource(location);
+		Resource existing = cache.putIfAbsent(location, resource);
+		return existing != null ? existing : resource;
+	}
+
+	private Resource loadResource(String location) {
 		try {
 			URI uri = new URI(location);
 			String scheme = uri.getScheme();
@@ -80,7 +132,7 @@ public class DelegatingResourceLoader implements ResourceLoader, ResourceLoaderA
 			ResourceLoader loader = this.loaders.get(scheme);
 			if (loader == null) {
 				if (scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https")) {
-					loader = new DownloadingUrlResourceLoader();
+					loader = this.downloadingResourceLoader;
 				}
 				else {
 					loader = this.defaultResourceLoader;
@@ -99,6 +151,45 @@ public class DelegatingResourceLoader implements ResourceLoader, ResourceLoaderA
 		return this.classLoader;
 	}
 
+	/**
+	 * Return the number of lookups served from the resource cache.
+	 *
+	 * @return the number of cache hits
+	 */
+	public long getResourceCacheHitCount() {
+		return this.resourceCacheHits.get();
+	}
+
+	/**
+	 * Return the number of lookups which missed the resource cache.
+	 *
+	 * @return the number of cache misses
+	 */
+	public long getResourceCacheMissCount() {
+		return this.resourceCacheMisses.get();
+	}
+
+	/**
+	 * Return the ratio of lookups served from the resource cache.
+	 *
+	 * @return the hit rate between 0 and 1, or 0 if the cache was not used yet
+	 */
+	public double getResourceCacheHitRate() {
+		long hits = this.resourceCacheHits.get();
+		long total = hits + this.resourceCacheMisses.get();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	/**
+	 * Return the number of resources currently in the resource cache.
+	 *
+	 * @return the resource cache size
+	 */
+	public int getResourceCacheSize() {
+		Map<String, Resource> cache = this.resourceCache;
+		return cache == null ? 0 : cache.size();
+	}
+
 	/**
 	 * Gets a map of configured loaders.
 	 *
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.support;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Persistent on-disk cache for files downloaded over HTTP(S). Files are stored in a
+ * configurable root directory under the SHA-1 of their URL, next to a small properties
+ * file holding the {@code ETag} and {@code Last-Modified} headers of the download.
+ * A cached file is revalidated with a conditional request before it is reused, so a
+ * restart only transfers artifacts which actually changed on the server.
+ * <p>
+ * An expected SHA-256 checksum may be given to verify the integrity of a file, both
+ * before a download is moved into place and whenever a cached file is reused. When the
+ * total size of the cached files exceeds the configured maximum, the least recently used
+ * files are evicted; holders of a cached file should check that it still exists and ask
+ * the cache for it again otherwise, as {@link DownloadingUrlResource} does.
+ */
+public class DownloadCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(DownloadCache.class);
+
+	private static final String METADATA_SUFFIX = ".properties";
+
+	private static final String ETAG = "etag";
+
+	private static final String LAST_MODIFIED = "lastModified";
+
+	private static final String URL = "url";
+
+	private static final String DOWNLOAD_SUFFIX = ".part";
+
+	private final File rootDirectory;
+
+	private final long maxSize;
+
+	private final ConcurrentMap<String, FileLock> locks = new ConcurrentHashMap<>();
+
+	/**
+	 * Create a new cache.
+	 *
+	 * @param rootDirectory the directory holding the cached files
+	 * @param maxSize the maximum total size in bytes of the cached files, or a value
+	 * less than 1 for no limit
+	 */
+	public DownloadCache(File rootDirectory, long maxSize) {
+		Assert.notNull(rootDirectory, "rootDirectory must not be null");
+		if (!rootDirectory.exists()) {
+			boolean created = rootDirectory.mkdirs();
+			Assert.isTrue(created || rootDirectory.exists(),
+					"Unable to create directory for download cache: " + rootDirectory);
+		}
+		this.rootDirectory = rootDirectory;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Return the root directory of the cache.
+	 *
+	 * @return the root directory
+	 */
+	public File getRootDirectory() {
+		return this.rootDirectory;
+	}
+
+	/**
+	 * Return the cached file for the url, downloading it if it is not cached yet or has
+	 * changed on the server since it was cached.
+	 *
+	 * @param url the http or https url
+	 * @param fileName the name of the file in the cache, usually derived from the SHA-1 of the url
+	 * @param downloader the downloader used to fetch the file
+	 * @param expectedSha256 the expected hex encoded SHA-256 of the file, or {@literal null}
+	 * @return the cached file
+	 * @throws IOException if the file can not be downloaded or fails the integrity check
+	 */
+	public File getFile(URL url, String fileName, HttpDownloader downloader, String expectedSha256)
+			throws IOException {
+		File file = new File(this.rootDirectory, fileName);
+		FileLock lock = lock(fileName);
+		try {
+			synchronized (lock) {
+				refresh(url, file, downloader, expectedSha256);
+			}
+		}
+		finally {
+			unlock(fileName);
+		}
+		evict(file);
+		return file;
+	}
+
+	/**
+	 * Revalidate the cached file, downloading it again if it is missing, changed on the
+	 * server or fails the integrity check. Only called while holding the lock of the file.
+	 */
+	private void refresh(URL url, File file, HttpDownloader downloader, String expectedSha256) throws IOException {
+		File metadataFile = new File(this.rootDirectory, file.getName() + METADATA_SUFFIX);
+		Properties metadata = loadMetadata(metadataFile);
+		HttpURLConnection connection = downloader.openConnection(url);
+		try {
+			connection.setRequestMethod("HEAD");
+			boolean cached = file.isFile() && url.toString().equals(metadata.getProperty(URL));
+			if (cached && metadata.getProperty(ETAG) != null) {
+				connection.setRequestProperty("If-None-Match", metadata.getProperty(ETAG));
+			}
+			if (cached && metadata.getProperty(LAST_MODIFIED) != null) {
+				connection.setRequestProperty("If-Modified-Since", metadata.getProperty(LAST_MODIFIED));
+			}
+			int status;
+			try {
+				status = connection.getResponseCode();
+			}
+			catch (IOException e) {
+				if (!cached) {
+					throw e;
+				}
+				logger.info("Could not revalidate [" + url + "], using cached " + file + ": " + e.getMessage());
+				status = HttpURLConnection.HTTP_NOT_MODIFIED;
+			}
+			if (cached && status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				if (!StringUtils.hasText(expectedSha256) || sha256(file).equalsIgnoreCase(expectedSha256)) {
+					logger.debug("Using cached [" + url + "] from " + file);
+					file.setLastModified(System.currentTimeMillis());
+					return;
+				}
+				logger.info("Cached " + file + " does not match the expected SHA-256, downloading [" + url + "] again");
+			}
+			logger.info("Downloading [" + url + "] to cache " + file);
+			// download next to the file and verify it before it replaces the cached one
+			File download = new File(this.rootDirectory, file.getName() + DOWNLOAD_SUFFIX);
+			downloader.download(url, download);
+			if (StringUtils.hasText(expectedSha256)) {
+				verify(url, download, expectedSha256);
+			}
+			metadataFile.delete();
+			Files.move(download.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			metadata.clear();
+			metadata.setProperty(URL, url.toString());
+			if (connection.getHeaderField("ETag") != null) {
+				metadata.setProperty(ETAG, connection.getHeaderField("ETag"));
+			}
+			if (connection.getHeaderField("Last-Modified") != null) {
+				metadata.setProperty(LAST_MODIFIED, connection.getHeaderField("Last-Modified"));
+			}
+			storeMetadata(metadataFile, metadata);
+		}
+		finally {
+			connection.disconnect();
+		}
+	}
+
+	/**
+	 * Return the lock of the file, registering the caller as one of its users.
+	 */
+	private FileLock lock(String fileName) {
+		return this.locks.compute(fileName, (name, lock) -> {
+			FileLock result = lock != null ? lock : new FileLock();
+			result.users++;
+			return result;
+		});
+	}
+
+	/**
+	 * Unregister the caller from the users of the lock of the file, removing the lock
+	 * once it has no users left.
+	 */
+	private void unlock(String fileName) {
+		this.locks.computeIfPresent(fileName, (name, lock) -> --lock.users == 0 ? null : lock);
+	}
+
+	/**
+	 * Return the number of file locks currently held, for testing.
+	 */
+	int lockCount() {
+		return this.locks.size();
+	}
+
+	/**
+	 * Remove the least recently used files until the total size of the cache is
+	 * within the maximum size, never removing the given file.
+	 */
+	private synchronized void evict(File keep) {
+		if (this.maxSize < 1) {
+			return;
+		}
+		File[] files = this.rootDirectory.listFiles(f -> f.isFile() && !f.getName().endsWith(METADATA_SUFFIX)
+				&& !f.getName().endsWith(DOWNLOAD_SUFFIX));
+		if (files == null) {
+			return;
+		}
+		long total = 0;
+		List<File> candidates = new ArrayList<>();
+		for (File file : files) {
+			total += file.length();
+			if (!file.equals(keep)) {
+				candidates.add(file);
+			}
+		}
+		candidates.sort(Comparator.comparingLong(File::lastModified));
+		for (File candidate : candidates) {
+			if (total <= this.maxSize) {
+				break;
+			}
+			FileLock lock = lock(candidate.getName());
+			try {
+				synchronized (lock) {
+					long length = candidate.length();
+					if (candidate.delete()) {
+						new File(this.rootDirectory, candidate.getName() + METADATA_SUFFIX).delete();
+						total -= length;
+						logger.debug("Evicted " + candidate + " from download cache");
+					}
+				}
+			}
+			finally {
+				unlock(candidate.getName());
+			}
+		}
+	}
+
+	private void verify(URL url, File file, String expectedSha256) throws IOException {
+		String actual = sha256(file);
+		if (!actual.equalsIgnoreCase(expectedSha256)) {
+			file.delete();
+			throw new IOException("SHA-256 of [" + url + "] is " + actual + " but expected " + expectedSha256);
+		}
+	}
+
+	private static String sha256(File file) throws IOException {
+		try (DigestInputStream in = new DigestInputStream(new FileInputStream(file),
+				MessageDigest.getInstance("SHA-256"))) {
+			StreamUtils.drain(in);
+			StringBuilder hex = new StringBuilder();
+			for (byte b : in.getMessageDigest().digest()) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Properties loadMetadata(File metadataFile) {
+		Properties metadata = new Properties();
+		if (metadataFile.isFile()) {
+			try (InputStream in = new FileInputStream(metadataFile)) {
+				metadata.load(in);
+			}
+			catch (IOException e) {
+				logger.info("Ignoring unreadable download cache metadata " + metadataFile);
+			}
+		}
+		return metadata;
+	}
+
+	private static void storeMetadata(File metadataFile, Properties metadata) throws IOException {
+		try (OutputStream out = new FileOutputStream(metadataFile)) {
+			metadata.store(out, null);
+		}
+	}
+
+	/**
+	 * Lock of a cached file, counting the threads using it so that it can be removed
+	 * once none does.
+	 */
+	private static final class FileLock {
+
+		private int users;
+	}
+}
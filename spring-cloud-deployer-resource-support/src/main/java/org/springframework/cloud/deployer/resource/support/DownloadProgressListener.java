@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.support;
+
+import java.net.URL;
+
+/**
+ * Callback notified while a {@link HttpDownloader} downloads a file.
+ */
+@FunctionalInterface
+public interface DownloadProgressListener {
+
+	/**
+	 * Called whenever more bytes of the file have been written. When a file is
+	 * downloaded in parallel chunks this may be called from several threads.
+	 *
+	 * @param url the url being downloaded
+	 * @param bytesDownloaded the number of bytes written so far
+	 * @param totalBytes the total size of the file, or {@code -1} if unknown
+	 */
+	void progress(URL url, long bytesDownloaded, long totalBytes);
+}
@@ -30,6 +30,7 @@ import org.slf4j.LoggerFactory;
 
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.util.Assert;
 import org.springframework.util.FileCopyUtils;
 
 /**
@@ -43,6 +44,12 @@ public class DownloadingUrlResource extends UrlResource {
 
 	private static final Logger logger = LoggerFactory.getLogger(DownloadingUrlResource.class);
 
+	private final HttpDownloader downloader;
+
+	private final DownloadCache cache;
+
+	private String expectedSha256;
+
 	private File file;
 
 	/**
@@ -51,7 +58,45 @@ public class DownloadingUrlResource extends UrlResource {
 	 * @throws MalformedURLException if the given URL path is not valid
 	 */
 	public DownloadingUrlResource(String uri) throws MalformedURLException {
+		this(uri, new HttpDownloader());
+	}
+
+	/**
+	 * Create a new {@code DownloadingUrlResource} based on the given URI object,
+	 * using the given {@link HttpDownloader} for HTTP(S) URLs.
+	 * @param uri a URI
+	 * @param downloader the downloader for HTTP(S) URLs
+	 * @throws MalformedURLException if the given URL path is not valid
+	 */
+	public DownloadingUrlResource(String uri, HttpDownloader downloader) throws MalformedURLException {
+		this(uri, downloader, null);
+	}
+
+	/**
+	 * Create a new {@code DownloadingUrlResource} based on the given URI object,
+	 * using the given {@link HttpDownloader} for HTTP(S) URLs and keeping them in the
+	 * given {@link DownloadCache}.
+	 * @param uri a URI
+	 * @param downloader the downloader for HTTP(S) URLs
+	 * @param cache the persistent cache for HTTP(S) URLs, or {@literal null} to download to a temp directory
+	 * @throws MalformedURLException if the given URL path is not valid
+	 */
+	public DownloadingUrlResource(String uri, HttpDownloader downloader, DownloadCache cache)
+			throws MalformedURLException {
 		super(uri);
+		Assert.notNull(downloader, "HttpDownloader must not be null");
+		this.downloader = downloader;
+		this.cache = cache;
+	}
+
+	/**
+	 * Set the expected hex encoded SHA-256 of the downloaded file. A download with a
+	 * different checksum fails with an {@link IOException}. Only checked for files
+	 * kept in a {@link DownloadCache}.
+	 * @param expectedSha256 the expected SHA-256
+	 */
+	public void setExpectedSha256(String expectedSha256) {
+		this.expectedSha256 = expectedSha256;
 	}
 
 
@@ -59,12 +104,21 @@ public class DownloadingUrlResource extends UrlResource {
 	 * Downloads the file from the HTTP location to a temporary file.
 	 * The temporary file uses the directory prefix "spring-cloud-deployer" and the filename is
 	 * the SHA1 hash of the URL.  The file will only be downloaded on the first invocation
-	 * of this method.
+	 * of this method. HTTP(S) URLs are downloaded by the {@link HttpDownloader}, which resumes
+	 * interrupted transfers and may fetch large files in parallel chunks. If a {@link DownloadCache}
+	 * is configured, HTTP(S) URLs are kept there instead of a temporary directory and reused
+	 * as long as they are unchanged on the server. A file removed since, e.g. evicted from the
+	 * cache, is downloaded again.
 	 * @return The downloaded file.
 	 * @throws IOException if there are errors downloading or writing the temporary file.
 	 */
 	@Override
 	public synchronized File getFile() throws IOException {
+		if (file != null && !file.exists()) {
+			logger.info("Downloaded file " + this.file.getAbsolutePath() + " was removed, downloading ["
+					+ getURL() + "] again");
+			this.file = null;
+		}
 		if (file == null) {
 			// Create a well formatted filename, no dashes, slashes, etc from the URL
 			String simpleName = null;
@@ -75,6 +129,11 @@ public class DownloadingUrlResource extends UrlResource {
 				logger.info("Could not create simple name from last part of URL", e.getMessage());
 			}
 			String fileName = ShaUtils.sha1(getURL().toString());
+			if (this.cache != null && this.downloader.supports(getURL())) {
+				this.file = this.cache.getFile(getURL(), simpleName != null ? fileName + "-" + simpleName : fileName,
+						this.downloader, this.expectedSha256);
+				return file;
+			}
 			if (simpleName != null) {
 				try {
 					this.file = new File(Files.createTempDirectory("spring-cloud-deployer").toFile(),
@@ -86,9 +145,14 @@ public class DownloadingUrlResource extends UrlResource {
 			if (file == null) {
 				this.file = new File(Files.createTempDirectory("spring-cloud-deployer").toFile(), fileName);
 			}
-			// Get the input stream for the URLResource
 			logger.info("Downloading [" + getURL().toString() + "] to " + this.file.getAbsolutePath());
-			FileCopyUtils.copy(this.getInputStream(), new FileOutputStream(file));
+			if (this.downloader.supports(getURL())) {
+				this.downloader.download(getURL(), this.file);
+			}
+			else {
+				// Get the input stream for the URLResource
+				FileCopyUtils.copy(this.getInputStream(), new FileOutputStream(file));
+			}
 		}
 		return file;
 	}
@@ -19,6 +19,7 @@ import java.net.MalformedURLException;
 
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
 
 /**
  * Resource loader that will return a {@link DownloadingUrlResource}
@@ -27,10 +28,43 @@ import org.springframework.core.io.Resource;
  */
 public class DownloadingUrlResourceLoader extends DefaultResourceLoader {
 
+	private final HttpDownloader downloader;
+
+	private final DownloadCache cache;
+
+	/**
+	 * Instantiates a new downloading resource loader using a default {@link HttpDownloader}.
+	 */
+	public DownloadingUrlResourceLoader() {
+		this(new HttpDownloader());
+	}
+
+	/**
+	 * Instantiates a new downloading resource loader.
+	 *
+	 * @param downloader the downloader used by the created resources
+	 */
+	public DownloadingUrlResourceLoader(HttpDownloader downloader) {
+		this(downloader, null);
+	}
+
+	/**
+	 * Instantiates a new downloading resource loader keeping HTTP(S) downloads in a
+	 * persistent {@link DownloadCache}.
+	 *
+	 * @param downloader the downloader used by the created resources
+	 * @param cache the download cache, or {@literal null} to download to temp directories
+	 */
+	public DownloadingUrlResourceLoader(HttpDownloader downloader, DownloadCache cache) {
+		Assert.notNull(downloader, "HttpDownloader must not be null");
+		this.downloader = downloader;
+		this.cache = cache;
+	}
+
 	@Override
 	public Resource getResource(String location) {
 		try {
-			return new DownloadingUrlResource(location);
+			return new DownloadingUrlResource(location, this.downloader, this.cache);
 		}
 		catch (MalformedURLException e) {
 			throw new IllegalStateException(e);
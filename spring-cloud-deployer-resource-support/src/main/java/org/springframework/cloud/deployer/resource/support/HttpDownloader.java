@@ -0,0 +1,453 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadFactory;
+
+/**
+ * Downloads HTTP(S) resources to a file. Bytes are written straight into a
+ * {@link FileChannel} of a {@code .part} file which is moved into place once the
+ * download is complete.
+ * <p>
+ * A dropped connection is retried with an HTTP {@code Range} request continuing from
+ * the bytes already written, and a {@code .part} file left over from an earlier attempt
+ * is resumed the same way. The strong {@code ETag}, or else the {@code Last-Modified}
+ * date, of the response the {@code .part} file was started from is kept next to it and
+ * sent as {@code If-Range}, so a resource changed in the meantime is downloaded again
+ * from the start rather than spliced onto stale bytes. A {@code .part} file without such
+ * a validator is never resumed. If {@link #setParallelism(int) parallelism} is greater
+ * than one and the server accepts byte ranges and returns a validator, files larger
+ * than the {@link #setParallelThreshold(long) parallel threshold} are fetched as several
+ * chunks in parallel. Without a validator the chunks could be spliced from different
+ * versions of the resource, so such files are downloaded in a single stream.
+ * <p>
+ * Like a plain {@link URLConnection}, the downloader waits indefinitely for the server
+ * unless {@link #setConnectTimeout(int) connect} and {@link #setReadTimeout(int) read}
+ * timeouts are set. Set a read timeout to have stalled downloads retried.
+ */
+public class HttpDownloader {
+
+	private static final Logger logger = LoggerFactory.getLogger(HttpDownloader.class);
+
+	private static final String PART_SUFFIX = ".part";
+
+	/**
+	 * Suffix of the file holding the validator of a {@code .part} file; ends in
+	 * {@code .part} as well so that it is treated as work in progress.
+	 */
+	private static final String VALIDATOR_SUFFIX = ".validator" + PART_SUFFIX;
+
+	private int parallelism = 1;
+
+	private long parallelThreshold = 32 * 1024 * 1024;
+
+	private int retries = 3;
+
+	private int bufferSize = 64 * 1024;
+
+	private int connectTimeout;
+
+	private int readTimeout;
+
+	private DownloadProgressListener progressListener;
+
+	/**
+	 * Set the number of chunks fetched in parallel for large files. A value of 1
+	 * (the default) always downloads the file in a single request.
+	 *
+	 * @param parallelism the number of parallel chunk requests
+	 */
+	public void setParallelism(int parallelism) {
+		Assert.isTrue(parallelism > 0, "parallelism must be positive");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Set the minimum size in bytes of a file to be fetched in parallel chunks.
+	 *
+	 * @param parallelThreshold the threshold in bytes
+	 */
+	public void setParallelThreshold(long parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * Set how many times a failed request is retried, resuming from the bytes
+	 * already written.
+	 *
+	 * @param retries the number of retries
+	 */
+	public void setRetries(int retries) {
+		Assert.isTrue(retries >= 0, "retries must not be negative");
+		this.retries = retries;
+	}
+
+	/**
+	 * Set the size of the direct buffer used to copy bytes into the file.
+	 *
+	 * @param bufferSize the buffer size in bytes
+	 */
+	public void setBufferSize(int bufferSize) {
+		Assert.isTrue(bufferSize > 0, "bufferSize must be positive");
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Set the connect timeout in milliseconds. Defaults to 0, waiting indefinitely.
+	 *
+	 * @param connectTimeout the connect timeout
+	 */
+	public void setConnectTimeout(int connectTimeout) {
+		this.connectTimeout = connectTimeout;
+	}
+
+	/**
+	 * Set the read timeout in milliseconds. Defaults to 0, waiting indefinitely; a read
+	 * timing out is retried like a dropped connection.
+	 *
+	 * @param readTimeout the read timeout
+	 */
+	public void setReadTimeout(int readTimeout) {
+		this.readTimeout = readTimeout;
+	}
+
+	/**
+	 * Set a listener notified of the download progress.
+	 *
+	 * @param progressListener the progress listener
+	 */
+	public void setProgressListener(DownloadProgressListener progressListener) {
+		this.progressListener = progressListener;
+	}
+
+	/**
+	 * Return whether the url can be downloaded by this downloader.
+	 *
+	 * @param url the url
+	 * @return {@code true} for http and https urls
+	 */
+	public boolean supports(URL url) {
+		String protocol = url.getProtocol();
+		return "http".equalsIgnoreCase(protocol) || "https".equalsIgnoreCase(protocol);
+	}
+
+	/**
+	 * Download the url into the target file.
+	 *
+	 * @param url the http or https url
+	 * @param target the file to write
+	 * @throws IOException if the download fails after all retries
+	 */
+	public void download(URL url, File target) throws IOException {
+		Assert.isTrue(supports(url), "Only http and https urls are supported: " + url);
+		File part = new File(target.getParentFile(), target.getName() + PART_SUFFIX);
+		File validator = new File(target.getParentFile(), target.getName() + VALIDATOR_SUFFIX);
+		RangeableContent content = null;
+		if (this.parallelism > 1 && !part.exists()) {
+			content = rangeableContent(url);
+		}
+		if (content != null && content.validator != null && content.length >= this.parallelThreshold) {
+			try {
+				downloadChunks(url, part, content.length, content.validator);
+			}
+			catch (IOException | RuntimeException e) {
+				// the chunks leave holes, which cannot be resumed sequentially
+				Files.deleteIfExists(part.toPath());
+				throw e;
+			}
+		}
+		else {
+			downloadSequential(url, part, validator);
+		}
+		Files.move(part.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		Files.deleteIfExists(validator.toPath());
+	}
+
+	/**
+	 * Return the content length and validator if the server accepts byte ranges for the
+	 * url and the content is not empty, {@code null} otherwise.
+	 */
+	private RangeableContent rangeableContent(URL url) throws IOException {
+		HttpURLConnection connection = openConnection(url);
+		try {
+			connection.setRequestMethod("HEAD");
+			if (connection.getResponseCode() != HttpURLConnection.HTTP_OK
+					|| !"bytes".equalsIgnoreCase(connection.getHeaderField("Accept-Ranges"))
+					|| connection.getContentLengthLong() <= 0) {
+				return null;
+			}
+			return new RangeableContent(connection.getContentLengthLong(), validator(connection));
+		}
+		finally {
+			connection.disconnect();
+		}
+	}
+
+	private void downloadSequential(URL url, File part, File validatorFile) throws IOException {
+		AtomicLong downloaded = new AtomicLong();
+		String validator = validatorFile.exists()
+				? new String(Files.readAllBytes(validatorFile.toPath()), StandardCharsets.UTF_8) : null;
+		for (int attempt = 0; ; attempt++) {
+			long offset = part.exists() && validator != null ? part.length() : 0;
+			HttpURLConnection connection = openConnection(url);
+			try {
+				if (offset > 0) {
+					connection.setRequestProperty("Range", "bytes=" + offset + "-");
+					connection.setRequestProperty("If-Range", validator);
+				}
+				int status = connection.getResponseCode();
+				if (offset > 0 && status == 416) {
+					// the part file does not match the resource any more, start over
+					discard(part, validatorFile);
+					validator = null;
+					throw new IOException("Server rejected range from " + offset);
+				}
+				if (status >= 400) {
+					throw new HttpStatusException("Server returned HTTP " + status + " for " + url);
+				}
+				if (status == HttpURLConnection.HTTP_PARTIAL && rangeStart(connection) != offset) {
+					discard(part, validatorFile);
+					validator = null;
+					throw new IOException("Server returned unexpected range " + connection.getHeaderField("Content-Range"));
+				}
+				if (status != HttpURLConnection.HTTP_PARTIAL) {
+					// a fresh download, the resource changed if the part file was to be resumed
+					offset = 0;
+					validator = validator(connection);
+					if (validator != null) {
+						Files.write(validatorFile.toPath(), validator.getBytes(StandardCharsets.UTF_8));
+					}
+					else {
+						Files.deleteIfExists(validatorFile.toPath());
+					}
+				}
+				long length = connection.getContentLengthLong();
+				long total = length < 0 ? -1 : offset + length;
+				downloaded.set(offset);
+				try (InputStream in = connection.getInputStream();
+						FileChannel channel = FileChannel.open(part.toPath(), StandardOpenOption.CREATE,
+								StandardOpenOption.WRITE)) {
+					channel.truncate(offset);
+					long position = transfer(url, in, channel, offset, -1, downloaded, total);
+					if (total >= 0 && position < total) {
+						throw new IOException("Premature end of " + url + " after " + position + " of " + total + " bytes");
+					}
+				}
+				return;
+			}
+			catch (IOException e) {
+				if (e instanceof HttpStatusException || attempt >= this.retries) {
+					throw e;
+				}
+				logger.info("Download of " + url + " interrupted, resuming: " + e.getMessage());
+			}
+			finally {
+				connection.disconnect();
+			}
+		}
+	}
+
+	private void downloadChunks(URL url, File part, long contentLength, String validator) throws IOException {
+		long chunkSize = (contentLength + this.parallelism - 1) / this.parallelism;
+		AtomicLong downloaded = new AtomicLong();
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("http-download-");
+		threadFactory.setDaemon(true);
+		ExecutorService executor = Executors.newFixedThreadPool(this.parallelism, threadFactory);
+		try (FileChannel channel = FileChannel.open(part.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			List<Future<?>> chunks = new ArrayList<>();
+			for (long start = 0; start < contentLength; start += chunkSize) {
+				long from = start;
+				long to = Math.min(start + chunkSize, contentLength) - 1;
+				chunks.add(executor.submit(() -> {
+					downloadChunk(url, channel, from, to, validator, downloaded, contentLength);
+					return null;
+				}));
+			}
+			for (Future<?> chunk : chunks) {
+				chunk.get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while downloading " + url, e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("Failed to download " + url, e.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void downloadChunk(URL url, FileChannel channel, long from, long to, String validator,
+			AtomicLong downloaded, long total) throws IOException {
+		long position = from;
+		for (int attempt = 0; ; attempt++) {
+			HttpURLConnection connection = openConnection(url);
+			try {
+				connection.setRequestProperty("Range", "bytes=" + position + "-" + to);
+				connection.setRequestProperty("If-Range", validator);
+				int status = connection.getResponseCode();
+				if (status != HttpURLConnection.HTTP_PARTIAL || rangeStart(connection) != position) {
+					// also when the resource changed since the download started
+					throw new HttpStatusException("Server returned HTTP " + status + " for range request to " + url);
+				}
+				try (InputStream in = connection.getInputStream()) {
+					position = transfer(url, in, channel, position, to + 1, downloaded, total);
+				}
+				if (position > to) {
+					return;
+				}
+				throw new IOException("Premature end of range " + from + "-" + to + " of " + url);
+			}
+			catch (IOException e) {
+				if (e instanceof HttpStatusException || attempt >= this.retries) {
+					throw e;
+				}
+				logger.info("Download of range " + position + "-" + to + " of " + url + " interrupted, resuming: "
+						+ e.getMessage());
+			}
+			finally {
+				connection.disconnect();
+			}
+		}
+	}
+
+	/**
+	 * Copy the stream into the channel at the given position until the stream ends or
+	 * {@code end} (exclusive, -1 for no limit) is reached.
+	 * @return the position after the last byte written
+	 */
+	private long transfer(URL url, InputStream in, FileChannel channel, long position, long end,
+			AtomicLong downloaded, long total) throws IOException {
+		ReadableByteChannel source = Channels.newChannel(in);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(this.bufferSize);
+		while (end < 0 || position < end) {
+			if (end >= 0 && end - position < buffer.capacity()) {
+				((Buffer) buffer).limit((int) (end - position));
+			}
+			if (source.read(buffer) < 0) {
+				break;
+			}
+			// cast, so the Java 8 Buffer methods are linked when built with a newer JDK
+			((Buffer) buffer).flip();
+			while (buffer.hasRemaining()) {
+				int written = channel.write(buffer, position);
+				position += written;
+				long current = downloaded.addAndGet(written);
+				if (this.progressListener != null) {
+					this.progressListener.progress(url, current, total);
+				}
+			}
+			((Buffer) buffer).clear();
+		}
+		return position;
+	}
+
+	/**
+	 * Return the strong entity tag of the response, or else its last modification date.
+	 */
+	private static String validator(HttpURLConnection connection) {
+		String etag = connection.getHeaderField("ETag");
+		if (etag != null && !etag.startsWith("W/")) {
+			return etag;
+		}
+		return connection.getHeaderField("Last-Modified");
+	}
+
+	/**
+	 * Return the first byte position of a partial response, -1 if it is missing.
+	 */
+	private static long rangeStart(HttpURLConnection connection) {
+		String range = connection.getHeaderField("Content-Range");
+		if (range == null || !range.startsWith("bytes ") || range.indexOf('-') < 0) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(range.substring("bytes ".length(), range.indexOf('-')).trim());
+		}
+		catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private static void discard(File part, File validatorFile) throws IOException {
+		Files.deleteIfExists(part.toPath());
+		Files.deleteIfExists(validatorFile.toPath());
+	}
+
+	HttpURLConnection openConnection(URL url) throws IOException {
+		URLConnection connection = url.openConnection();
+		connection.setConnectTimeout(this.connectTimeout);
+		connection.setReadTimeout(this.readTimeout);
+		return (HttpURLConnection) connection;
+	}
+
+	private static final class RangeableContent {
+
+		private final long length;
+
+		private final String validator;
+
+		RangeableContent(long length, String validator) {
+			this.length = length;
+			this.validator = validator;
+		}
+	}
+
+	/**
+	 * Thrown for an unexpected HTTP status; such failures are not retried.
+	 */
+	@SuppressWarnings("serial")
+	private static class HttpStatusException extends IOException {
+
+		HttpStatusException(String message) {
+			super(message);
+		}
+	}
+}
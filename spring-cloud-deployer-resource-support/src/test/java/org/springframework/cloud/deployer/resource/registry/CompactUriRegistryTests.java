@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.registry;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link CompactUriRegistry}.
+ */
+public class CompactUriRegistryTests {
+
+	@Test
+	public void prefixes() {
+		assertEquals("maven://org.springframework.cloud.stream.app:", prefix("maven://org.springframework.cloud.stream.app:http-source-rabbit:2.1.0"));
+		assertEquals("docker:springcloudstream/", prefix("docker:springcloudstream/http-source-kafka:2.1.0"));
+		assertEquals("file:///", prefix("file:///bar-1.2.3.jar"));
+		assertEquals("https://repo.example.com/apps/", prefix("https://repo.example.com/apps/app.jar"));
+		assertEquals("", prefix("noscheme"));
+	}
+
+	@Test
+	public void registerFindAndUnregister() {
+		CompactUriRegistry registry = new CompactUriRegistry();
+		registry.register("source.http", URI.create("maven://org.springframework.cloud.stream.app:http-source:1.0.0"));
+		registry.register("sink.log", URI.create("maven://org.springframework.cloud.stream.app:log-sink:1.0.0"));
+		registry.register("sink.log", URI.create("docker:springcloudstream/log-sink-kafka:2.1.0"));
+		registry.register("sink.file", URI.create("file:///file-sink.jar"));
+
+		assertEquals(URI.create("maven://org.springframework.cloud.stream.app:http-source:1.0.0"), registry.find("source.http"));
+		assertEquals(URI.create("docker:springcloudstream/log-sink-kafka:2.1.0"), registry.find("sink.log"));
+		assertEquals(2, registry.findByPrefix("sink.").size());
+		registry.unregister("sink.file");
+		assertFalse(registry.findIfPresent("sink.file").isPresent());
+		assertEquals(2, registry.findAll().size());
+	}
+
+	@Test
+	public void largeRegistrySharesPrefixes() {
+		CompactUriRegistry registry = new CompactUriRegistry();
+		int entries = 100000;
+		Map<String, URI> uris = new LinkedHashMap<>();
+		long uriChars = 0;
+		for (int i = 0; i < entries; i++) {
+			URI uri = URI.create("maven://org.springframework.cloud.stream.app:app" + i + "-source-rabbit:2.1.0.RELEASE");
+			uris.put("source.app" + i, uri);
+			uriChars += uri.toString().length();
+		}
+		registry.registerAll(uris);
+
+		assertEquals(2, registry.prefixCount());
+		assertTrue(registry.arenaSize() < uriChars / 2);
+		assertEquals(uris, registry.findAll());
+
+		// overwriting every entry leaves garbage which is compacted away
+		registry.registerAll(uris);
+		registry.registerAll(uris);
+		assertTrue(registry.arenaSize() < uriChars);
+		assertEquals(uris.get("source.app4242"), registry.find("source.app4242"));
+	}
+
+	@Test
+	public void invalidBatchLeavesRegistryUnchanged() {
+		CompactUriRegistry registry = new CompactUriRegistry();
+		registry.register("sink.log", URI.create("maven://org.springframework.cloud.stream.app:log-sink:1.0.0"));
+		Map<String, URI> uris = new LinkedHashMap<>();
+		uris.put("sink.log", URI.create("file:///log-sink.jar"));
+		uris.put("source.http", URI.create("https://repo.example.com/apps/http-source.jar"));
+		uris.put("source.time", null);
+		try {
+			registry.registerAll(uris);
+			fail("Expected the batch to be rejected");
+		}
+		catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		assertEquals(1, registry.findAll().size());
+		assertEquals(URI.create("maven://org.springframework.cloud.stream.app:log-sink:1.0.0"), registry.find("sink.log"));
+		assertEquals(2, registry.prefixCount());
+	}
+
+	@Test
+	public void matchesHashMapUnderRandomUpdates() {
+		CompactUriRegistry registry = new CompactUriRegistry();
+		Map<String, URI> expected = new HashMap<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 200000; i++) {
+			String key = "app" + random.nextInt(5000);
+			if (random.nextInt(3) == 0) {
+				registry.unregister(key);
+				expected.remove(key);
+			}
+			else {
+				URI uri = URI.create("file:///apps/" + key + "-" + i + ".jar");
+				registry.register(key, uri);
+				expected.put(key, uri);
+			}
+		}
+
+		assertEquals(expected, registry.findAll());
+		for (int i = 0; i < 5000; i++) {
+			assertEquals(expected.get("app" + i), registry.findIfPresent("app" + i).orElse(null));
+		}
+		assertTrue(registry.capacity() <= 16384);
+	}
+
+	@Test
+	public void fullPrefixTableStoresWholeUris() {
+		CompactUriRegistry registry = new CompactUriRegistry();
+		Map<String, URI> uris = new LinkedHashMap<>();
+		for (int i = 0; i < 5000; i++) {
+			uris.put("app" + i, URI.create("https://host" + i + ".example.com/apps/app.jar"));
+		}
+		registry.registerAll(uris);
+
+		assertEquals(4096, registry.prefixCount());
+		assertEquals(uris, registry.findAll());
+	}
+
+	private static String prefix(String uri) {
+		return uri.substring(0, CompactUriRegistry.prefixLength(uri));
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.registry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for {@link HashTrieMap}.
+ */
+public class HashTrieMapTests {
+
+	@Test
+	public void randomUpdatesMatchHashMap() {
+		Random random = new Random(42);
+		Map<String, Integer> expected = new HashMap<>();
+		HashTrieMap<Integer> map = HashTrieMap.empty();
+		for (int i = 0; i < 200000; i++) {
+			String key = "source.app" + random.nextInt(5000);
+			if (random.nextInt(3) == 0) {
+				expected.remove(key);
+				map = map.without(key);
+			}
+			else {
+				expected.put(key, i);
+				map = map.with(key, i);
+			}
+			if (i % 20000 == 0) {
+				assertEquals(expected, map);
+				assertEquals(expected.size(), map.entrySet().stream().count());
+			}
+		}
+		assertEquals(expected, map);
+		for (String key : expected.keySet()) {
+			map = map.without(key);
+		}
+		assertEquals(0, map.size());
+		assertSame(HashTrieMap.empty(), map);
+	}
+
+	@Test
+	public void collidingKeys() {
+		// "Aa" and "BB" have the same hash code, so all of these keys collide
+		String[] keys = { "AaAaAa", "AaAaBB", "AaBBAa", "AaBBBB", "BBAaAa", "BBAaBB", "BBBBAa", "BBBBBB" };
+		HashTrieMap<Integer> map = HashTrieMap.empty();
+		for (int i = 0; i < keys.length; i++) {
+			map = map.with(keys[i], i);
+		}
+		assertEquals(keys.length, map.size());
+		for (int i = 0; i < keys.length; i++) {
+			assertEquals(Integer.valueOf(i), map.get(keys[i]));
+		}
+		map = map.with(keys[3], 42).without(keys[0]).without(keys[0]);
+		assertEquals(keys.length - 1, map.size());
+		assertEquals(Integer.valueOf(42), map.get(keys[3]));
+		assertNull(map.get(keys[0]));
+		assertEquals(keys.length - 1, map.entrySet().stream().count());
+	}
+
+	@Test
+	public void updatesDoNotChangeEarlierVersions() {
+		HashTrieMap<Integer> first = HashTrieMap.<Integer>empty().with("sink.log", 1);
+		HashTrieMap<Integer> second = first.with("sink.log", 2).with("sink.file", 3);
+		assertEquals(1, first.size());
+		assertEquals(Integer.valueOf(1), first.get("sink.log"));
+		assertEquals(Integer.valueOf(2), second.get("sink.log"));
+		assertSame(second, second.without("sink.jdbc"));
+	}
+}
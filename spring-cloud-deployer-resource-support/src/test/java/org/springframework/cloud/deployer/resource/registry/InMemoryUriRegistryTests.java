@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.registry;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link InMemoryUriRegistry}.
+ */
+public class InMemoryUriRegistryTests {
+
+	@Test
+	public void bulkOperations() {
+		UriRegistry registry = new InMemoryUriRegistry();
+		Map<String, URI> uris = new HashMap<>();
+		uris.put("source.http", URI.create("maven://org.springframework.cloud.stream.app:http-source:1.0.0"));
+		uris.put("source.time", URI.create("maven://org.springframework.cloud.stream.app:time-source:1.0.0"));
+		uris.put("sink.log", URI.create("maven://org.springframework.cloud.stream.app:log-sink:1.0.0"));
+		registry.registerAll(uris);
+
+		assertEquals(uris, registry.findAll());
+		assertEquals(new HashSet<>(Arrays.asList("source.http", "source.time")),
+				registry.findByPrefix("source.").keySet());
+		assertEquals(uris.get("sink.log"), registry.findIfPresent("sink.log").get());
+		assertFalse(registry.findIfPresent("sink.file").isPresent());
+
+		registry.unregisterAll(Arrays.asList("source.http", "sink.log"));
+		assertEquals(1, registry.findAll().size());
+		assertTrue(registry.findIfPresent("source.time").isPresent());
+	}
+
+	@Test
+	public void findAllReturnsPointInTimeSnapshot() {
+		UriRegistry registry = new InMemoryUriRegistry();
+		registry.register("source.http", URI.create("maven://org.springframework.cloud.stream.app:http-source:1.0.0"));
+		Map<String, URI> snapshot = registry.findAll();
+
+		registry.register("sink.log", URI.create("maven://org.springframework.cloud.stream.app:log-sink:1.0.0"));
+		registry.unregister("source.http");
+
+		assertEquals(1, snapshot.size());
+		assertTrue(snapshot.containsKey("source.http"));
+		assertEquals(1, registry.findAll().size());
+		assertTrue(registry.findAll().containsKey("sink.log"));
+	}
+
+	@Test
+	public void manySingleKeyRegistrations() {
+		UriRegistry registry = new InMemoryUriRegistry();
+		for (int i = 0; i < 100000; i++) {
+			registry.register("source.app" + i, URI.create("maven://org.springframework.cloud.stream.app:app" + i + ":1.0.0"));
+		}
+		assertEquals(100000, registry.findAll().size());
+		assertEquals(URI.create("maven://org.springframework.cloud.stream.app:app42:1.0.0"), registry.find("source.app42"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nullUriIsRejected() {
+		new InMemoryUriRegistry().register("source.http", null);
+	}
+}
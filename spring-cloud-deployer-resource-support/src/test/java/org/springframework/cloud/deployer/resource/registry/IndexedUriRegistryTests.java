@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.registry;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link IndexedUriRegistry}.
+ */
+public class IndexedUriRegistryTests {
+
+	@Test
+	public void prefixTypeAndPagedQueries() {
+		InMemoryUriRegistry delegate = new InMemoryUriRegistry();
+		delegate.register("source.http", URI.create("maven://org.springframework.cloud.stream.app:http-source:1.0.0"));
+		IndexedUriRegistry registry = new IndexedUriRegistry(delegate);
+		registry.register("source.time", URI.create("maven://org.springframework.cloud.stream.app:time-source:1.0.0"));
+		registry.register("source.http.metadata", URI.create("maven://org.springframework.cloud.stream.app:http-source:jar:metadata:1.0.0"));
+		registry.register("sink.log", URI.create("maven://org.springframework.cloud.stream.app:log-sink:1.0.0"));
+		registry.register("sink.file", URI.create("maven://org.springframework.cloud.stream.app:file-sink:1.0.0"));
+
+		assertEquals(Arrays.asList("sink.file", "sink.log"), new ArrayList<>(registry.findByType("sink").keySet()));
+		assertEquals(Arrays.asList("source.http", "source.http.metadata", "source.time"),
+				new ArrayList<>(registry.findByPrefix("source.").keySet()));
+		assertEquals(Arrays.asList("source.http.metadata", "source.time"), registry.findKeysByPrefix("s", 3, 2));
+		assertEquals(Collections.singletonList("source.time"),
+				new ArrayList<>(registry.findByPrefix("source.t", 0, 10).keySet()));
+		assertTrue(registry.findKeysByPrefix("processor.", 0, 10).isEmpty());
+
+		registry.unregisterAll(Arrays.asList("source.http", "sink.log"));
+		assertEquals(Arrays.asList("sink.file", "source.http.metadata", "source.time"),
+				registry.findKeysByPrefix("", 0, 10));
+		assertEquals(3, delegate.findAll().size());
+	}
+
+	@Test
+	public void trieMatchesSortedSet() {
+		Random random = new Random(42);
+		KeyTrie trie = new KeyTrie();
+		TreeSet<String> expected = new TreeSet<>();
+		String[] types = { "source.", "sink.", "processor.", "task." };
+		for (int i = 0; i < 20000; i++) {
+			String key = types[random.nextInt(types.length)] + Integer.toString(random.nextInt(5000), 7);
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(key), trie.remove(key));
+			}
+			else {
+				assertEquals(expected.add(key), trie.add(key));
+			}
+		}
+		assertEquals(expected.size(), trie.size());
+		assertEquals(new ArrayList<>(expected), trie.keys("", 0, Integer.MAX_VALUE));
+		for (String prefix : Arrays.asList("s", "sink.", "source.1", "source.12", "task.6", "x")) {
+			List<String> matches = new ArrayList<>();
+			for (String key : expected.tailSet(prefix)) {
+				if (!key.startsWith(prefix)) {
+					break;
+				}
+				matches.add(key);
+			}
+			assertEquals(matches, trie.keys(prefix, 0, Integer.MAX_VALUE));
+			assertEquals(matches.subList(Math.min(5, matches.size()), Math.min(15, matches.size())),
+					trie.keys(prefix, 5, 10));
+		}
+	}
+}
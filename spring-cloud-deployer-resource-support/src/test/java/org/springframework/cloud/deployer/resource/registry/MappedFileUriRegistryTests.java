@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.registry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link MappedFileUriRegistry}.
+ */
+public class MappedFileUriRegistryTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void registrationsSurviveRestart() throws Exception {
+		File file = new File(this.folder.getRoot(), "registry.log");
+		try (MappedFileUriRegistry registry = new MappedFileUriRegistry(file)) {
+			registry.register("source.http", URI.create("maven://org.springframework.cloud.stream.app:http-source:1.0.0"));
+			registry.register("sink.log", URI.create("maven://org.springframework.cloud.stream.app:log-sink:1.0.0"));
+			registry.register("sink.log", URI.create("maven://org.springframework.cloud.stream.app:log-sink:2.0.0"));
+			registry.register("sink.file", URI.create("file:///file-sink.jar"));
+			registry.unregister("sink.file");
+		}
+		try (MappedFileUriRegistry registry = new MappedFileUriRegistry(file)) {
+			assertEquals(2, registry.findAll().size());
+			assertEquals("maven://org.springframework.cloud.stream.app:log-sink:2.0.0",
+					registry.find("sink.log").toString());
+			assertFalse(registry.findIfPresent("sink.file").isPresent());
+			assertEquals(1, registry.findByPrefix("source.").size());
+		}
+	}
+
+	@Test
+	public void incompleteRecordIsDiscarded() throws Exception {
+		File file = new File(this.folder.getRoot(), "registry.log");
+		try (MappedFileUriRegistry registry = new MappedFileUriRegistry(file)) {
+			registry.register("source.http", URI.create("maven://org.springframework.cloud.stream.app:http-source:1.0.0"));
+			registry.register("sink.log", URI.create("maven://org.springframework.cloud.stream.app:log-sink:1.0.0"));
+		}
+		// simulate a crash in the middle of writing the last record
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(raf.length() - 3);
+		}
+		try (MappedFileUriRegistry registry = new MappedFileUriRegistry(file)) {
+			assertEquals(1, registry.findAll().size());
+			assertTrue(registry.findIfPresent("source.http").isPresent());
+			registry.register("sink.log", URI.create("maven://org.springframework.cloud.stream.app:log-sink:1.0.0"));
+		}
+		try (MappedFileUriRegistry registry = new MappedFileUriRegistry(file)) {
+			assertEquals(2, registry.findAll().size());
+		}
+	}
+
+	@Test
+	public void recordWithGarbageLengthIsDiscarded() throws Exception {
+		File file = new File(this.folder.getRoot(), "registry.log");
+		try (MappedFileUriRegistry registry = new MappedFileUriRegistry(file)) {
+			registry.register("source.http", URI.create("maven://org.springframework.cloud.stream.app:http-source:1.0.0"));
+		}
+		// a torn tail whose key length overflows when the following fields are added to it
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(raf.length());
+			raf.writeByte(1);
+			raf.writeInt(Integer.MAX_VALUE - 2);
+			raf.writeInt(0);
+		}
+		try (MappedFileUriRegistry registry = new MappedFileUriRegistry(file)) {
+			assertEquals(1, registry.findAll().size());
+			registry.register("sink.log", URI.create("maven://org.springframework.cloud.stream.app:log-sink:1.0.0"));
+		}
+		try (MappedFileUriRegistry registry = new MappedFileUriRegistry(file)) {
+			assertEquals(2, registry.findAll().size());
+		}
+	}
+
+	@Test
+	public void compactionReclaimsOverwrittenRecords() throws Exception {
+		File file = new File(this.folder.getRoot(), "registry.log");
+		try (MappedFileUriRegistry registry = new MappedFileUriRegistry(file)) {
+			registry.setSyncOnWrite(false);
+			registry.setCompactionRatio(Double.MAX_VALUE);
+			for (int i = 0; i < 1000; i++) {
+				registry.register("source.http", URI.create("maven://org.springframework.cloud.stream.app:http-source:" + i));
+			}
+			registry.register("sink.log", URI.create("maven://org.springframework.cloud.stream.app:log-sink:1.0.0"));
+			long before = registry.getFileSize();
+			registry.compact();
+			assertTrue(registry.getFileSize() < before / 100);
+			assertEquals("maven://org.springframework.cloud.stream.app:http-source:999",
+					registry.find("source.http").toString());
+			registry.unregisterAll(Arrays.asList("sink.log"));
+		}
+		try (MappedFileUriRegistry registry = new MappedFileUriRegistry(file)) {
+			assertEquals(1, registry.findAll().size());
+			assertEquals("maven://org.springframework.cloud.stream.app:http-source:999",
+					registry.find("source.http").toString());
+		}
+	}
+
+	@Test(timeout = 60000)
+	public void singleKeyWritesDoNotMapTheFileEachTime() throws IOException {
+		File file = new File(this.folder.getRoot(), "registry.log");
+		int entries = 50000;
+		try (MappedFileUriRegistry registry = new MappedFileUriRegistry(file)) {
+			registry.setSyncOnWrite(false);
+			for (int i = 0; i < entries; i++) {
+				registry.register("source.app" + i, URI.create("maven://org.springframework.cloud.stream.app:app" + i + ":jar:1.0.0"));
+			}
+			assertTrue(registry.mapCount() < 10);
+			assertEquals(entries, registry.findAll().size());
+			// both from the mapping and from the tail read through the channel
+			assertEquals("maven://org.springframework.cloud.stream.app:app1:jar:1.0.0",
+					registry.find("source.app1").toString());
+			assertEquals("maven://org.springframework.cloud.stream.app:app49999:jar:1.0.0",
+					registry.find("source.app49999").toString());
+		}
+		try (MappedFileUriRegistry registry = new MappedFileUriRegistry(file)) {
+			assertEquals(entries, registry.findAll().size());
+		}
+	}
+
+	@Test(timeout = 60000)
+	public void startupWithLargeRegistry() throws IOException {
+		File file = new File(this.folder.getRoot(), "registry.log");
+		int entries = 100000;
+		Map<String, URI> uris = new LinkedHashMap<>();
+		for (int i = 0; i < entries; i++) {
+			uris.put("source.app" + i, URI.create("maven://org.springframework.cloud.stream.app:app" + i + ":jar:1.0.0"));
+		}
+		try (MappedFileUriRegistry registry = new MappedFileUriRegistry(file)) {
+			registry.registerAll(uris);
+		}
+		try (MappedFileUriRegistry registry = new MappedFileUriRegistry(file)) {
+			assertEquals(entries, registry.findAll().size());
+			assertEquals(uris.get("source.app4242"), registry.find("source.app4242"));
+		}
+	}
+}
@@ -21,16 +21,26 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
 import org.springframework.cloud.deployer.resource.StubResourceLoader;
 import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.DescriptiveResource;
 import org.springframework.core.io.Resource;
 
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -98,6 +108,32 @@ public class UriRegistryPopulatorTests {
 		assertTrue(newlyRegisteredWithOverwrites.size() == 5);
 	}
 
+	@Test
+	public void populateRegistryRegistersInOneBatch() throws Exception {
+		UriRegistryPopulator populator = new UriRegistryPopulator();
+		populator.setResourceLoader(new StubResourceLoader(new PropertiesResource(this.uris)));
+		AtomicInteger batches = new AtomicInteger();
+		UriRegistry registry = new InMemoryUriRegistry() {
+
+			@Override
+			public void register(String key, URI uri) {
+				throw new AssertionError("Unexpected single registration of " + key);
+			}
+
+			@Override
+			public void registerAll(Map<String, URI> uris) {
+				batches.incrementAndGet();
+				super.registerAll(uris);
+			}
+		};
+
+		Map<String, URI> registered = populator.populateRegistry(true, registry, "local://one", "local://two");
+
+		assertThat(batches.get(), is(1));
+		assertThat(registered.size(), is(this.uris.size()));
+		assertThat(registry.findAll(), is(registered));
+	}
+
 	@Test
 	public void populateRegistryInvalidUri() throws Exception {
 		String localUri = "local://local";
@@ -118,6 +154,154 @@ public class UriRegistryPopulatorTests {
 		assertThat(registry.find("test").toString(), is("file:///bar-1.2.3.jar"));
 	}
 
+	@Test
+	public void populateRegistryConcurrently() throws Exception {
+		Properties other = new Properties();
+		other.setProperty("bar", "file:///bar-2.0.0.jar");
+		other.setProperty("no-scheme", "invalid");
+		other.setProperty("malformed", "maven://group:artifact:jar:1.0 with spaces");
+		Map<String, Resource> resources = new HashMap<>();
+		resources.put("local://one", new PropertiesResource(this.uris));
+		resources.put("local://two", new PropertiesResource(other));
+		resources.put("local://missing", new DescriptiveResource("missing"));
+		UriRegistryPopulator populator = new UriRegistryPopulator();
+		populator.setResourceLoader(new MapResourceLoader(resources));
+		UriRegistry registry = new InMemoryUriRegistry();
+		registry.register("foo-2", new URI("maven://group2:foo:2.0.0"));
+
+		UriRegistryPopulationResult result = populator.populateRegistryConcurrently(false, registry,
+				"local://one", "local://missing", "local://two");
+
+		assertEquals(new HashSet<>(Arrays.asList("foo.1", "bar")), result.getRegistered().keySet());
+		assertThat(registry.find("bar").toString(), is("file:///bar-1.2.3.jar"));
+		assertThat(result.getSkipped(), is(Collections.singleton("foo-2")));
+		assertThat(registry.find("foo-2").toString(), is("maven://group2:foo:2.0.0"));
+		assertEquals(new HashSet<>(Arrays.asList("no-scheme", "malformed")), result.getInvalid().keySet());
+		assertThat(result.getFailedResources().keySet(), is(Collections.singleton("local://missing")));
+	}
+
+	@Test
+	public void populateRegistryConcurrentlyKeepsPrecedenceOfPopulateRegistry() throws Exception {
+		Properties other = new Properties();
+		other.setProperty("bar", "file:///bar-2.0.0.jar");
+		other.setProperty("baz", "file:///baz-1.0.0.jar");
+		Map<String, Resource> resources = new HashMap<>();
+		resources.put("local://one", new PropertiesResource(this.uris));
+		resources.put("local://two", new PropertiesResource(other));
+		UriRegistryPopulator populator = new UriRegistryPopulator();
+		populator.setResourceLoader(new MapResourceLoader(resources));
+
+		for (boolean overwrite : new boolean[] { false, true }) {
+			UriRegistry sequential = new InMemoryUriRegistry();
+			populator.populateRegistry(overwrite, sequential, "local://one", "local://two");
+			UriRegistry concurrent = new InMemoryUriRegistry();
+			populator.populateRegistryConcurrently(overwrite, concurrent, "local://one", "local://two");
+
+			assertEquals(sequential.findAll(), concurrent.findAll());
+			assertThat(concurrent.find("bar").toString(), is(overwrite ? "file:///bar-2.0.0.jar" : "file:///bar-1.2.3.jar"));
+		}
+	}
+
+	@Test
+	public void populateRegistryConcurrentlyParsesPropertiesSyntax() throws Exception {
+		String manifest = "# comment\n"
+				+ "  ! another comment\n"
+				+ "\n"
+				+ "source.http = maven://org.springframework.cloud:http-source:1.0.0\n"
+				+ "sink.log:maven\\://org.springframework.cloud\\:log-sink\\:1.0.0\n"
+				+ "processor.filter   maven://org.springframework.cloud:\\\n"
+				+ "    filter-processor:1.0.0\n"
+				+ "task.a\\ b=file:///a\\u0062.jar\n"
+				+ "sink.file=file:///one.jar\n"
+				+ "sink.file=file:///two.jar";
+		Map<String, Resource> resources = new HashMap<>();
+		resources.put("local://manifest", new ByteArrayResource(manifest.getBytes(StandardCharsets.ISO_8859_1)));
+		UriRegistryPopulator populator = new UriRegistryPopulator();
+		populator.setResourceLoader(new MapResourceLoader(resources));
+		Properties expected = new Properties();
+		expected.load(new ByteArrayInputStream(manifest.getBytes(StandardCharsets.ISO_8859_1)));
+		UriRegistry registry = new InMemoryUriRegistry();
+
+		UriRegistryPopulationResult result = populator.populateRegistryConcurrently(true, registry, "local://manifest");
+
+		assertTrue(result.getInvalid().isEmpty());
+		assertEquals(expected.size(), registry.findAll().size());
+		for (String key : expected.stringPropertyNames()) {
+			assertThat(registry.find(key).toString(), is(expected.getProperty(key)));
+		}
+		assertThat(registry.find("task.a b").toString(), is("file:///ab.jar"));
+	}
+
+	@Test
+	public void populateRegistryConcurrentlyReportsFailuresWithoutParallelism() throws Exception {
+		Map<String, Resource> resources = new HashMap<>();
+		resources.put("local://missing", new DescriptiveResource("missing"));
+		resources.put("local://one", new PropertiesResource(this.uris));
+		UriRegistryPopulator populator = new UriRegistryPopulator();
+		populator.setResourceLoader(new MapResourceLoader(resources));
+
+		UriRegistryPopulationResult result = populator.populateRegistryConcurrently(true, new InMemoryUriRegistry(),
+				"local://missing");
+		assertThat(result.getFailedResources().keySet(), is(Collections.singleton("local://missing")));
+		assertTrue(result.getRegistered().isEmpty());
+
+		populator.setParallelism(1);
+		UriRegistry registry = new InMemoryUriRegistry();
+		result = populator.populateRegistryConcurrently(true, registry, "local://one", "local://missing");
+		assertThat(result.getFailedResources().keySet(), is(Collections.singleton("local://missing")));
+		assertThat(registry.findAll().size(), is(this.uris.size()));
+	}
+
+	@Test(timeout = 60000)
+	public void populateRegistryConcurrentlyWithLargeManifests() throws Exception {
+		int resourceCount = 4;
+		int entriesPerResource = 12500;
+		Map<String, Resource> resources = new HashMap<>();
+		String[] resourceUris = new String[resourceCount];
+		for (int r = 0; r < resourceCount; r++) {
+			StringBuilder manifest = new StringBuilder();
+			for (int i = 0; i < entriesPerResource; i++) {
+				manifest.append("source.app").append(r).append('-').append(i)
+						.append("=maven://org.springframework.cloud.stream.app:app").append(i)
+						.append(":jar:1.0.").append(r).append('\n');
+			}
+			resourceUris[r] = "local://manifest" + r;
+			resources.put(resourceUris[r], new ByteArrayResource(manifest.toString().getBytes(StandardCharsets.ISO_8859_1)));
+		}
+		UriRegistryPopulator populator = new UriRegistryPopulator();
+		populator.setResourceLoader(new MapResourceLoader(resources));
+		UriRegistry registry = new InMemoryUriRegistry();
+
+		UriRegistryPopulationResult result = populator.populateRegistryConcurrently(false, registry, resourceUris);
+
+		assertThat(result.getRegistered().size(), is(resourceCount * entriesPerResource));
+		assertThat(registry.findAll().size(), is(resourceCount * entriesPerResource));
+		assertThat(registry.find("source.app3-42").toString(),
+				is("maven://org.springframework.cloud.stream.app:app42:jar:1.0.3"));
+		assertTrue(result.getInvalid().isEmpty());
+
+		result = populator.populateRegistryConcurrently(false, registry, resourceUris);
+		assertTrue(result.getRegistered().isEmpty());
+		assertThat(result.getSkipped().size(), is(resourceCount * entriesPerResource));
+	}
+
+	/**
+	 * {@link org.springframework.core.io.ResourceLoader} returning the resources
+	 * of a map, safe for concurrent use.
+	 */
+	static class MapResourceLoader extends DefaultResourceLoader {
+
+		private final Map<String, Resource> resources;
+
+		MapResourceLoader(Map<String, Resource> resources) {
+			this.resources = resources;
+		}
+
+		@Override
+		public Resource getResource(String location) {
+			return this.resources.get(location);
+		}
+	}
 
 	/**
 	 * {@link Resource} implementation that returns an {@link InputStream}
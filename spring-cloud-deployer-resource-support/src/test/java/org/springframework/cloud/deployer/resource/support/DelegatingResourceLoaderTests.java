@@ -28,10 +28,13 @@ import org.junit.rules.TemporaryFolder;
 
 import org.springframework.cloud.deployer.resource.StubResourceLoader;
 import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 /**
  * Tests for {@link DelegatingResourceLoader}.
@@ -65,6 +68,30 @@ public class DelegatingResourceLoaderTests {
 		assertEquals(three, resourceLoader.getResource("three://three"));
 	}
 
+	@Test
+	public void resourceCacheReturnsSameResource() {
+		DelegatingResourceLoader resourceLoader = new DelegatingResourceLoader();
+		resourceLoader.setResourceCacheSize(2);
+		Resource first = resourceLoader.getResource("https://example.com/first.jar");
+		assertSame(first, resourceLoader.getResource("https://example.com/first.jar"));
+		assertEquals(1, resourceLoader.getResourceCacheHitCount());
+		assertEquals(1, resourceLoader.getResourceCacheMissCount());
+		assertEquals(0.5, resourceLoader.getResourceCacheHitRate(), 0.0);
+
+		resourceLoader.getResource("https://example.com/second.jar");
+		resourceLoader.getResource("https://example.com/third.jar");
+		assertEquals(2, resourceLoader.getResourceCacheSize());
+		assertNotSame(first, resourceLoader.getResource("https://example.com/first.jar"));
+	}
+
+	@Test
+	public void resourceCacheDisabledByDefault() {
+		DelegatingResourceLoader resourceLoader = new DelegatingResourceLoader();
+		assertNotSame(resourceLoader.getResource("https://example.com/first.jar"),
+				resourceLoader.getResource("https://example.com/first.jar"));
+		assertEquals(0, resourceLoader.getResourceCacheSize());
+	}
+
 	static class NullResource extends AbstractResource {
 
 		final String description;
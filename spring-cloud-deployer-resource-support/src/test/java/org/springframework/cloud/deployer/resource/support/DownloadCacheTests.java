@@ -0,0 +1,203 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link DownloadCache}.
+ */
+public class DownloadCacheTests {
+
+	// SHA-256 of "hello"
+	private static final String HELLO_SHA256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final AtomicInteger downloads = new AtomicInteger();
+
+	private volatile String content = "hello";
+
+	private HttpServer server;
+
+	@Before
+	public void setup() throws IOException {
+		this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		this.server.createContext("/", this::handle);
+		this.server.start();
+	}
+
+	@After
+	public void teardown() {
+		this.server.stop(0);
+	}
+
+	@Test
+	public void cachedFileIsReusedAfterRestart() throws Exception {
+		File root = this.folder.newFolder("cache");
+		File first = resource("/app.jar", new DownloadCache(root, 0)).getFile();
+		// a new cache on the same directory, as after a restart
+		File second = resource("/app.jar", new DownloadCache(root, 0)).getFile();
+		assertEquals(first, second);
+		assertEquals("hello", new String(Files.readAllBytes(second.toPath()), StandardCharsets.UTF_8));
+		assertEquals(1, this.downloads.get());
+	}
+
+	@Test
+	public void changedFileIsDownloadedAgain() throws Exception {
+		DownloadCache cache = new DownloadCache(this.folder.newFolder("cache"), 0);
+		resource("/app.jar", cache).getFile();
+		this.content = "changed";
+		File file = resource("/app.jar", cache).getFile();
+		assertEquals("changed", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+		assertEquals(2, this.downloads.get());
+	}
+
+	@Test
+	public void checksumIsVerified() throws Exception {
+		DownloadCache cache = new DownloadCache(this.folder.newFolder("cache"), 0);
+		DownloadingUrlResource resource = resource("/app.jar", cache);
+		resource.setExpectedSha256(HELLO_SHA256);
+		assertTrue(resource.getFile().exists());
+
+		DownloadingUrlResource other = resource("/other.jar", cache);
+		other.setExpectedSha256(HELLO_SHA256.replace('2', '3'));
+		try {
+			other.getFile();
+			fail("Expected the checksum verification to fail");
+		}
+		catch (IOException e) {
+			assertTrue(e.getMessage().contains("SHA-256"));
+		}
+	}
+
+	@Test
+	public void leastRecentlyUsedFilesAreEvicted() throws Exception {
+		DownloadCache cache = new DownloadCache(this.folder.newFolder("cache"), 10);
+		File first = resource("/first.jar", cache).getFile();
+		first.setLastModified(System.currentTimeMillis() - 60000);
+		File second = resource("/second.jar", cache).getFile();
+		second.setLastModified(System.currentTimeMillis() - 30000);
+		File third = resource("/third.jar", cache).getFile();
+		assertFalse(first.exists());
+		assertTrue(second.exists());
+		assertTrue(third.exists());
+	}
+
+	@Test
+	public void evictedFileIsDownloadedAgain() throws Exception {
+		DownloadCache cache = new DownloadCache(this.folder.newFolder("cache"), 10);
+		DownloadingUrlResource resource = resource("/first.jar", cache);
+		File first = resource.getFile();
+		first.setLastModified(System.currentTimeMillis() - 60000);
+		resource("/second.jar", cache).getFile();
+		resource("/third.jar", cache).getFile();
+		assertFalse(first.exists());
+
+		assertEquals(first, resource.getFile());
+		assertEquals("hello", new String(Files.readAllBytes(first.toPath()), StandardCharsets.UTF_8));
+		assertEquals(4, this.downloads.get());
+	}
+
+	@Test
+	public void corruptedCachedFileIsDownloadedAgain() throws Exception {
+		DownloadCache cache = new DownloadCache(this.folder.newFolder("cache"), 0);
+		DownloadingUrlResource resource = resource("/app.jar", cache);
+		resource.setExpectedSha256(HELLO_SHA256);
+		File file = resource.getFile();
+		Files.write(file.toPath(), "jello".getBytes(StandardCharsets.UTF_8));
+
+		DownloadingUrlResource other = resource("/app.jar", cache);
+		other.setExpectedSha256(HELLO_SHA256);
+		assertEquals("hello", new String(Files.readAllBytes(other.getFile().toPath()), StandardCharsets.UTF_8));
+		assertEquals(2, this.downloads.get());
+	}
+
+	@Test
+	public void failedChecksumDoesNotReplaceCachedFile() throws Exception {
+		DownloadCache cache = new DownloadCache(this.folder.newFolder("cache"), 0);
+		File file = resource("/app.jar", cache).getFile();
+		this.content = "changed";
+		DownloadingUrlResource resource = resource("/app.jar", cache);
+		resource.setExpectedSha256(HELLO_SHA256);
+		try {
+			resource.getFile();
+			fail("Expected the checksum verification to fail");
+		}
+		catch (IOException e) {
+			assertTrue(e.getMessage().contains("SHA-256"));
+		}
+		assertEquals("hello", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+		assertFalse(new File(file.getParentFile(), file.getName() + ".part").exists());
+	}
+
+	@Test
+	public void locksAreRemovedOnceUnused() throws Exception {
+		DownloadCache cache = new DownloadCache(this.folder.newFolder("cache"), 10);
+		for (int i = 0; i < 5; i++) {
+			resource("/app" + i + ".jar", cache).getFile();
+		}
+		assertEquals(0, cache.lockCount());
+	}
+
+	private DownloadingUrlResource resource(String path, DownloadCache cache) throws IOException {
+		return new DownloadingUrlResource("http://localhost:" + this.server.getAddress().getPort() + path,
+				new HttpDownloader(), cache);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		byte[] body = this.content.getBytes(StandardCharsets.UTF_8);
+		String etag = "\"" + this.content.hashCode() + "\"";
+		exchange.getResponseHeaders().add("ETag", etag);
+		if ("HEAD".equals(exchange.getRequestMethod())) {
+			if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				exchange.sendResponseHeaders(304, -1);
+			}
+			else {
+				exchange.getResponseHeaders().add("Content-Length", String.valueOf(body.length));
+				exchange.sendResponseHeaders(200, -1);
+			}
+			exchange.close();
+			return;
+		}
+		this.downloads.incrementAndGet();
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
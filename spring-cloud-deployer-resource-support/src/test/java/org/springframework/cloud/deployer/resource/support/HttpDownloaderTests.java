@@ -0,0 +1,257 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.resource.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link HttpDownloader}.
+ */
+public class HttpDownloaderTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final byte[] content = new byte[1024 * 1024];
+
+	private final List<String> ranges = new CopyOnWriteArrayList<>();
+
+	private final List<String> ifRanges = new CopyOnWriteArrayList<>();
+
+	private volatile String etag = "\"v1\"";
+
+	private volatile int dropAfter = -1;
+
+	private HttpServer server;
+
+	@Before
+	public void setup() throws IOException {
+		new Random(42).nextBytes(this.content);
+		this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		this.server.createContext("/app.jar", this::handle);
+		this.server.start();
+	}
+
+	@After
+	public void teardown() {
+		this.server.stop(0);
+	}
+
+	@Test
+	public void downloadInSingleRequest() throws Exception {
+		File target = new File(this.folder.getRoot(), "app.jar");
+		new HttpDownloader().download(url(), target);
+		assertArrayEquals(this.content, Files.readAllBytes(target.toPath()));
+		assertTrue(this.ranges.isEmpty());
+		assertFalse(new File(this.folder.getRoot(), "app.jar.part").exists());
+	}
+
+	@Test
+	public void downloadInParallelChunks() throws Exception {
+		File target = new File(this.folder.getRoot(), "app.jar");
+		AtomicLong progress = new AtomicLong();
+		HttpDownloader downloader = new HttpDownloader();
+		downloader.setParallelism(4);
+		downloader.setParallelThreshold(1024);
+		downloader.setProgressListener((url, downloaded, total) -> {
+			assertEquals(this.content.length, total);
+			progress.accumulateAndGet(downloaded, Math::max);
+		});
+		downloader.download(url(), target);
+		assertArrayEquals(this.content, Files.readAllBytes(target.toPath()));
+		assertEquals(4, this.ranges.size());
+		assertEquals(this.content.length, progress.get());
+	}
+
+	@Test
+	public void downloadWithoutValidatorInSingleRequest() throws Exception {
+		File target = new File(this.folder.getRoot(), "app.jar");
+		this.etag = null;
+		HttpDownloader downloader = new HttpDownloader();
+		downloader.setParallelism(4);
+		downloader.setParallelThreshold(1024);
+		downloader.download(url(), target);
+		assertArrayEquals(this.content, Files.readAllBytes(target.toPath()));
+		assertTrue(this.ranges.isEmpty());
+	}
+
+	@Test
+	public void resumePartialDownload() throws Exception {
+		File target = new File(this.folder.getRoot(), "app.jar");
+		File part = new File(this.folder.getRoot(), "app.jar.part");
+		int half = this.content.length / 2;
+		Files.write(part.toPath(), Arrays.copyOf(this.content, half));
+		Files.write(validator().toPath(), "\"v1\"".getBytes(StandardCharsets.UTF_8));
+		new HttpDownloader().download(url(), target);
+		assertArrayEquals(this.content, Files.readAllBytes(target.toPath()));
+		assertEquals(Collections.singletonList("bytes=" + half + "-"), this.ranges);
+		assertEquals(Collections.singletonList("\"v1\""), this.ifRanges);
+		assertFalse(part.exists());
+		assertFalse(validator().exists());
+	}
+
+	@Test
+	public void resumeAfterConnectionDroppedMidTransfer() throws Exception {
+		File target = new File(this.folder.getRoot(), "app.jar");
+		int dropped = this.content.length / 3;
+		this.dropAfter = dropped;
+		new HttpDownloader().download(url(), target);
+		assertArrayEquals(this.content, Files.readAllBytes(target.toPath()));
+		assertEquals(Collections.singletonList("bytes=" + dropped + "-"), this.ranges);
+		assertEquals(Collections.singletonList("\"v1\""), this.ifRanges);
+		assertFalse(validator().exists());
+	}
+
+	@Test
+	public void changedResourceIsDownloadedAgain() throws Exception {
+		File target = new File(this.folder.getRoot(), "app.jar");
+		File part = new File(this.folder.getRoot(), "app.jar.part");
+		Files.write(part.toPath(), new byte[this.content.length / 2]);
+		Files.write(validator().toPath(), "\"v0\"".getBytes(StandardCharsets.UTF_8));
+		new HttpDownloader().download(url(), target);
+		assertArrayEquals(this.content, Files.readAllBytes(target.toPath()));
+		assertEquals(Collections.singletonList("\"v0\""), this.ifRanges);
+	}
+
+	@Test
+	public void partWithoutValidatorIsNotResumed() throws Exception {
+		File target = new File(this.folder.getRoot(), "app.jar");
+		File part = new File(this.folder.getRoot(), "app.jar.part");
+		Files.write(part.toPath(), new byte[this.content.length / 2]);
+		new HttpDownloader().download(url(), target);
+		assertArrayEquals(this.content, Files.readAllBytes(target.toPath()));
+		assertTrue(this.ranges.isEmpty());
+	}
+
+	@Test
+	public void unsatisfiableRangeRestartsDownload() throws Exception {
+		File target = new File(this.folder.getRoot(), "app.jar");
+		File part = new File(this.folder.getRoot(), "app.jar.part");
+		Files.write(part.toPath(), new byte[this.content.length + 10]);
+		Files.write(validator().toPath(), "\"v1\"".getBytes(StandardCharsets.UTF_8));
+		new HttpDownloader().download(url(), target);
+		assertArrayEquals(this.content, Files.readAllBytes(target.toPath()));
+		assertEquals(Collections.singletonList("bytes=" + (this.content.length + 10) + "-"), this.ranges);
+	}
+
+	@Test
+	public void failedChunkedDownloadIsNotLeftForResuming() throws Exception {
+		File target = new File(this.folder.getRoot(), "app.jar");
+		HttpDownloader downloader = new HttpDownloader();
+		downloader.setParallelism(4);
+		downloader.setParallelThreshold(1024);
+		downloader.setRetries(0);
+		this.dropAfter = 1024;
+		try {
+			downloader.download(url(), target);
+			fail("Expected the download to fail");
+		}
+		catch (IOException e) {
+			// expected
+		}
+		assertFalse(new File(this.folder.getRoot(), "app.jar.part").exists());
+		assertFalse(target.exists());
+	}
+
+	private File validator() {
+		return new File(this.folder.getRoot(), "app.jar.validator.part");
+	}
+
+	private URL url() throws IOException {
+		return new URL("http://localhost:" + this.server.getAddress().getPort() + "/app.jar");
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+		if (this.etag != null) {
+			exchange.getResponseHeaders().add("ETag", this.etag);
+		}
+		if ("HEAD".equals(exchange.getRequestMethod())) {
+			exchange.getResponseHeaders().add("Content-Length", String.valueOf(this.content.length));
+			exchange.sendResponseHeaders(200, -1);
+			exchange.close();
+			return;
+		}
+		String range = exchange.getRequestHeaders().getFirst("Range");
+		String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+		if (ifRange != null) {
+			this.ifRanges.add(ifRange);
+		}
+		int from = 0;
+		int to = this.content.length - 1;
+		int status = 200;
+		if (range != null) {
+			this.ranges.add(range);
+		}
+		if (range != null && (ifRange == null || ifRange.equals(this.etag))) {
+			String[] bounds = range.substring("bytes=".length()).split("-", -1);
+			from = Integer.parseInt(bounds[0]);
+			if (!bounds[1].isEmpty()) {
+				to = Integer.parseInt(bounds[1]);
+			}
+			if (from >= this.content.length) {
+				exchange.getResponseHeaders().add("Content-Range", "bytes */" + this.content.length);
+				exchange.sendResponseHeaders(416, -1);
+				exchange.close();
+				return;
+			}
+			status = 206;
+			exchange.getResponseHeaders().add("Content-Range",
+					"bytes " + from + "-" + to + "/" + this.content.length);
+		}
+		exchange.sendResponseHeaders(status, to - from + 1);
+		int length = to - from + 1;
+		int drop = this.dropAfter;
+		if (drop >= 0 && drop < length) {
+			// send part of the body only, then drop the connection
+			this.dropAfter = -1;
+			exchange.getResponseBody().write(this.content, from, drop);
+			exchange.getResponseBody().flush();
+			exchange.close();
+			return;
+		}
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(this.content, from, length);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.scheduler.test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cloud.deployer.spi.core.AppDeploymentRequest;
+import org.springframework.cloud.deployer.spi.core.RuntimeEnvironmentInfo;
+import org.springframework.cloud.deployer.spi.scheduler.Scheduler;
+import org.springframework.cloud.deployer.spi.scheduler.SchedulerPropertyKeys;
+import org.springframework.cloud.deployer.spi.scheduler.local.LocalScheduler;
+import org.springframework.cloud.deployer.spi.task.TaskLauncher;
+import org.springframework.cloud.deployer.spi.task.TaskStatus;
+
+/**
+ * Runs the {@link AbstractSchedulerIntegrationTests} against the {@link LocalScheduler}.
+ * The schedules fire hourly, so the tests do not depend on launches.
+ */
+public class LocalSchedulerIntegrationTests extends AbstractSchedulerIntegrationTests {
+
+	@Override
+	protected Scheduler provideScheduler() {
+		return new LocalScheduler(new NoOpTaskLauncher());
+	}
+
+	@Override
+	protected List<String> getCommandLineArgs() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	@SuppressWarnings("deprecation")
+	protected Map<String, String> getSchedulerProperties() {
+		return Collections.emptyMap();
+	}
+
+	@Override
+	protected Map<String, String> getDeploymentProperties() {
+		return Collections.singletonMap(SchedulerPropertyKeys.CRON_EXPRESSION, "0 0 * * * *");
+	}
+
+	@Override
+	protected Map<String, String> getAppProperties() {
+		return Collections.emptyMap();
+	}
+
+	private static class NoOpTaskLauncher implements TaskLauncher {
+
+		@Override
+		public String launch(AppDeploymentRequest request) {
+			return request.getDefinition().getName();
+		}
+
+		@Override
+		public void cancel(String id) {
+		}
+
+		@Override
+		public TaskStatus status(String id) {
+			return null;
+		}
+
+		@Override
+		public void cleanup(String id) {
+		}
+
+		@Override
+		public void destroy(String appName) {
+		}
+
+		@Override
+		public RuntimeEnvironmentInfo environmentInfo() {
+			return null;
+		}
+	}
+}
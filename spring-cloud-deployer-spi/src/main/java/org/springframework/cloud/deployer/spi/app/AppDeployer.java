@@ -16,11 +16,19 @@
 
 package org.springframework.cloud.deployer.spi.app;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import org.springframework.cloud.deployer.spi.core.AppDeploymentRequest;
+import org.springframework.cloud.deployer.spi.core.OperationResult;
 import org.springframework.cloud.deployer.spi.core.RuntimeEnvironmentInfo;
+import org.springframework.cloud.deployer.spi.util.BatchOperationSupport;
+import org.springframework.cloud.deployer.spi.util.StatusWatchSupport;
 
 /**
  * SPI defining a runtime environment capable of deploying and managing the
@@ -134,6 +142,65 @@ public interface AppDeployer {
 	 */
 	void undeploy(String id);
 
+	/**
+	 * Deploy several apps, e.g. all apps of a stream. All requests are attempted even if
+	 * some of them fail, so the ids of the successful deployments are available to undeploy
+	 * them again.
+	 * <p>
+	 * The default implementation collects {@link #deployAllReactive(List)}.
+	 *
+	 * @param requests the app deployment requests
+	 * @return the result of each request, in the order of the requests; the value of a
+	 * successful result is the deployment id
+	 */
+	default List<OperationResult<AppDeploymentRequest, String>> deployAll(List<AppDeploymentRequest> requests) {
+		return deployAllReactive(requests).collectList().block();
+	}
+
+	/**
+	 * Deploy several apps, e.g. all apps of a stream, reporting the outcome of each
+	 * request. The value of a successful result is the deployment id.
+	 * <p>
+	 * The default implementation calls {@link #deploy(AppDeploymentRequest)} for a
+	 * bounded number of requests concurrently, see {@link BatchOperationSupport}.
+	 * Platforms with a bulk deployment API should override it.
+	 *
+	 * @param requests the app deployment requests
+	 * @return the result of each request, in the order of the requests
+	 */
+	default Flux<OperationResult<AppDeploymentRequest, String>> deployAllReactive(List<AppDeploymentRequest> requests) {
+		return BatchOperationSupport.execute(requests, this::deploy);
+	}
+
+	/**
+	 * Un-deploy several apps. All ids are attempted even if some of them fail.
+	 * <p>
+	 * The default implementation collects {@link #undeployAllReactive(Collection)}.
+	 *
+	 * @param ids the app deployment ids, as returned by {@link #deploy}
+	 * @return the result of each id, in the order of the ids
+	 */
+	default List<OperationResult<String, Void>> undeployAll(Collection<String> ids) {
+		return undeployAllReactive(ids).collectList().block();
+	}
+
+	/**
+	 * Un-deploy several apps, reporting the outcome of each id.
+	 * <p>
+	 * The default implementation calls {@link #undeploy(String)} for a bounded number of
+	 * ids concurrently, see {@link BatchOperationSupport}. Platforms with a bulk
+	 * un-deployment API should override it.
+	 *
+	 * @param ids the app deployment ids, as returned by {@link #deploy}
+	 * @return the result of each id, in the order of the ids
+	 */
+	default Flux<OperationResult<String, Void>> undeployAllReactive(Collection<String> ids) {
+		return BatchOperationSupport.execute(ids, id -> {
+			undeploy(id);
+			return null;
+		});
+	}
+
 	/**
 	 * Return the {@link AppStatus} for an app represented by a deployment id.
 	 *
@@ -154,12 +221,37 @@ public interface AppDeployer {
 
 	/**
 	 * Return the {@link AppStatus}s for an app represented by a deployment ids.
+	 * The default implementation calls {@link #status(String)} for a bounded number of
+	 * ids concurrently, see {@link BatchOperationSupport}, and fails with the first
+	 * failed lookup. Callers polling many apps repeatedly can share an
+	 * {@link AppStatusAggregator} to coalesce and cache the lookups.
 	 *
 	 * @param id the app deployment ids, as returned by {@link #deploy}
-	 * @return the app deployment statuses
+	 * @return the app deployment statuses, in the order of the ids
 	 */
 	default Flux<AppStatus> statusesReactive(String... ids) {
-		return Flux.fromArray(ids).flatMap(id -> statusReactive(id));
+		return BatchOperationSupport.execute(Arrays.asList(ids), this::status)
+				.concatMap(result -> result.isSuccess()
+						? Mono.justOrEmpty(result.getValue()) : Mono.<AppStatus>error(result.getError()));
+	}
+
+	/**
+	 * Watch the {@link DeploymentState} of apps. An event is emitted when an app is first
+	 * observed and whenever its state changes; the returned {@link Flux} keeps watching
+	 * until it is cancelled.
+	 * <p>
+	 * The default implementation polls {@link #statusReactive(String)} on the
+	 * {@link Schedulers#boundedElastic() bounded elastic} scheduler with an adaptive
+	 * interval, see {@link StatusWatchSupport}. Platforms able to watch for changes
+	 * natively should override it.
+	 *
+	 * @param ids the app deployment ids, as returned by {@link #deploy}
+	 * @return the state changes of the apps
+	 */
+	default Flux<AppStatusEvent> watch(String... ids) {
+		return StatusWatchSupport.watch(ids,
+				id -> statusReactive(id).subscribeOn(Schedulers.boundedElastic()),
+				AppStatus::getState, AppStatusEvent::new);
 	}
 
 	/**
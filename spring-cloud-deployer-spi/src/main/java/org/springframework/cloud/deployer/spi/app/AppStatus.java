@@ -18,8 +18,8 @@ package org.springframework.cloud.deployer.spi.app;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -50,12 +50,19 @@ public class AppStatus {
 
 	/**
 	 * Map of {@link AppInstanceStatus} keyed by a unique identifier
-	 * for each app deployment instance.
+	 * for each app deployment instance, only allocated by the builder if
+	 * there are instances.
 	 */
-	private final Map<String, AppInstanceStatus> instances = new HashMap<String, AppInstanceStatus>();
+	private final Map<String, AppInstanceStatus> instances;
 
 	private final DeploymentState generalState;
 
+	/**
+	 * The aggregate state derived from the instances, computed on first use since the
+	 * instances do not change once built.
+	 */
+	private volatile DeploymentState derivedState;
+
 	/**
 	 * Construct a new {@code AppStatus}.
 	 *
@@ -63,8 +70,13 @@ public class AppStatus {
 	 * @param generalState a value for general state of the app, or {@literal null} if this should be derived from instances
 	 */
 	protected AppStatus(String deploymentId, DeploymentState generalState) {
+		this(deploymentId, generalState, Collections.emptyMap());
+	}
+
+	private AppStatus(String deploymentId, DeploymentState generalState, Map<String, AppInstanceStatus> instances) {
 		this.deploymentId = deploymentId;
 		this.generalState = generalState;
+		this.instances = instances;
 	}
 
 	/**
@@ -87,10 +99,27 @@ public class AppStatus {
 		if (generalState != null) {
 			return generalState;
 		}
-		Set<DeploymentState> states = new HashSet<>();
-		for (Map.Entry<String, AppInstanceStatus> entry : instances.entrySet()) {
-			states.add(entry.getValue().getState());
+		DeploymentState state = this.derivedState;
+		if (state == null) {
+			state = deriveState();
+			this.derivedState = state;
+		}
+		return state;
+	}
+
+	private DeploymentState deriveState() {
+		Set<DeploymentState> states = EnumSet.noneOf(DeploymentState.class);
+		for (AppInstanceStatus instance : instances.values()) {
+			DeploymentState state = instance.getState();
+			states.add(state != null ? state : DeploymentState.unknown);
 		}
+		return aggregate(states);
+	}
+
+	/**
+	 * Return the state of an app whose instances are in the given states.
+	 */
+	static DeploymentState aggregate(Set<DeploymentState> states) {
 		if (states.size() == 0) {
 			return DeploymentState.unknown;
 		}
@@ -127,10 +156,6 @@ public class AppStatus {
 		return Collections.unmodifiableMap(this.instances);
 	}
 
-	private void addInstance(String id, AppInstanceStatus status) {
-		this.instances.put(id, status);
-	}
-
 	/**
 	 * Return a {@code Builder} for {@code AppStatus}.
 	 * @param id of the app this status is for
@@ -193,11 +218,14 @@ public class AppStatus {
 		 * @return new instance of {@code AppStatus}
 		 */
 		public AppStatus build() {
-			AppStatus status = new AppStatus(id, generalState);
+			if (statuses.isEmpty()) {
+				return new AppStatus(id, generalState);
+			}
+			Map<String, AppInstanceStatus> instances = new HashMap<String, AppInstanceStatus>();
 			for (AppInstanceStatus instanceStatus : statuses) {
-				status.addInstance(instanceStatus.getId(), instanceStatus);
+				instances.put(instanceStatus.getId(), instanceStatus);
 			}
-			return status;
+			return new AppStatus(id, generalState, instances);
 		}
 	}
 }
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.app;
+
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadFactory;
+
+/**
+ * Aggregates {@link AppStatus} lookups of an {@link AppDeployer} for callers polling the
+ * status of many apps.
+ * <p>
+ * Lookups run on a dedicated {@link Scheduler} with at most
+ * {@link #setConcurrency(int) concurrency} of them in flight per
+ * {@link #statuses(String...)} call, so a blocking {@link AppDeployer#status(String)}
+ * never runs on the caller's thread. Concurrent lookups of the same deployment id share
+ * a single call to the deployer, and with a {@link #setCacheTtl(Duration) cache TTL}
+ * a status is reused for that long. A lookup not completing within the
+ * {@link #setTimeout(Duration) timeout} fails, so a hanging platform call does not hold
+ * up later lookups of the same id.
+ * <p>
+ * The aggregator is opt-in: the default reactive status methods of {@link AppDeployer}
+ * keep no state and do not use one. Create an aggregator per deployer and share it
+ * between the callers polling that deployer.
+ */
+public class AppStatusAggregator {
+
+	private static final int DEFAULT_CONCURRENCY = 16;
+
+	private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+	private final AppDeployer deployer;
+
+	private final ConcurrentMap<String, CompletableFuture<AppStatus>> inFlight = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, CachedStatus> cache = new ConcurrentHashMap<>();
+
+	private final AtomicLong cacheHitCount = new AtomicLong();
+
+	private final AtomicLong coalescedCount = new AtomicLong();
+
+	private volatile int concurrency = DEFAULT_CONCURRENCY;
+
+	private volatile long cacheTtl;
+
+	private volatile Duration timeout = DEFAULT_TIMEOUT;
+
+	private volatile Scheduler scheduler;
+
+	/**
+	 * Create a new aggregator for the deployer.
+	 *
+	 * @param deployer the app deployer queried for statuses
+	 */
+	public AppStatusAggregator(AppDeployer deployer) {
+		Assert.notNull(deployer, "deployer must not be null");
+		this.deployer = deployer;
+	}
+
+	/**
+	 * Set the maximum number of status lookups in flight for one
+	 * {@link #statuses(String...)} call.
+	 *
+	 * @param concurrency the concurrency limit
+	 */
+	public void setConcurrency(int concurrency) {
+		Assert.isTrue(concurrency > 0, "concurrency must be positive");
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Set how long a status is reused for the same deployment id. Defaults to zero,
+	 * which disables caching.
+	 *
+	 * @param cacheTtl the time to live of a cached status
+	 */
+	public void setCacheTtl(Duration cacheTtl) {
+		Assert.notNull(cacheTtl, "cacheTtl must not be null");
+		this.cacheTtl = cacheTtl.toMillis();
+		if (this.cacheTtl <= 0) {
+			this.cache.clear();
+		}
+	}
+
+	/**
+	 * Set how long a lookup may take before it fails with a
+	 * {@link java.util.concurrent.TimeoutException}. Defaults to 30 seconds.
+	 *
+	 * @param timeout the lookup timeout
+	 */
+	public void setTimeout(Duration timeout) {
+		Assert.isTrue(timeout != null && !timeout.isNegative() && !timeout.isZero(), "timeout must be positive");
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Set the scheduler status lookups run on. By default a dedicated daemon thread pool
+	 * sized to the concurrency limit is created on first use.
+	 *
+	 * @param scheduler the scheduler
+	 */
+	public void setScheduler(Scheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Return the status of a deployment.
+	 *
+	 * @param id the app deployment id
+	 * @return the app deployment status
+	 */
+	public Mono<AppStatus> status(String id) {
+		return Mono.defer(() -> {
+			long ttl = this.cacheTtl;
+			if (ttl > 0) {
+				CachedStatus cached = this.cache.get(id);
+				if (cached != null && cached.expires > System.currentTimeMillis()) {
+					this.cacheHitCount.incrementAndGet();
+					return Mono.just(cached.status);
+				}
+			}
+			CompletableFuture<AppStatus> future = new CompletableFuture<>();
+			CompletableFuture<AppStatus> existing = this.inFlight.putIfAbsent(id, future);
+			if (existing != null) {
+				this.coalescedCount.incrementAndGet();
+				future = existing;
+			}
+			else {
+				CompletableFuture<AppStatus> leader = future;
+				Mono.defer(() -> this.deployer.statusReactive(id))
+						.subscribeOn(scheduler())
+						.timeout(this.timeout)
+						.subscribe(status -> {
+							if (ttl > 0) {
+								this.cache.put(id, new CachedStatus(status, System.currentTimeMillis() + ttl));
+							}
+							this.inFlight.remove(id, leader);
+							leader.complete(status);
+						}, error -> {
+							// also after a timeout, so the next lookup of the id asks the deployer again
+							this.inFlight.remove(id, leader);
+							leader.completeExceptionally(error);
+						}, () -> {
+							this.inFlight.remove(id, leader);
+							leader.complete(null);
+						});
+			}
+			// a dependent stage, so a cancelled subscriber does not cancel the shared lookup
+			return Mono.fromFuture(future.thenApply(status -> status));
+		});
+	}
+
+	/**
+	 * Return the statuses of several deployments, looking up at most the configured
+	 * number of them concurrently.
+	 *
+	 * @param ids the app deployment ids
+	 * @return the app deployment statuses
+	 */
+	public Flux<AppStatus> statuses(String... ids) {
+		return Flux.fromArray(ids).flatMap(this::status, this.concurrency);
+	}
+
+	/**
+	 * Return the states of several deployments, looking up at most the configured
+	 * number of them concurrently.
+	 *
+	 * @param ids the app deployment ids
+	 * @return map of app deployment id to state, without the ids the deployer returned
+	 * no status for
+	 */
+	public Mono<Map<String, DeploymentState>> states(String... ids) {
+		return Flux.fromArray(ids)
+				.flatMap(id -> status(id).map(status -> new AbstractMap.SimpleImmutableEntry<>(id, status.getState())),
+						this.concurrency)
+				.collectMap(Map.Entry::getKey, Map.Entry::getValue);
+	}
+
+	/**
+	 * Remove all cached statuses.
+	 */
+	public void clearCache() {
+		this.cache.clear();
+	}
+
+	/**
+	 * Return the number of lookups served from the cache.
+	 *
+	 * @return the cache hit count
+	 */
+	public long getCacheHitCount() {
+		return this.cacheHitCount.get();
+	}
+
+	/**
+	 * Return the number of lookups which joined a lookup of the same deployment id
+	 * already in flight.
+	 *
+	 * @return the coalesced lookup count
+	 */
+	public long getCoalescedCount() {
+		return this.coalescedCount.get();
+	}
+
+	private Scheduler scheduler() {
+		Scheduler scheduler = this.scheduler;
+		if (scheduler == null) {
+			synchronized (this) {
+				scheduler = this.scheduler;
+				if (scheduler == null) {
+					CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("app-status-");
+					threadFactory.setDaemon(true);
+					ThreadPoolExecutor executor = new ThreadPoolExecutor(this.concurrency, this.concurrency,
+							60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+					executor.allowCoreThreadTimeOut(true);
+					scheduler = Schedulers.fromExecutorService(executor);
+					this.scheduler = scheduler;
+				}
+			}
+		}
+		return scheduler;
+	}
+
+	private static final class CachedStatus {
+
+		private final AppStatus status;
+
+		private final long expires;
+
+		CachedStatus(AppStatus status, long expires) {
+			this.status = status;
+			this.expires = expires;
+		}
+	}
+}
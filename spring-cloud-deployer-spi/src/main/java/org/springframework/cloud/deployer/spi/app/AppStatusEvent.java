@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.app;
+
+/**
+ * Change of the {@link DeploymentState} of an app, emitted by
+ * {@link AppDeployer#watch(String...)}.
+ */
+public class AppStatusEvent {
+
+	private final String deploymentId;
+
+	private final DeploymentState previousState;
+
+	private final AppStatus status;
+
+	private final long timestamp;
+
+	/**
+	 * Construct a new {@code AppStatusEvent}.
+	 *
+	 * @param deploymentId the app deployment id
+	 * @param previousState the previously observed state, or {@literal null} if the app was not observed before
+	 * @param status the current status of the app
+	 */
+	public AppStatusEvent(String deploymentId, DeploymentState previousState, AppStatus status) {
+		this.deploymentId = deploymentId;
+		this.previousState = previousState;
+		this.status = status;
+		this.timestamp = System.currentTimeMillis();
+	}
+
+	/**
+	 * Return the app deployment id.
+	 *
+	 * @return app deployment id
+	 */
+	public String getDeploymentId() {
+		return this.deploymentId;
+	}
+
+	/**
+	 * Return the previously observed state.
+	 *
+	 * @return the previous state, or {@literal null} if the app was not observed before
+	 */
+	public DeploymentState getPreviousState() {
+		return this.previousState;
+	}
+
+	/**
+	 * Return the current state.
+	 *
+	 * @return the current state
+	 */
+	public DeploymentState getState() {
+		return this.status.getState();
+	}
+
+	/**
+	 * Return the current status of the app.
+	 *
+	 * @return the app status
+	 */
+	public AppStatus getStatus() {
+		return this.status;
+	}
+
+	/**
+	 * Return the time the change was observed, in milliseconds since the epoch.
+	 *
+	 * @return the timestamp
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	@Override
+	public String toString() {
+		return "AppStatusEvent{deploymentId='" + this.deploymentId + "', previousState=" + this.previousState
+				+ ", state=" + getState() + "}";
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.app;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable map view over a sorted key array and a value array of the same length.
+ * Lookups are binary searches; no entries are allocated until the map is iterated.
+ */
+final class ArrayMap<V> extends AbstractMap<String, V> {
+
+	private final String[] keys;
+
+	private final Object[] values;
+
+	/**
+	 * @param keys the keys in {@link String#compareTo natural order}, without duplicates
+	 * @param values the value of each key
+	 */
+	ArrayMap(String[] keys, Object[] values) {
+		this.keys = keys;
+		this.values = values;
+	}
+
+	@Override
+	public int size() {
+		return this.keys.length;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		int index = indexOf(key);
+		return index >= 0 ? (V) this.values[index] : null;
+	}
+
+	@Override
+	public Set<Entry<String, V>> entrySet() {
+		return new AbstractSet<Entry<String, V>>() {
+
+			@Override
+			public int size() {
+				return keys.length;
+			}
+
+			@Override
+			public Iterator<Entry<String, V>> iterator() {
+				return new Iterator<Entry<String, V>>() {
+
+					private int index;
+
+					@Override
+					public boolean hasNext() {
+						return this.index < keys.length;
+					}
+
+					@Override
+					@SuppressWarnings("unchecked")
+					public Entry<String, V> next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						int i = this.index++;
+						return new SimpleImmutableEntry<>(keys[i], (V) values[i]);
+					}
+				};
+			}
+		};
+	}
+
+	private int indexOf(Object key) {
+		return key instanceof String ? Arrays.binarySearch(this.keys, key) : -1;
+	}
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.util.Assert;
+
+/**
+ * Immutable {@link AppStatus} for deployers reporting the status of many apps and
+ * instances frequently.
+ * <p>
+ * The instances and their attributes are kept in arrays and exposed through read-only
+ * map views created once, so {@link #getInstances()} and
+ * {@link AppInstanceStatus#getAttributes()} do not allocate. Instances reporting the same
+ * set of attribute keys, which is the common case for a platform, share one key array
+ * from a dictionary of at most {@link #setMaxKeyDictionaries(int) a configurable number}
+ * of key sets. The aggregate state is computed when the status is built.
+ *
+ * @see CompactAppStatus.Builder
+ */
+public final class CompactAppStatus extends AppStatus {
+
+	/**
+	 * The number of distinct attribute key sets shared unless
+	 * {@link #setMaxKeyDictionaries(int) configured} otherwise.
+	 */
+	public static final int DEFAULT_MAX_KEY_DICTIONARIES = 1024;
+
+	private static final ConcurrentMap<List<String>, String[]> keyDictionaries = new ConcurrentHashMap<>();
+
+	private static volatile int maxKeyDictionaries = DEFAULT_MAX_KEY_DICTIONARIES;
+
+	private static final String[] NO_KEYS = new String[0];
+
+	private final DeploymentState state;
+
+	private final Map<String, AppInstanceStatus> instances;
+
+	private CompactAppStatus(String deploymentId, DeploymentState generalState, String[] ids,
+			AppInstanceStatus[] instances) {
+		super(deploymentId, generalState);
+		this.instances = ids.length == 0 ? Collections.emptyMap() : new ArrayMap<>(ids, instances);
+		if (generalState != null) {
+			this.state = generalState;
+		}
+		else {
+			Set<DeploymentState> states = EnumSet.noneOf(DeploymentState.class);
+			for (AppInstanceStatus instance : instances) {
+				states.add(instance.getState() != null ? instance.getState() : DeploymentState.unknown);
+			}
+			this.state = aggregate(states);
+		}
+	}
+
+	@Override
+	public DeploymentState getState() {
+		return this.state;
+	}
+
+	@Override
+	public Map<String, AppInstanceStatus> getInstances() {
+		return this.instances;
+	}
+
+	/**
+	 * Return a {@code Builder} for {@code CompactAppStatus}.
+	 *
+	 * @param id of the app this status is for
+	 * @return {@code Builder} for {@code CompactAppStatus}
+	 */
+	public static Builder builder(String id) {
+		return new Builder(id);
+	}
+
+	/**
+	 * Return a compact copy of a status.
+	 *
+	 * @param status the status to copy
+	 * @return the compact status, or the given status if it is compact already
+	 */
+	public static CompactAppStatus copyOf(AppStatus status) {
+		if (status instanceof CompactAppStatus) {
+			return (CompactAppStatus) status;
+		}
+		Builder builder = builder(status.getDeploymentId());
+		if (status.getInstances().isEmpty()) {
+			builder.generalState(status.getState());
+		}
+		for (AppInstanceStatus instance : status.getInstances().values()) {
+			builder.with(instance);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Set the maximum number of distinct attribute key sets shared between instances.
+	 * Key sets seen once the limit is reached are not shared. Zero disables sharing. A
+	 * limit below the current number of shared key sets clears them. Defaults to
+	 * {@link #DEFAULT_MAX_KEY_DICTIONARIES}.
+	 *
+	 * @param max the maximum number of shared key sets
+	 */
+	public static void setMaxKeyDictionaries(int max) {
+		Assert.isTrue(max >= 0, "max must not be negative");
+		maxKeyDictionaries = max;
+		if (keyDictionaries.size() > max) {
+			keyDictionaries.clear();
+		}
+	}
+
+	/**
+	 * Forget the shared attribute key sets, e.g. after the attributes reported by a
+	 * platform changed. Statuses built before keep their keys.
+	 */
+	public static void clearKeyDictionaries() {
+		keyDictionaries.clear();
+	}
+
+	static int keyDictionaryCount() {
+		return keyDictionaries.size();
+	}
+
+	/**
+	 * Return the shared key array for the sorted keys, registering it if there is room.
+	 */
+	private static String[] keyDictionary(String[] keys) {
+		if (keys.length == 0) {
+			return NO_KEYS;
+		}
+		List<String> key = Arrays.asList(keys);
+		String[] shared = keyDictionaries.get(key);
+		if (shared == null && keyDictionaries.size() < maxKeyDictionaries) {
+			shared = keyDictionaries.putIfAbsent(key, keys);
+		}
+		return shared != null ? shared : keys;
+	}
+
+	/**
+	 * Utility class constructing an instance of {@link CompactAppStatus} using a builder
+	 * pattern.
+	 */
+	public static class Builder {
+
+		private final String id;
+
+		private DeploymentState generalState;
+
+		private final List<AppInstanceStatus> instances = new ArrayList<>();
+
+		private Builder(String id) {
+			this.id = id;
+		}
+
+		/**
+		 * Add an app instance. The state and attributes of the instance are copied.
+		 *
+		 * @param instance status of individual app deployment
+		 * @return this {@code Builder}
+		 */
+		public Builder with(AppInstanceStatus instance) {
+			return with(instance.getId(), instance.getState(), instance.getAttributes());
+		}
+
+		/**
+		 * Add an app instance.
+		 *
+		 * @param id the unique identifier of the app instance
+		 * @param state the state of the app instance
+		 * @param attributes the attributes of the app instance, may be {@literal null}
+		 * @return this {@code Builder}
+		 */
+		public Builder with(String id, DeploymentState state, Map<String, String> attributes) {
+			Assert.isNull(this.generalState, "Can't build an AppStatus from app instances if generalState has been set");
+			Assert.notNull(id, "id must not be null");
+			String[] keys = NO_KEYS;
+			String[] values = NO_KEYS;
+			if (attributes != null && !attributes.isEmpty()) {
+				keys = attributes.keySet().toArray(new String[0]);
+				Arrays.sort(keys);
+				values = new String[keys.length];
+				for (int i = 0; i < keys.length; i++) {
+					values[i] = attributes.get(keys[i]);
+				}
+				keys = keyDictionary(keys);
+			}
+			this.instances.add(new Instance(id, state, keys, values));
+			return this;
+		}
+
+		/**
+		 * Set the state of the app as a direct value. This is to be used when no
+		 * information about instances could be determined.
+		 *
+		 * @param generalState the deployment state to set
+		 * @return this {@code Builder}
+		 */
+		public Builder generalState(DeploymentState generalState) {
+			Assert.isTrue(this.instances.isEmpty(), "Can't build an AppStatus from general state if some instances have been added");
+			this.generalState = generalState;
+			return this;
+		}
+
+		/**
+		 * Return a new instance of {@code CompactAppStatus}. Of several instances with the
+		 * same id, the last one added is kept.
+		 *
+		 * @return new instance of {@code CompactAppStatus}
+		 */
+		public CompactAppStatus build() {
+			List<AppInstanceStatus> sorted = new ArrayList<>(this.instances);
+			// stable, so the last of several instances with the same id ends up last
+			sorted.sort(Comparator.comparing(AppInstanceStatus::getId));
+			List<String> ids = new ArrayList<>(sorted.size());
+			List<AppInstanceStatus> unique = new ArrayList<>(sorted.size());
+			for (AppInstanceStatus instance : sorted) {
+				int last = ids.size() - 1;
+				if (last >= 0 && ids.get(last).equals(instance.getId())) {
+					unique.set(last, instance);
+				}
+				else {
+					ids.add(instance.getId());
+					unique.add(instance);
+				}
+			}
+			return new CompactAppStatus(this.id, this.generalState, ids.toArray(new String[0]),
+					unique.toArray(new AppInstanceStatus[0]));
+		}
+	}
+
+	private static final class Instance implements AppInstanceStatus {
+
+		private final String id;
+
+		private final DeploymentState state;
+
+		private final Map<String, String> attributes;
+
+		Instance(String id, DeploymentState state, String[] keys, String[] values) {
+			this.id = id;
+			this.state = state;
+			this.attributes = keys.length == 0 ? Collections.emptyMap() : new ArrayMap<>(keys, values);
+		}
+
+		@Override
+		public String getId() {
+			return this.id;
+		}
+
+		@Override
+		public DeploymentState getState() {
+			return this.state;
+		}
+
+		@Override
+		public Map<String, String> getAttributes() {
+			return this.attributes;
+		}
+
+		@Override
+		public String toString() {
+			return this.id + "=" + this.state;
+		}
+	}
+}
@@ -15,9 +15,14 @@
  */
 package org.springframework.cloud.deployer.spi.app;
 
+import java.util.Arrays;
 import java.util.Map;
+import java.util.Objects;
 
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.cloud.deployer.spi.util.BatchOperationSupport;
 
 /**
  * Extension of the AppDeployer interface that adds an additional
@@ -28,20 +33,38 @@ public interface MultiStateAppDeployer extends AppDeployer {
 	/**
 	 * Return the {@link DeploymentState} for all the apps represented by
 	 * a collection of deployment ids.
+	 * <p>
+	 * The default implementation looks up the {@link #status(String) status} of a
+	 * bounded number of apps concurrently, see {@link BatchOperationSupport}. Platforms
+	 * able to query the state of many apps at once should override it.
 	 *
 	 * @param ids the collection of app deployment ids, as returned by {@link #deploy}
-	 * @return a Map of deployment id and DeploymentState
+	 * @return a Map of deployment id and DeploymentState, without the ids no status was
+	 * returned for
+	 * @throws IllegalStateException if the status of any app could not be looked up
 	 */
-	Map<String, DeploymentState> states(String ... ids);
+	default Map<String, DeploymentState> states(String ... ids) {
+		Map<String, DeploymentState> states = BatchOperationSupport.valuesByTarget(
+				BatchOperationSupport.execute(Arrays.asList(ids), id -> {
+					AppStatus status = status(id);
+					return status != null ? status.getState() : null;
+				}), "status");
+		states.values().removeIf(Objects::isNull);
+		return states;
+	}
 
 	/**
 	 * Return the {@link DeploymentState} for all the apps represented by
 	 * a collection of deployment ids.
+	 * <p>
+	 * The default implementation calls {@link #states(String...)} on the
+	 * {@link Schedulers#boundedElastic() bounded elastic} scheduler, so the caller's
+	 * thread is never blocked.
 	 *
 	 * @param ids the collection of app deployment ids, as returned by {@link #deploy}
 	 * @return a Map of deployment id and DeploymentState
 	 */
 	default Mono<Map<String, DeploymentState>> statesReactive(String ... ids) {
-		return Mono.defer(() -> Mono.just(states(ids)));
+		return Mono.fromCallable(() -> states(ids)).subscribeOn(Schedulers.boundedElastic());
 	}
 }
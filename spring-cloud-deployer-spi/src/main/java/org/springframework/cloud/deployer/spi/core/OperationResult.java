@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.core;
+
+import org.springframework.util.Assert;
+
+/**
+ * Outcome of one item of a batch operation, such as a single deployment of
+ * {@link org.springframework.cloud.deployer.spi.app.AppDeployer#deployAllReactive(java.util.List)}.
+ *
+ * @param <T> the type of the item the operation was applied to
+ * @param <R> the type of the value the operation returned
+ */
+public final class OperationResult<T, R> {
+
+	private final T target;
+
+	private final R value;
+
+	private final Throwable error;
+
+	private OperationResult(T target, R value, Throwable error) {
+		this.target = target;
+		this.value = value;
+		this.error = error;
+	}
+
+	/**
+	 * Create the result of a successful operation.
+	 *
+	 * @param target the item the operation was applied to
+	 * @param value the value the operation returned, may be {@literal null}
+	 * @param <T> the item type
+	 * @param <R> the value type
+	 * @return the result
+	 */
+	public static <T, R> OperationResult<T, R> success(T target, R value) {
+		return new OperationResult<>(target, value, null);
+	}
+
+	/**
+	 * Create the result of a failed operation.
+	 *
+	 * @param target the item the operation was applied to
+	 * @param error the failure
+	 * @param <T> the item type
+	 * @param <R> the value type
+	 * @return the result
+	 */
+	public static <T, R> OperationResult<T, R> failure(T target, Throwable error) {
+		Assert.notNull(error, "error must not be null");
+		return new OperationResult<>(target, null, error);
+	}
+
+	/**
+	 * Return the item the operation was applied to.
+	 *
+	 * @return the item
+	 */
+	public T getTarget() {
+		return this.target;
+	}
+
+	/**
+	 * Return the value the operation returned.
+	 *
+	 * @return the value, or {@literal null} if the operation failed or returns none
+	 */
+	public R getValue() {
+		return this.value;
+	}
+
+	/**
+	 * Return the failure of the operation.
+	 *
+	 * @return the failure, or {@literal null} if the operation succeeded
+	 */
+	public Throwable getError() {
+		return this.error;
+	}
+
+	/**
+	 * Return whether the operation succeeded.
+	 *
+	 * @return {@literal true} if the operation succeeded
+	 */
+	public boolean isSuccess() {
+		return this.error == null;
+	}
+
+	@Override
+	public String toString() {
+		return "OperationResult{target=" + this.target + (isSuccess() ? ", value=" + this.value
+				: ", error=" + this.error) + "}";
+	}
+}
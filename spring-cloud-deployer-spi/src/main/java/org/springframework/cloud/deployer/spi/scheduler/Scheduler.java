@@ -16,8 +16,14 @@
 
 package org.springframework.cloud.deployer.spi.scheduler;
 
+import java.util.Collection;
 import java.util.List;
 
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.cloud.deployer.spi.core.OperationResult;
+import org.springframework.cloud.deployer.spi.util.BatchOperationSupport;
 import org.springframework.core.io.Resource;
 
 /**
@@ -67,5 +73,101 @@ public interface Scheduler {
 	 * @return A List of {@link ScheduleInfo}s for the given system.
 	 */
 	List<ScheduleInfo> list();
-}
 
+	/**
+	 * Register several {@link ScheduleRequest}s. All requests are attempted even if some of them fail.
+	 * <p>
+	 * The default implementation collects {@link #scheduleAllReactive(List)}.
+	 *
+	 * @param scheduleRequests the schedule requests
+	 * @return the result of each request, in the order of the requests
+	 */
+	default List<OperationResult<ScheduleRequest, Void>> scheduleAll(List<ScheduleRequest> scheduleRequests) {
+		return scheduleAllReactive(scheduleRequests).collectList().block();
+	}
+
+	/**
+	 * Register several {@link ScheduleRequest}s, reporting the outcome of each request.
+	 * <p>
+	 * The default implementation calls {@link #schedule(ScheduleRequest)} for a bounded number of requests
+	 * concurrently, see {@link BatchOperationSupport}. Scheduler systems with a bulk API should override it.
+	 *
+	 * @param scheduleRequests the schedule requests
+	 * @return the result of each request, in the order of the requests
+	 */
+	default Flux<OperationResult<ScheduleRequest, Void>> scheduleAllReactive(List<ScheduleRequest> scheduleRequests) {
+		return BatchOperationSupport.execute(scheduleRequests, scheduleRequest -> {
+			schedule(scheduleRequest);
+			return null;
+		});
+	}
+
+	/**
+	 * Delete several schedules. All schedules are attempted even if some of them fail.
+	 * <p>
+	 * The default implementation collects {@link #unscheduleAllReactive(Collection)}.
+	 *
+	 * @param scheduleNames the names of the schedules to be removed
+	 * @return the result of each schedule name, in the order of the names
+	 */
+	default List<OperationResult<String, Void>> unscheduleAll(Collection<String> scheduleNames) {
+		return unscheduleAllReactive(scheduleNames).collectList().block();
+	}
+
+	/**
+	 * Delete several schedules, reporting the outcome of each schedule name.
+	 * <p>
+	 * The default implementation calls {@link #unschedule(String)} for a bounded number of schedules
+	 * concurrently, see {@link BatchOperationSupport}. Scheduler systems with a bulk API should override it.
+	 *
+	 * @param scheduleNames the names of the schedules to be removed
+	 * @return the result of each schedule name, in the order of the names
+	 */
+	default Flux<OperationResult<String, Void>> unscheduleAllReactive(Collection<String> scheduleNames) {
+		return BatchOperationSupport.execute(scheduleNames, scheduleName -> {
+			unschedule(scheduleName);
+			return null;
+		});
+	}
+
+	/**
+	 * Stream the {@link ScheduleInfo}s registered with the system, or of one task definition.
+	 * <p>
+	 * The default implementation loads the full list with {@link #list()} or {@link #list(String)} on
+	 * subscription, on the {@link Schedulers#boundedElastic() bounded elastic} scheduler so that the
+	 * subscriber's thread is never blocked, and then emits it. Nothing is streamed from the scheduler system
+	 * and the whole list is held in memory until it is emitted. Scheduler systems able to page through their
+	 * schedules should override it to emit them page by page as they are requested.
+	 *
+	 * @param taskDefinitionName the task definition to list the schedules of, or {@literal null} for all
+	 * @return the {@link ScheduleInfo}s
+	 */
+	default Flux<ScheduleInfo> listReactive(String taskDefinitionName) {
+		return Flux.defer(() -> Flux.fromIterable(taskDefinitionName != null ? list(taskDefinitionName) : list()))
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	/**
+	 * Stream one page of the {@link ScheduleInfo}s registered with the system, or of one task definition, in
+	 * the order of {@link #listReactive(String)}.
+	 * <p>
+	 * The default implementation subscribes to {@link #listReactive(String)} on the
+	 * {@link Schedulers#boundedElastic() bounded elastic} scheduler, then skips {@code offset} schedules and
+	 * takes {@code limit} of them. Unless {@link #listReactive(String)} is overridden, the full list is
+	 * therefore loaded with {@link #list()} or {@link #list(String)} for every page, so paging through it
+	 * costs as many full listings as there are pages. Scheduler systems with a paged API should override it
+	 * to fetch only the requested page.
+	 *
+	 * @param taskDefinitionName the task definition to list the schedules of, or {@literal null} for all
+	 * @param offset the number of schedules to skip
+	 * @param limit the maximum number of schedules to emit
+	 * @return the {@link ScheduleInfo}s of the page
+	 */
+	default Flux<ScheduleInfo> listReactive(String taskDefinitionName, int offset, int limit) {
+		if (offset < 0 || limit < 0) {
+			return Flux.error(new IllegalArgumentException("offset and limit must not be negative"));
+		}
+		return Flux.defer(() -> listReactive(taskDefinitionName).skip(offset).take(limit))
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+}
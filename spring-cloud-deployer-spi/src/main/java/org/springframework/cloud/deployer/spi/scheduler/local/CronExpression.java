@@ -0,0 +1,251 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.scheduler.local;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Parsed cron expression.
+ * <p>
+ * Supports the six field format {@code second minute hour day-of-month month day-of-week}
+ * as well as the five field unix format, which fires at second zero. Fields accept
+ * {@code *}, {@code ?}, numbers, ranges ({@code 1-5}), steps of a range, a start value or
+ * {@code *} ({@code 0-30/10}, {@code 5/10}) and lists ({@code 1,15,30}); months and days of the week also accept
+ * three letter names, and Sunday is either {@code 0} or {@code 7}. As in unix cron, a day
+ * matches if either the day of month or the day of week matches when both are
+ * restricted. The macros {@code @yearly}, {@code @annually}, {@code @monthly},
+ * {@code @weekly}, {@code @daily}, {@code @midnight} and {@code @hourly} are supported.
+ */
+final class CronExpression {
+
+	private static final String[] MONTHS = { "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT",
+			"NOV", "DEC" };
+
+	private static final String[] DAYS = { "SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT" };
+
+	/**
+	 * The number of years searched for the next match, so impossible dates such as
+	 * February 30 do not loop forever.
+	 */
+	private static final int MAX_YEARS = 5;
+
+	private final String expression;
+
+	private final long seconds;
+
+	private final long minutes;
+
+	private final long hours;
+
+	private final long daysOfMonth;
+
+	private final long months;
+
+	private final long daysOfWeek;
+
+	private final boolean dayOfMonthRestricted;
+
+	private final boolean dayOfWeekRestricted;
+
+	private CronExpression(String expression, String[] fields) {
+		this.expression = expression;
+		this.seconds = parseField(fields[0], 0, 59, null);
+		this.minutes = parseField(fields[1], 0, 59, null);
+		this.hours = parseField(fields[2], 0, 23, null);
+		this.daysOfMonth = parseField(fields[3], 1, 31, null);
+		this.months = parseField(fields[4], 1, 12, MONTHS);
+		long daysOfWeek = parseField(fields[5], 0, 7, DAYS);
+		// both 0 and 7 are Sunday
+		this.daysOfWeek = (daysOfWeek & (1L << 7)) != 0 ? (daysOfWeek | 1L) & ~(1L << 7) : daysOfWeek;
+		this.dayOfMonthRestricted = !isWildcard(fields[3]);
+		this.dayOfWeekRestricted = !isWildcard(fields[5]);
+	}
+
+	/**
+	 * Parse a cron expression.
+	 *
+	 * @param expression the expression
+	 * @return the parsed expression
+	 * @throws IllegalArgumentException if the expression is not valid
+	 */
+	static CronExpression parse(String expression) {
+		if (expression == null || expression.trim().isEmpty()) {
+			throw new IllegalArgumentException("Cron expression must not be empty");
+		}
+		String trimmed = expression.trim();
+		String[] fields = expandMacro(trimmed).split("\\s+");
+		if (fields.length == 5) {
+			String[] withSeconds = new String[6];
+			withSeconds[0] = "0";
+			System.arraycopy(fields, 0, withSeconds, 1, 5);
+			fields = withSeconds;
+		}
+		if (fields.length != 6) {
+			throw new IllegalArgumentException(
+					"Cron expression must consist of 5 or 6 fields, found " + fields.length + " in '" + expression + "'");
+		}
+		try {
+			return new CronExpression(trimmed, fields);
+		}
+		catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid cron expression '" + expression + "': " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Return the first time after the given time matching the expression.
+	 *
+	 * @param after the time to start from, exclusive
+	 * @return the next matching time, or {@literal null} if there is none in the next
+	 * {@value #MAX_YEARS} years
+	 */
+	ZonedDateTime next(ZonedDateTime after) {
+		ZonedDateTime time = after.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+		int lastYear = time.getYear() + MAX_YEARS;
+		while (time.getYear() <= lastYear) {
+			if (!matches(this.months, time.getMonthValue())) {
+				time = time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1).plusMonths(1);
+			}
+			else if (!matchesDay(time)) {
+				time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+			}
+			else if (!matches(this.hours, time.getHour())) {
+				time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+			}
+			else if (!matches(this.minutes, time.getMinute())) {
+				time = time.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+			}
+			else if (!matches(this.seconds, time.getSecond())) {
+				long later = this.seconds >>> time.getSecond();
+				time = later != 0 ? time.plusSeconds(Long.numberOfTrailingZeros(later))
+						: time.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+			}
+			else {
+				return time;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return this.expression;
+	}
+
+	private boolean matchesDay(ZonedDateTime time) {
+		boolean dayOfMonth = matches(this.daysOfMonth, time.getDayOfMonth());
+		// DayOfWeek runs from Monday 1 to Sunday 7, cron from Sunday 0 to Saturday 6
+		boolean dayOfWeek = matches(this.daysOfWeek, time.getDayOfWeek().getValue() % 7);
+		if (this.dayOfMonthRestricted && this.dayOfWeekRestricted) {
+			return dayOfMonth || dayOfWeek;
+		}
+		return dayOfMonth && dayOfWeek;
+	}
+
+	private static boolean matches(long field, int value) {
+		return (field & (1L << value)) != 0;
+	}
+
+	private static boolean isWildcard(String field) {
+		return field.equals("*") || field.equals("?");
+	}
+
+	private static String expandMacro(String expression) {
+		switch (expression.toLowerCase(Locale.ROOT)) {
+		case "@yearly":
+		case "@annually":
+			return "0 0 0 1 1 *";
+		case "@monthly":
+			return "0 0 0 1 * *";
+		case "@weekly":
+			return "0 0 0 * * 0";
+		case "@daily":
+		case "@midnight":
+			return "0 0 0 * * *";
+		case "@hourly":
+			return "0 0 * * * *";
+		default:
+			return expression;
+		}
+	}
+
+	/**
+	 * Parse a field into a bit set of the values it matches.
+	 */
+	private static long parseField(String field, int min, int max, String[] names) {
+		long bits = 0;
+		for (String part : field.split(",", -1)) {
+			int step = 1;
+			int slash = part.indexOf('/');
+			if (slash >= 0) {
+				step = parseNumber(part.substring(slash + 1), 1, max - min + 1, null, 0);
+				part = part.substring(0, slash);
+			}
+			int from;
+			int to;
+			if (part.equals("*") || part.equals("?")) {
+				from = min;
+				to = max;
+			}
+			else {
+				int dash = part.indexOf('-');
+				if (dash >= 0) {
+					from = parseNumber(part.substring(0, dash), min, max, names, min);
+					to = parseNumber(part.substring(dash + 1), min, max, names, min);
+					if (names == DAYS && to == 0) {
+						// a day of week range ending on Sunday, e.g. SAT-SUN
+						to = 7;
+					}
+					if (from > to) {
+						throw new IllegalArgumentException("Range '" + part + "' is reversed");
+					}
+				}
+				else {
+					from = parseNumber(part, min, max, names, min);
+					to = slash >= 0 ? max : from;
+				}
+			}
+			for (int value = from; value <= to; value += step) {
+				bits |= 1L << value;
+			}
+		}
+		return bits;
+	}
+
+	private static int parseNumber(String value, int min, int max, String[] names, int namesStart) {
+		if (names != null) {
+			for (int i = 0; i < names.length; i++) {
+				if (names[i].equalsIgnoreCase(value)) {
+					return namesStart + i;
+				}
+			}
+		}
+		int number;
+		try {
+			number = Integer.parseInt(value);
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("'" + value + "' is not a number");
+		}
+		if (number < min || number > max) {
+			throw new IllegalArgumentException(number + " is not between " + min + " and " + max);
+		}
+		return number;
+	}
+}
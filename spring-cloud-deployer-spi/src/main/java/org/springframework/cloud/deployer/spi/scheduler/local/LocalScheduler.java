@@ -0,0 +1,396 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.scheduler.local;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cloud.deployer.spi.scheduler.CreateScheduleException;
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleInfo;
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleRequest;
+import org.springframework.cloud.deployer.spi.scheduler.Scheduler;
+import org.springframework.cloud.deployer.spi.scheduler.SchedulerPropertyKeys;
+import org.springframework.cloud.deployer.spi.scheduler.UnScheduleException;
+import org.springframework.cloud.deployer.spi.task.TaskLauncher;
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadFactory;
+
+/**
+ * In-process {@link Scheduler} launching the scheduled requests through a
+ * {@link TaskLauncher}, for local and development environments and tests.
+ * <p>
+ * The cron expression of a schedule is read from the
+ * {@link SchedulerPropertyKeys#CRON_EXPRESSION} deployment property, see
+ * {@link CronExpression} for the supported format; expressions which never match, such
+ * as February 30th, are rejected. The next fire time of every schedule
+ * is kept in a hierarchical timing wheel, so adding, removing and firing a schedule take
+ * constant time regardless of the number of schedules. Due schedules are launched on a
+ * bounded thread pool; a fire time is skipped if the pool and its queue are full.
+ * Schedules are not persisted.
+ * <p>
+ * After {@link #start()}, a background thread advances the wheel every
+ * {@link #setTickDuration(Duration) tick}. Without starting the scheduler, tests can
+ * drive it deterministically from a controlled {@link Clock} by calling {@link #tick()}.
+ */
+public class LocalScheduler implements Scheduler, Closeable {
+
+	private static final Log logger = LogFactory.getLog(LocalScheduler.class);
+
+	private static final Duration DEFAULT_TICK_DURATION = Duration.ofMillis(100);
+
+	private static final int DEFAULT_LAUNCH_CONCURRENCY = 4;
+
+	private static final int DEFAULT_LAUNCH_QUEUE_CAPACITY = 1000;
+
+	private final TaskLauncher taskLauncher;
+
+	private final Clock clock;
+
+	private final Map<String, Schedule> schedules = new HashMap<>();
+
+	private final AtomicLong launchCount = new AtomicLong();
+
+	private final AtomicLong skippedCount = new AtomicLong();
+
+	private long tickMillis = DEFAULT_TICK_DURATION.toMillis();
+
+	private int launchConcurrency = DEFAULT_LAUNCH_CONCURRENCY;
+
+	private int launchQueueCapacity = DEFAULT_LAUNCH_QUEUE_CAPACITY;
+
+	private TimingWheel<Schedule> wheel;
+
+	private ThreadPoolExecutor launchExecutor;
+
+	private ScheduledExecutorService ticker;
+
+	/**
+	 * Create a scheduler using the system clock in the default time zone.
+	 *
+	 * @param taskLauncher the launcher to launch the scheduled requests with
+	 */
+	public LocalScheduler(TaskLauncher taskLauncher) {
+		this(taskLauncher, Clock.systemDefaultZone());
+	}
+
+	/**
+	 * Create a scheduler. Cron expressions are evaluated in the time zone of the clock.
+	 *
+	 * @param taskLauncher the launcher to launch the scheduled requests with
+	 * @param clock the clock
+	 */
+	public LocalScheduler(TaskLauncher taskLauncher, Clock clock) {
+		Assert.notNull(taskLauncher, "taskLauncher must not be null");
+		Assert.notNull(clock, "clock must not be null");
+		this.taskLauncher = taskLauncher;
+		this.clock = clock;
+	}
+
+	/**
+	 * Set the resolution of the timing wheel. Defaults to 100 milliseconds. Must be set
+	 * before the first schedule is added.
+	 *
+	 * @param tickDuration the tick duration
+	 */
+	public synchronized void setTickDuration(Duration tickDuration) {
+		Assert.isTrue(tickDuration != null && tickDuration.toMillis() > 0, "tickDuration must be at least 1ms");
+		Assert.state(this.wheel == null, "tickDuration must be set before the scheduler is used");
+		this.tickMillis = tickDuration.toMillis();
+	}
+
+	/**
+	 * Set the maximum number of concurrent launches. Defaults to 4. Must be set before
+	 * the first launch.
+	 *
+	 * @param launchConcurrency the launch concurrency
+	 */
+	public synchronized void setLaunchConcurrency(int launchConcurrency) {
+		Assert.isTrue(launchConcurrency > 0, "launchConcurrency must be positive");
+		Assert.state(this.launchExecutor == null, "launchConcurrency must be set before the scheduler is used");
+		this.launchConcurrency = launchConcurrency;
+	}
+
+	/**
+	 * Set the maximum number of due launches waiting for a launch thread. Defaults to
+	 * 1000. Must be set before the first launch.
+	 *
+	 * @param launchQueueCapacity the launch queue capacity
+	 */
+	public synchronized void setLaunchQueueCapacity(int launchQueueCapacity) {
+		Assert.isTrue(launchQueueCapacity > 0, "launchQueueCapacity must be positive");
+		Assert.state(this.launchExecutor == null, "launchQueueCapacity must be set before the scheduler is used");
+		this.launchQueueCapacity = launchQueueCapacity;
+	}
+
+	/**
+	 * Start advancing the timing wheel in the background.
+	 */
+	public synchronized void start() {
+		if (this.ticker != null) {
+			return;
+		}
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("local-scheduler-");
+		threadFactory.setDaemon(true);
+		this.ticker = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		this.ticker.scheduleAtFixedRate(this::tick, this.tickMillis, this.tickMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stop advancing the timing wheel and launching schedules. Launches in progress are
+	 * completed. The schedules are kept, so the scheduler can be {@link #start() started}
+	 * again.
+	 */
+	@Override
+	public synchronized void close() {
+		if (this.ticker != null) {
+			this.ticker.shutdownNow();
+			this.ticker = null;
+		}
+		if (this.launchExecutor != null) {
+			this.launchExecutor.shutdown();
+			this.launchExecutor = null;
+		}
+	}
+
+	@Override
+	public synchronized void schedule(ScheduleRequest scheduleRequest) {
+		Assert.notNull(scheduleRequest, "scheduleRequest must not be null");
+		String scheduleName = scheduleRequest.getScheduleName();
+		Assert.hasText(scheduleName, "scheduleName must not be empty");
+		if (this.schedules.containsKey(scheduleName)) {
+			throw new CreateScheduleException(scheduleName,
+					new IllegalStateException("Schedule " + scheduleName + " already exists"));
+		}
+		CronExpression cronExpression;
+		try {
+			cronExpression = CronExpression.parse(cronExpression(scheduleRequest));
+		}
+		catch (IllegalArgumentException e) {
+			throw new CreateScheduleException(scheduleName, e);
+		}
+		ZonedDateTime now = ZonedDateTime.now(this.clock);
+		if (cronExpression.next(now) == null) {
+			throw new CreateScheduleException(scheduleName, new IllegalArgumentException(
+					"Cron expression '" + cronExpression(scheduleRequest) + "' never fires"));
+		}
+		Schedule schedule = new Schedule(scheduleRequest, cronExpression);
+		this.schedules.put(scheduleName, schedule);
+		arm(schedule, now);
+	}
+
+	@Override
+	public synchronized void unschedule(String scheduleName) {
+		Schedule schedule = this.schedules.remove(scheduleName);
+		if (schedule == null) {
+			throw new UnScheduleException("schedule " + scheduleName + " does not exist.");
+		}
+		if (schedule.timer != null) {
+			schedule.timer.cancel();
+		}
+	}
+
+	@Override
+	public synchronized List<ScheduleInfo> list(String taskDefinitionName) {
+		List<ScheduleInfo> scheduleInfos = new ArrayList<>();
+		for (Schedule schedule : this.schedules.values()) {
+			if (schedule.request.getDefinition().getName().equals(taskDefinitionName)) {
+				scheduleInfos.add(schedule.toScheduleInfo());
+			}
+		}
+		return scheduleInfos;
+	}
+
+	@Override
+	public synchronized List<ScheduleInfo> list() {
+		List<ScheduleInfo> scheduleInfos = new ArrayList<>(this.schedules.size());
+		for (Schedule schedule : this.schedules.values()) {
+			scheduleInfos.add(schedule.toScheduleInfo());
+		}
+		return scheduleInfos;
+	}
+
+	/**
+	 * Advance the timing wheel to the current time of the clock, launching the schedules
+	 * which became due and arming their next fire time. Called every tick once started.
+	 */
+	public void tick() {
+		List<Schedule> due;
+		ZonedDateTime now;
+		synchronized (this) {
+			if (this.wheel == null) {
+				return;
+			}
+			now = ZonedDateTime.now(this.clock);
+			due = this.wheel.advance(tickOf(now));
+			for (Schedule schedule : due) {
+				schedule.timer = null;
+				arm(schedule, now);
+			}
+		}
+		for (Schedule schedule : due) {
+			launch(schedule);
+		}
+	}
+
+	/**
+	 * Return the number of launches submitted to the task launcher.
+	 *
+	 * @return the launch count
+	 */
+	public long getLaunchCount() {
+		return this.launchCount.get();
+	}
+
+	/**
+	 * Return the number of fire times skipped because the launch queue was full.
+	 *
+	 * @return the skipped launch count
+	 */
+	public long getSkippedCount() {
+		return this.skippedCount.get();
+	}
+
+	/**
+	 * Return the next fire time of a schedule.
+	 *
+	 * @param scheduleName the schedule name
+	 * @return the next fire time, or {@literal null} if the schedule does not exist or
+	 * never fires again
+	 */
+	public synchronized ZonedDateTime getNextFireTime(String scheduleName) {
+		Schedule schedule = this.schedules.get(scheduleName);
+		return schedule != null ? schedule.nextFireTime : null;
+	}
+
+	/**
+	 * Return the number of fire times pending in the timing wheel, for testing.
+	 */
+	synchronized int timerCount() {
+		return this.wheel != null ? this.wheel.size() : 0;
+	}
+
+	/**
+	 * Add the next fire time of the schedule after the given time to the wheel.
+	 */
+	private void arm(Schedule schedule, ZonedDateTime after) {
+		if (this.wheel == null) {
+			this.wheel = new TimingWheel<>(tickOf(after));
+		}
+		ZonedDateTime next = schedule.cronExpression.next(after);
+		schedule.nextFireTime = next;
+		if (next == null) {
+			return;
+		}
+		// round up, so a schedule never fires before its time
+		long deadline = -Math.floorDiv(-next.toInstant().toEpochMilli(), this.tickMillis);
+		schedule.timer = this.wheel.add(Math.max(deadline, this.wheel.currentTick() + 1), schedule);
+	}
+
+	private void launch(Schedule schedule) {
+		ThreadPoolExecutor executor = launchExecutor();
+		try {
+			executor.execute(() -> {
+				try {
+					String id = this.taskLauncher.launch(schedule.request);
+					if (logger.isDebugEnabled()) {
+						logger.debug("Launched schedule " + schedule.request.getScheduleName() + " as " + id);
+					}
+				}
+				catch (RuntimeException e) {
+					logger.warn("Failed to launch schedule " + schedule.request.getScheduleName(), e);
+				}
+			});
+			this.launchCount.incrementAndGet();
+		}
+		catch (RejectedExecutionException e) {
+			this.skippedCount.incrementAndGet();
+			// the executor is shut down if the scheduler was closed while ticking
+			logger.warn("Skipped launch of schedule " + schedule.request.getScheduleName()
+					+ (executor.isShutdown() ? ", the scheduler is closed" : ", too many launches are pending"));
+		}
+	}
+
+	private synchronized ThreadPoolExecutor launchExecutor() {
+		if (this.launchExecutor == null) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("local-scheduler-launch-");
+			threadFactory.setDaemon(true);
+			this.launchExecutor = new ThreadPoolExecutor(this.launchConcurrency, this.launchConcurrency, 60,
+					TimeUnit.SECONDS, new ArrayBlockingQueue<>(this.launchQueueCapacity), threadFactory);
+			this.launchExecutor.allowCoreThreadTimeOut(true);
+		}
+		return this.launchExecutor;
+	}
+
+	private long tickOf(ZonedDateTime time) {
+		return Math.floorDiv(time.toInstant().toEpochMilli(), this.tickMillis);
+	}
+
+	@SuppressWarnings("deprecation")
+	private static String cronExpression(ScheduleRequest scheduleRequest) {
+		String cronExpression = scheduleRequest.getDeploymentProperties().get(SchedulerPropertyKeys.CRON_EXPRESSION);
+		if (cronExpression == null && scheduleRequest.getSchedulerProperties() != null) {
+			cronExpression = scheduleRequest.getSchedulerProperties().get(SchedulerPropertyKeys.CRON_EXPRESSION);
+		}
+		if (cronExpression == null) {
+			throw new IllegalArgumentException("The " + SchedulerPropertyKeys.CRON_EXPRESSION + " property is required");
+		}
+		return cronExpression;
+	}
+
+	private static final class Schedule {
+
+		private final ScheduleRequest request;
+
+		private final CronExpression cronExpression;
+
+		private TimingWheel.Timer<Schedule> timer;
+
+		private ZonedDateTime nextFireTime;
+
+		Schedule(ScheduleRequest request, CronExpression cronExpression) {
+			this.request = request;
+			this.cronExpression = cronExpression;
+		}
+
+		ScheduleInfo toScheduleInfo() {
+			ScheduleInfo scheduleInfo = new ScheduleInfo();
+			scheduleInfo.setScheduleName(this.request.getScheduleName());
+			scheduleInfo.setTaskDefinitionName(this.request.getDefinition().getName());
+			Map<String, String> properties = new HashMap<>(this.request.getDeploymentProperties());
+			properties.put(SchedulerPropertyKeys.CRON_EXPRESSION, this.cronExpression.toString());
+			scheduleInfo.setScheduleProperties(Collections.unmodifiableMap(properties));
+			return scheduleInfo;
+		}
+	}
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.scheduler.local;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel over absolute tick numbers.
+ * <p>
+ * Each level has {@value #WHEEL_SIZE} buckets, a bucket of level {@code n} spanning
+ * {@code WHEEL_SIZE^n} ticks. A timer is added to the lowest level whose span reaches
+ * its deadline, in the bucket selected by the deadline's digit at that level, which is
+ * constant time. When the wheel reaches the start of a higher level bucket its timers
+ * are moved down a level, so every timer is moved at most once per level and expires
+ * exactly at its deadline tick. Buckets are doubly linked lists, so a cancelled timer is
+ * unlinked right away, releasing its value. Advancing skips over ticks whose buckets are
+ * all empty, so a large jump, e.g. after the clock was changed or the process was
+ * suspended, costs a scan of the non-empty levels rather than a step per tick. Not
+ * thread-safe.
+ */
+final class TimingWheel<T> {
+
+	private static final int WHEEL_BITS = 6;
+
+	static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+	private static final int LEVELS = 6;
+
+	/**
+	 * The furthest deadline a timer can be added for, relative to the current tick.
+	 * Timers further out are parked in the last bucket and added again when it is reached.
+	 */
+	private static final long MAX_DELAY = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+	/**
+	 * The sentinels of the buckets, each heading a circular doubly linked list of timers.
+	 */
+	private final List<Timer<T>> buckets = new ArrayList<>(LEVELS * WHEEL_SIZE);
+
+	private long currentTick;
+
+	private int size;
+
+	/**
+	 * Create a wheel.
+	 *
+	 * @param startTick the current tick
+	 */
+	TimingWheel(long startTick) {
+		this.currentTick = startTick;
+		for (int i = 0; i < LEVELS * WHEEL_SIZE; i++) {
+			Timer<T> sentinel = new Timer<>(null, 0, null);
+			sentinel.next = sentinel;
+			sentinel.previous = sentinel;
+			this.buckets.add(sentinel);
+		}
+	}
+
+	/**
+	 * Add a timer.
+	 *
+	 * @param deadlineTick the tick the timer expires at
+	 * @param value the value returned once the timer expires
+	 * @return the timer, or {@literal null} if the deadline has passed already
+	 */
+	Timer<T> add(long deadlineTick, T value) {
+		if (deadlineTick <= this.currentTick) {
+			return null;
+		}
+		Timer<T> timer = new Timer<>(this, deadlineTick, value);
+		insert(timer);
+		this.size++;
+		return timer;
+	}
+
+	/**
+	 * Advance the wheel to the given tick.
+	 *
+	 * @param tick the tick to advance to
+	 * @return the values of the timers expired on the way, in deadline order
+	 */
+	List<T> advance(long tick) {
+		List<T> expired = new ArrayList<>();
+		while (this.currentTick < tick) {
+			long activeTick = nextActiveTick();
+			if (activeTick > tick) {
+				// nothing expires or cascades on the way
+				this.currentTick = tick;
+				break;
+			}
+			this.currentTick = activeTick;
+			// cascade from the highest level whose bucket boundary was reached
+			for (int level = LEVELS - 1; level > 0; level--) {
+				if ((this.currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+					Timer<T> timer = detach(bucket(level, this.currentTick));
+					while (timer != null) {
+						Timer<T> next = timer.next;
+						insert(timer);
+						timer = next;
+					}
+				}
+			}
+			Timer<T> timer = detach(bucket(0, this.currentTick));
+			while (timer != null) {
+				Timer<T> next = timer.next;
+				timer.next = null;
+				timer.previous = null;
+				this.size--;
+				expired.add(timer.value);
+				timer = next;
+			}
+		}
+		return expired;
+	}
+
+	/**
+	 * Return the current tick.
+	 */
+	long currentTick() {
+		return this.currentTick;
+	}
+
+	/**
+	 * Return the number of pending timers.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Return the next tick at which a timer expires or a bucket cascades, or
+	 * {@link Long#MAX_VALUE} if there are no timers. Timers of level {@code n} are in the
+	 * level {@code n + 1} bucket span of the current tick, so the first non-empty bucket
+	 * found scanning the levels bottom up is the earliest one.
+	 */
+	private long nextActiveTick() {
+		if (this.size == 0) {
+			return Long.MAX_VALUE;
+		}
+		for (int level = 0; level < LEVELS; level++) {
+			int shift = WHEEL_BITS * level;
+			long span = this.currentTick >>> shift;
+			// the last level wraps around, it may hold timers in any of its buckets
+			int remaining = level < LEVELS - 1 ? WHEEL_MASK - (int) (span & WHEEL_MASK) : WHEEL_SIZE;
+			for (int i = 1; i <= remaining; i++) {
+				long tick = (span + i) << shift;
+				Timer<T> sentinel = bucket(level, tick);
+				if (sentinel.next != sentinel) {
+					return tick;
+				}
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+
+	private void insert(Timer<T> timer) {
+		long delay = timer.deadlineTick - this.currentTick;
+		if (delay <= 0) {
+			// only reached when cascading: due now, expire with the level 0 bucket
+			link(bucket(0, this.currentTick), timer);
+			return;
+		}
+		long target = delay > MAX_DELAY ? this.currentTick + MAX_DELAY : timer.deadlineTick;
+		// the lowest level above which the target and the current tick agree
+		int level = 0;
+		while (level < LEVELS - 1 && (target >>> (WHEEL_BITS * (level + 1))) != (this.currentTick >>> (WHEEL_BITS * (level + 1)))) {
+			level++;
+		}
+		link(bucket(level, target), timer);
+	}
+
+	private Timer<T> bucket(int level, long tick) {
+		int index = (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+		return this.buckets.get(level * WHEEL_SIZE + index);
+	}
+
+	/**
+	 * Append the timer to the end of the bucket.
+	 */
+	private static <T> void link(Timer<T> sentinel, Timer<T> timer) {
+		timer.previous = sentinel.previous;
+		timer.next = sentinel;
+		sentinel.previous.next = timer;
+		sentinel.previous = timer;
+	}
+
+	/**
+	 * Empty the bucket, returning its first timer. The last timer's {@code next} is
+	 * {@literal null}, so the timers can be walked while they are linked elsewhere.
+	 */
+	private static <T> Timer<T> detach(Timer<T> sentinel) {
+		if (sentinel.next == sentinel) {
+			return null;
+		}
+		Timer<T> first = sentinel.next;
+		sentinel.previous.next = null;
+		sentinel.next = sentinel;
+		sentinel.previous = sentinel;
+		return first;
+	}
+
+	/**
+	 * Handle to a timer, used to cancel it.
+	 */
+	static final class Timer<T> {
+
+		private final TimingWheel<T> wheel;
+
+		private final long deadlineTick;
+
+		private final T value;
+
+		private Timer<T> previous;
+
+		private Timer<T> next;
+
+		Timer(TimingWheel<T> wheel, long deadlineTick, T value) {
+			this.wheel = wheel;
+			this.deadlineTick = deadlineTick;
+			this.value = value;
+		}
+
+		/**
+		 * Cancel the timer, removing it from its bucket. Does nothing if the timer has
+		 * expired or was cancelled already.
+		 */
+		void cancel() {
+			if (this.next == null) {
+				return;
+			}
+			this.previous.next = this.next;
+			this.next.previous = this.previous;
+			this.previous = null;
+			this.next = null;
+			this.wheel.size--;
+		}
+
+		long deadlineTick() {
+			return this.deadlineTick;
+		}
+	}
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.task;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.deployer.spi.core.AppDeploymentRequest;
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadFactory;
+
+/**
+ * Queue admitting launches to a {@link TaskLauncher} only while the launcher has
+ * capacity for them.
+ * <p>
+ * Submitted requests wait in a bounded queue, ordered by priority and first come, first
+ * served within the same priority. A single background thread launches queued requests
+ * as long as {@link TaskLauncher#getRunningTaskExecutionCount()} is below
+ * {@link TaskLauncher#getMaximumConcurrentTasks()}, checking again every
+ * {@link #setPollInterval(Duration) poll interval} while requests are waiting. A burst of
+ * launches therefore drains at the capacity of the platform and callers are notified
+ * through the returned {@link CompletableFuture} or {@link Mono} once their task is
+ * launched. A launcher not implementing one of the two methods is treated as having no
+ * limit, and a failing capacity query as having no capacity until the next poll. Wrap a
+ * launcher whose running count queries the platform in a
+ * {@link TrackingTaskLauncher} to keep admission checks local.
+ */
+public class TaskLaunchQueue implements Closeable {
+
+	/**
+	 * The priority of requests submitted without one.
+	 */
+	public static final int DEFAULT_PRIORITY = 0;
+
+	private static final Duration DEFAULT_POLL_INTERVAL = Duration.ofSeconds(1);
+
+	private static final Log logger = LogFactory.getLog(TaskLaunchQueue.class);
+
+	private final TaskLauncher taskLauncher;
+
+	private final int capacity;
+
+	private final PriorityBlockingQueue<QueuedLaunch> queue = new PriorityBlockingQueue<>();
+
+	private final AtomicInteger queued = new AtomicInteger();
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	private final AtomicLong launchedCount = new AtomicLong();
+
+	private final AtomicLong failedCount = new AtomicLong();
+
+	private final AtomicLong totalWaitTime = new AtomicLong();
+
+	private final AtomicLong maxWaitTime = new AtomicLong();
+
+	private final ScheduledExecutorService executor;
+
+	private final AtomicBoolean drainPending = new AtomicBoolean();
+
+	private final AtomicBoolean pollPending = new AtomicBoolean();
+
+	private volatile long pollInterval = DEFAULT_POLL_INTERVAL.toMillis();
+
+	private volatile boolean closed;
+
+	/**
+	 * Create a new queue for the launcher.
+	 *
+	 * @param taskLauncher the launcher to launch the queued requests with
+	 * @param capacity the maximum number of waiting requests
+	 */
+	public TaskLaunchQueue(TaskLauncher taskLauncher, int capacity) {
+		Assert.notNull(taskLauncher, "taskLauncher must not be null");
+		Assert.isTrue(capacity > 0, "capacity must be positive");
+		this.taskLauncher = taskLauncher;
+		this.capacity = capacity;
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("task-launch-queue-");
+		threadFactory.setDaemon(true);
+		this.executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+	}
+
+	/**
+	 * Set how often the launcher's capacity is checked again while requests are waiting.
+	 * Defaults to one second.
+	 *
+	 * @param pollInterval the poll interval
+	 */
+	public void setPollInterval(Duration pollInterval) {
+		Assert.isTrue(pollInterval != null && !pollInterval.isNegative() && !pollInterval.isZero(),
+				"pollInterval must be positive");
+		this.pollInterval = pollInterval.toMillis();
+	}
+
+	/**
+	 * Queue a request with the {@link #DEFAULT_PRIORITY default priority}.
+	 *
+	 * @param request the task launch request
+	 * @return future completing with the id of the launched task, or exceptionally if the
+	 * queue is full, the launch failed or the queue was closed
+	 */
+	public CompletableFuture<String> submit(AppDeploymentRequest request) {
+		return submit(request, DEFAULT_PRIORITY);
+	}
+
+	/**
+	 * Queue a request. Requests with a higher priority are launched first.
+	 * Cancelling the returned future removes a waiting request from the queue, or cancels
+	 * the task if it is being launched at the time.
+	 *
+	 * @param request the task launch request
+	 * @param priority the priority of the request
+	 * @return future completing with the id of the launched task, or exceptionally if the
+	 * queue is full, the launch failed or the queue was closed
+	 */
+	public CompletableFuture<String> submit(AppDeploymentRequest request, int priority) {
+		Assert.notNull(request, "request must not be null");
+		QueuedLaunch launch = new QueuedLaunch(request, priority, this.sequence.getAndIncrement());
+		if (this.closed) {
+			launch.future.completeExceptionally(new IllegalStateException("Task launch queue is closed"));
+			return launch.future;
+		}
+		if (this.queued.incrementAndGet() > this.capacity) {
+			this.queued.decrementAndGet();
+			launch.future.completeExceptionally(new RejectedExecutionException(
+					"Task launch queue is full, " + this.capacity + " requests are waiting"));
+			return launch.future;
+		}
+		this.queue.add(launch);
+		if (this.closed && this.queue.remove(launch)) {
+			// closed concurrently after the check above, after close() drained the queue
+			this.queued.decrementAndGet();
+			launch.future.completeExceptionally(new CancellationException("Task launch queue is closed"));
+			return launch.future;
+		}
+		launch.future.whenComplete((id, e) -> {
+			if (launch.future.isCancelled() && this.queue.remove(launch)) {
+				this.queued.decrementAndGet();
+			}
+		});
+		if (this.drainPending.compareAndSet(false, true)) {
+			drainLater(0, this.drainPending);
+		}
+		return launch.future;
+	}
+
+	/**
+	 * Launch a task once the launcher has capacity for it. The request is queued on
+	 * subscription; cancelling the subscription removes it from the queue.
+	 *
+	 * @param request the task launch request
+	 * @return the id of the launched task
+	 */
+	public Mono<String> launch(AppDeploymentRequest request) {
+		return launch(request, DEFAULT_PRIORITY);
+	}
+
+	/**
+	 * Launch a task once the launcher has capacity for it. The request is queued on
+	 * subscription; cancelling the subscription removes it from the queue.
+	 *
+	 * @param request the task launch request
+	 * @param priority the priority of the request
+	 * @return the id of the launched task
+	 */
+	public Mono<String> launch(AppDeploymentRequest request, int priority) {
+		return Mono.defer(() -> {
+			CompletableFuture<String> future = submit(request, priority);
+			return Mono.fromFuture(future).doOnCancel(() -> future.cancel(false));
+		});
+	}
+
+	/**
+	 * Return the number of requests waiting to be launched.
+	 *
+	 * @return the queue depth
+	 */
+	public int getQueueDepth() {
+		return this.queued.get();
+	}
+
+	/**
+	 * Return the number of tasks launched through this queue.
+	 *
+	 * @return the launched task count
+	 */
+	public long getLaunchedCount() {
+		return this.launchedCount.get();
+	}
+
+	/**
+	 * Return the number of launches which failed.
+	 *
+	 * @return the failed launch count
+	 */
+	public long getFailedCount() {
+		return this.failedCount.get();
+	}
+
+	/**
+	 * Return the average time requests waited in the queue before being launched.
+	 *
+	 * @return the average wait time
+	 */
+	public Duration getAverageWaitTime() {
+		long launches = this.launchedCount.get() + this.failedCount.get();
+		return Duration.ofNanos(launches == 0 ? 0 : this.totalWaitTime.get() / launches);
+	}
+
+	/**
+	 * Return the longest time a request waited in the queue before being launched.
+	 *
+	 * @return the maximum wait time
+	 */
+	public Duration getMaxWaitTime() {
+		return Duration.ofNanos(this.maxWaitTime.get());
+	}
+
+	/**
+	 * Stop launching. Waiting requests complete exceptionally with a
+	 * {@link CancellationException}.
+	 */
+	@Override
+	public void close() {
+		this.closed = true;
+		this.executor.shutdownNow();
+		List<QueuedLaunch> waiting = new ArrayList<>();
+		this.queue.drainTo(waiting);
+		for (QueuedLaunch launch : waiting) {
+			this.queued.decrementAndGet();
+			launch.future.completeExceptionally(new CancellationException("Task launch queue is closed"));
+		}
+	}
+
+	private void drainLater(long delay, AtomicBoolean pending) {
+		try {
+			this.executor.schedule(() -> {
+				pending.set(false);
+				drain();
+			}, delay, TimeUnit.MILLISECONDS);
+		}
+		catch (RejectedExecutionException e) {
+			// closed concurrently, the waiting requests are failed by close()
+		}
+	}
+
+	/**
+	 * Launch waiting requests while there is capacity. Only ever runs on the queue's
+	 * single thread.
+	 */
+	private void drain() {
+		try {
+			int available = availableSlots();
+			QueuedLaunch launch;
+			while (available > 0 && !this.closed && (launch = this.queue.poll()) != null) {
+				this.queued.decrementAndGet();
+				if (launch.future.isDone()) {
+					// cancelled while waiting
+					continue;
+				}
+				long waited = System.nanoTime() - launch.submitted;
+				this.totalWaitTime.addAndGet(waited);
+				this.maxWaitTime.accumulateAndGet(waited, Math::max);
+				launch(launch);
+				available--;
+				if (available == 0) {
+					available = availableSlots();
+				}
+			}
+		}
+		finally {
+			// also after an Error, so waiting requests do not stall until the next submit
+			if (!this.queue.isEmpty() && this.pollPending.compareAndSet(false, true)) {
+				drainLater(this.pollInterval, this.pollPending);
+			}
+		}
+	}
+
+	private void launch(QueuedLaunch launch) {
+		String id;
+		try {
+			id = this.taskLauncher.launch(launch.request);
+		}
+		catch (RuntimeException e) {
+			this.failedCount.incrementAndGet();
+			launch.future.completeExceptionally(e);
+			return;
+		}
+		catch (Error e) {
+			this.failedCount.incrementAndGet();
+			launch.future.completeExceptionally(e);
+			throw e;
+		}
+		this.launchedCount.incrementAndGet();
+		if (!launch.future.complete(id)) {
+			// cancelled while the launch was in progress
+			logger.info("Cancelling task " + id + ", its launch request was cancelled while launching");
+			try {
+				this.taskLauncher.cancel(id);
+			}
+			catch (RuntimeException e) {
+				logger.warn("Unable to cancel task " + id + " launched for a cancelled request", e);
+			}
+		}
+	}
+
+	private int availableSlots() {
+		if (this.queue.isEmpty()) {
+			return 0;
+		}
+		try {
+			return this.taskLauncher.getMaximumConcurrentTasks() - this.taskLauncher.getRunningTaskExecutionCount();
+		}
+		catch (UnsupportedOperationException e) {
+			return Integer.MAX_VALUE;
+		}
+		catch (RuntimeException e) {
+			logger.warn("Unable to query the capacity of the task launcher, retrying in " + this.pollInterval + "ms", e);
+			return 0;
+		}
+	}
+
+	private static final class QueuedLaunch implements Comparable<QueuedLaunch> {
+
+		private final AppDeploymentRequest request;
+
+		private final int priority;
+
+		private final long sequence;
+
+		private final long submitted = System.nanoTime();
+
+		private final CompletableFuture<String> future = new CompletableFuture<>();
+
+		QueuedLaunch(AppDeploymentRequest request, int priority, long sequence) {
+			this.request = request;
+			this.priority = priority;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(QueuedLaunch other) {
+			int result = Integer.compare(other.priority, this.priority);
+			return result != 0 ? result : Long.compare(this.sequence, other.sequence);
+		}
+	}
+}
@@ -16,8 +16,19 @@
 
 package org.springframework.cloud.deployer.spi.task;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 import org.springframework.cloud.deployer.spi.core.AppDeploymentRequest;
+import org.springframework.cloud.deployer.spi.core.OperationResult;
 import org.springframework.cloud.deployer.spi.core.RuntimeEnvironmentInfo;
+import org.springframework.cloud.deployer.spi.util.BatchOperationSupport;
+import org.springframework.cloud.deployer.spi.util.StatusWatchSupport;
 
 /**
  * SPI defining a runtime environment capable of launching and managing the
@@ -74,6 +85,34 @@ public interface TaskLauncher {
 	 */
 	TaskStatus status(String id);
 
+	/**
+	 * Returns the {@link TaskStatus}es for the tasks represented by the provided ids.
+	 * <p>
+	 * The default implementation collects {@link #statusesReactive(Collection)}.
+	 *
+	 * @param ids the task ids, as returned by {@link #launch(AppDeploymentRequest)}
+	 * @return map of task id to task status, in the order of the ids
+	 * @throws IllegalStateException if the status of any task could not be looked up
+	 */
+	default Map<String, TaskStatus> statuses(Collection<String> ids) {
+		return BatchOperationSupport.valuesByTarget(statusesReactive(ids), "status");
+	}
+
+	/**
+	 * Returns the {@link TaskStatus}es for the tasks represented by the provided ids,
+	 * reporting the outcome of each lookup.
+	 * <p>
+	 * The default implementation calls {@link #status(String)} for a bounded number of
+	 * ids concurrently, see {@link BatchOperationSupport}. Platforms able to query many
+	 * tasks at once should override it.
+	 *
+	 * @param ids the task ids, as returned by {@link #launch(AppDeploymentRequest)}
+	 * @return the result of each id, in the order of the ids
+	 */
+	default Flux<OperationResult<String, TaskStatus>> statusesReactive(Collection<String> ids) {
+		return BatchOperationSupport.execute(ids, this::status);
+	}
+
 	/**
 	 * Attempt to clean up any app execution resources that are associated with a task launch represented by the
 	 * provided task execution id.
@@ -86,6 +125,35 @@ public interface TaskLauncher {
 	 */
 	void cleanup(String id);
 
+	/**
+	 * Attempt to clean up the app execution resources of several task launches. All ids are attempted even if
+	 * some of them fail.
+	 * <p>
+	 * The default implementation collects {@link #cleanupAllReactive(Collection)}.
+	 *
+	 * @param ids the task ids, as returned by {@link #launch(AppDeploymentRequest)}
+	 * @return the result of each id, in the order of the ids
+	 */
+	default List<OperationResult<String, Void>> cleanupAll(Collection<String> ids) {
+		return cleanupAllReactive(ids).collectList().block();
+	}
+
+	/**
+	 * Attempt to clean up the app execution resources of several task launches, reporting the outcome of each id.
+	 * <p>
+	 * The default implementation calls {@link #cleanup(String)} for a bounded number of ids concurrently, see
+	 * {@link BatchOperationSupport}. Platforms with a bulk clean up API should override it.
+	 *
+	 * @param ids the task ids, as returned by {@link #launch(AppDeploymentRequest)}
+	 * @return the result of each id, in the order of the ids
+	 */
+	default Flux<OperationResult<String, Void>> cleanupAllReactive(Collection<String> ids) {
+		return BatchOperationSupport.execute(ids, id -> {
+			cleanup(id);
+			return null;
+		});
+	}
+
 	/**
 	 * Attempt to clean up any app resources that are associated with a task app represented by the provided
 	 * appName. Any app execution resources from all task launches for this app should be cleaned up as well.
@@ -132,4 +200,22 @@ public interface TaskLauncher {
 	default String getLog(String id) {
 		throw new UnsupportedOperationException("'getLog' is not implemented.");
 	}
+
+	/**
+	 * Watch the {@link LaunchState} of task launches. An event is emitted when a task is
+	 * first observed and whenever its state changes; the returned {@link Flux} keeps
+	 * watching until it is cancelled.
+	 * <p>
+	 * The default implementation polls {@link #status(String)} with an adaptive interval,
+	 * see {@link StatusWatchSupport}. Platforms able to watch for changes natively should
+	 * override it.
+	 *
+	 * @param ids the task launch ids, as returned by {@link #launch}
+	 * @return the state changes of the task launches
+	 */
+	default Flux<TaskStatusEvent> watch(String... ids) {
+		return StatusWatchSupport.watch(ids,
+				id -> Mono.fromCallable(() -> status(id)).subscribeOn(Schedulers.boundedElastic()),
+				TaskStatus::getState, TaskStatusEvent::new);
+	}
 }
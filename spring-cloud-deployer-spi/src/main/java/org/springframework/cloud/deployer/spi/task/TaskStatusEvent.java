@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.task;
+
+/**
+ * Change of the {@link LaunchState} of a task launch, emitted by
+ * {@link TaskLauncher#watch(String...)}.
+ */
+public class TaskStatusEvent {
+
+	private final String taskLaunchId;
+
+	private final LaunchState previousState;
+
+	private final TaskStatus status;
+
+	private final long timestamp;
+
+	/**
+	 * Construct a new {@code TaskStatusEvent}.
+	 *
+	 * @param taskLaunchId the task launch id
+	 * @param previousState the previously observed state, or {@literal null} if the task was not observed before
+	 * @param status the current status of the task
+	 */
+	public TaskStatusEvent(String taskLaunchId, LaunchState previousState, TaskStatus status) {
+		this.taskLaunchId = taskLaunchId;
+		this.previousState = previousState;
+		this.status = status;
+		this.timestamp = System.currentTimeMillis();
+	}
+
+	/**
+	 * Return the task launch id.
+	 *
+	 * @return task launch id
+	 */
+	public String getTaskLaunchId() {
+		return this.taskLaunchId;
+	}
+
+	/**
+	 * Return the previously observed state.
+	 *
+	 * @return the previous state, or {@literal null} if the task was not observed before
+	 */
+	public LaunchState getPreviousState() {
+		return this.previousState;
+	}
+
+	/**
+	 * Return the current state.
+	 *
+	 * @return the current state
+	 */
+	public LaunchState getState() {
+		return this.status.getState();
+	}
+
+	/**
+	 * Return the current status of the task.
+	 *
+	 * @return the task status
+	 */
+	public TaskStatus getStatus() {
+		return this.status;
+	}
+
+	/**
+	 * Return the time the change was observed, in milliseconds since the epoch.
+	 *
+	 * @return the timestamp
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	@Override
+	public String toString() {
+		return "TaskStatusEvent{taskLaunchId='" + this.taskLaunchId + "', previousState=" + this.previousState
+				+ ", state=" + getState() + "}";
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.task;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import reactor.core.publisher.Flux;
+
+import org.springframework.cloud.deployer.spi.core.AppDeploymentRequest;
+import org.springframework.cloud.deployer.spi.core.OperationResult;
+import org.springframework.cloud.deployer.spi.core.RuntimeEnvironmentInfo;
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadFactory;
+
+/**
+ * {@link TaskLauncher} decorator keeping track of the tasks it launched, so that
+ * {@link #getRunningTaskExecutionCount()} does not query the platform.
+ * <p>
+ * A task is counted from its {@link #launch(AppDeploymentRequest) launch} until a
+ * {@link #status(String) status}, {@link #statusesReactive(Collection) statuses} or
+ * {@link #watch(String...) watch} event reports a terminal {@link LaunchState}, or until
+ * it is {@link #cancel(String) cancelled} or {@link #cleanup(String) cleaned up}. The
+ * count is a lookup of the tracked ids, independent of the platform.
+ * <p>
+ * A background thread reconciles the tracked tasks with the platform every
+ * {@link #setReconcileInterval(Duration) reconcile interval}: it looks up the statuses of
+ * the tracked tasks with a single {@link TaskLauncher#statusesReactive(Collection)} call
+ * and, if the delegate implements it, the platform's running count.
+ * Tasks reported as {@link LaunchState#unknown unknown} for longer than one interval are
+ * dropped, and tasks running on the platform which were not launched through this
+ * launcher are added to the count.
+ */
+public class TrackingTaskLauncher implements TaskLauncher, Closeable {
+
+	private static final Set<LaunchState> TERMINAL_STATES = EnumSet.of(LaunchState.cancelled, LaunchState.complete,
+			LaunchState.failed, LaunchState.error);
+
+	private static final Duration DEFAULT_RECONCILE_INTERVAL = Duration.ofSeconds(30);
+
+	private final TaskLauncher delegate;
+
+	/**
+	 * Launch time of the tracked tasks, keyed by task launch id.
+	 */
+	private final Map<String, Long> running = new ConcurrentHashMap<>();
+
+	private final ScheduledExecutorService executor;
+
+	private volatile int untracked;
+
+	private volatile long reconcileInterval;
+
+	private ScheduledFuture<?> reconciliation;
+
+	/**
+	 * Create a new tracking launcher.
+	 *
+	 * @param delegate the launcher to decorate
+	 */
+	public TrackingTaskLauncher(TaskLauncher delegate) {
+		Assert.notNull(delegate, "delegate must not be null");
+		this.delegate = delegate;
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("task-tracker-");
+		threadFactory.setDaemon(true);
+		this.executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		setReconcileInterval(DEFAULT_RECONCILE_INTERVAL);
+	}
+
+	/**
+	 * Set how often the tracked tasks are reconciled with the platform. Defaults to 30
+	 * seconds.
+	 *
+	 * @param reconcileInterval the reconcile interval
+	 */
+	public synchronized void setReconcileInterval(Duration reconcileInterval) {
+		Assert.isTrue(reconcileInterval != null && !reconcileInterval.isNegative() && !reconcileInterval.isZero(),
+				"reconcileInterval must be positive");
+		this.reconcileInterval = reconcileInterval.toMillis();
+		if (this.reconciliation != null) {
+			this.reconciliation.cancel(false);
+		}
+		this.reconciliation = this.executor.scheduleWithFixedDelay(this::reconcile, this.reconcileInterval,
+				this.reconcileInterval, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public String launch(AppDeploymentRequest request) {
+		String id = this.delegate.launch(request);
+		if (id != null) {
+			this.running.put(id, System.currentTimeMillis());
+		}
+		return id;
+	}
+
+	@Override
+	public void cancel(String id) {
+		this.delegate.cancel(id);
+		this.running.remove(id);
+	}
+
+	@Override
+	public TaskStatus status(String id) {
+		TaskStatus status = this.delegate.status(id);
+		if (status != null) {
+			track(id, status.getState());
+		}
+		return status;
+	}
+
+	@Override
+	public void cleanup(String id) {
+		this.delegate.cleanup(id);
+		this.running.remove(id);
+	}
+
+	@Override
+	public Flux<OperationResult<String, TaskStatus>> statusesReactive(Collection<String> ids) {
+		return this.delegate.statusesReactive(ids).doOnNext(result -> {
+			if (result.isSuccess() && result.getValue() != null) {
+				track(result.getTarget(), result.getValue().getState());
+			}
+		});
+	}
+
+	@Override
+	public Flux<OperationResult<String, Void>> cleanupAllReactive(Collection<String> ids) {
+		return this.delegate.cleanupAllReactive(ids).doOnNext(result -> {
+			if (result.isSuccess()) {
+				this.running.remove(result.getTarget());
+			}
+		});
+	}
+
+	@Override
+	public void destroy(String appName) {
+		this.delegate.destroy(appName);
+	}
+
+	@Override
+	public RuntimeEnvironmentInfo environmentInfo() {
+		return this.delegate.environmentInfo();
+	}
+
+	@Override
+	public int getMaximumConcurrentTasks() {
+		return this.delegate.getMaximumConcurrentTasks();
+	}
+
+	/**
+	 * Return the number of running tasks known to this launcher, without querying the
+	 * platform.
+	 *
+	 * @return the count of currently running task executions
+	 */
+	@Override
+	public int getRunningTaskExecutionCount() {
+		return this.running.size() + this.untracked;
+	}
+
+	@Override
+	public String getLog(String id) {
+		return this.delegate.getLog(id);
+	}
+
+	@Override
+	public Flux<TaskStatusEvent> watch(String... ids) {
+		return this.delegate.watch(ids).doOnNext(event -> track(event.getTaskLaunchId(), event.getState()));
+	}
+
+	/**
+	 * Reconcile the tracked tasks with the platform now. Called periodically in the
+	 * background.
+	 */
+	public void reconcile() {
+		long unknownBefore = System.currentTimeMillis() - this.reconcileInterval;
+		List<OperationResult<String, TaskStatus>> results = Collections.emptyList();
+		if (!this.running.isEmpty()) {
+			try {
+				results = this.delegate.statusesReactive(new ArrayList<>(this.running.keySet())).collectList().block();
+			}
+			catch (RuntimeException e) {
+				// keep tracking the tasks, the next reconciliation tries again
+			}
+		}
+		for (OperationResult<String, TaskStatus> result : results) {
+			if (!result.isSuccess()) {
+				// keep tracking the task, the next reconciliation tries again
+				continue;
+			}
+			String id = result.getTarget();
+			LaunchState state = result.getValue() != null ? result.getValue().getState() : LaunchState.unknown;
+			if (state == LaunchState.unknown) {
+				this.running.computeIfPresent(id, (key, launched) -> launched < unknownBefore ? null : launched);
+			}
+			else {
+				track(id, state);
+			}
+		}
+		try {
+			this.untracked = Math.max(0, this.delegate.getRunningTaskExecutionCount() - this.running.size());
+		}
+		catch (UnsupportedOperationException e) {
+			this.untracked = 0;
+		}
+		catch (RuntimeException e) {
+			// keep the previous count
+		}
+	}
+
+	/**
+	 * Stop reconciling in the background.
+	 */
+	@Override
+	public void close() {
+		this.executor.shutdownNow();
+	}
+
+	private void track(String id, LaunchState state) {
+		if (TERMINAL_STATES.contains(state)) {
+			this.running.remove(id);
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.cloud.deployer.spi.core.OperationResult;
+import org.springframework.util.Assert;
+
+/**
+ * Runs a blocking single-item SPI operation over a batch of items, used by the default
+ * batch methods of the SPI until a platform provides native bulk operations.
+ * <p>
+ * At most {@link #getDefaultConcurrency() default concurrency} items are processed
+ * concurrently on the {@link Schedulers#boundedElastic() bounded elastic} scheduler, so a
+ * batch completes in roughly the time of its slowest items rather than the sum of all of
+ * them. A failure of one item does not stop the others; it is reported in its
+ * {@link OperationResult}.
+ */
+public final class BatchOperationSupport {
+
+	/**
+	 * The number of items processed concurrently unless
+	 * {@link #setDefaultConcurrency(int) configured} otherwise.
+	 */
+	public static final int DEFAULT_CONCURRENCY = 8;
+
+	private static volatile int defaultConcurrency = DEFAULT_CONCURRENCY;
+
+	private BatchOperationSupport() {
+	}
+
+	/**
+	 * Return the number of items processed concurrently by
+	 * {@link #execute(Collection, Function)}.
+	 *
+	 * @return the default concurrency
+	 */
+	public static int getDefaultConcurrency() {
+		return defaultConcurrency;
+	}
+
+	/**
+	 * Set the number of items processed concurrently by
+	 * {@link #execute(Collection, Function)} and therefore by the default batch methods
+	 * of the SPI, e.g. to match the rate limits of a platform. Defaults to
+	 * {@link #DEFAULT_CONCURRENCY}. Applies to batches started afterwards.
+	 *
+	 * @param concurrency the maximum number of items processed concurrently
+	 */
+	public static void setDefaultConcurrency(int concurrency) {
+		Assert.isTrue(concurrency > 0, "concurrency must be positive");
+		defaultConcurrency = concurrency;
+	}
+
+	/**
+	 * Apply the operation to all items with the default concurrency.
+	 *
+	 * @param items the items
+	 * @param operation the blocking single-item operation
+	 * @param <T> the item type
+	 * @param <R> the type of the value returned by the operation
+	 * @return the results, in the order of the items
+	 */
+	public static <T, R> Flux<OperationResult<T, R>> execute(Collection<? extends T> items,
+			Function<? super T, ? extends R> operation) {
+		return execute(items, operation, defaultConcurrency);
+	}
+
+	/**
+	 * Apply the operation to all items.
+	 *
+	 * @param items the items
+	 * @param operation the blocking single-item operation
+	 * @param concurrency the maximum number of items processed concurrently
+	 * @param <T> the item type
+	 * @param <R> the type of the value returned by the operation
+	 * @return the results, in the order of the items
+	 */
+	public static <T, R> Flux<OperationResult<T, R>> execute(Collection<? extends T> items,
+			Function<? super T, ? extends R> operation, int concurrency) {
+		Assert.notNull(items, "items must not be null");
+		Assert.isTrue(concurrency > 0, "concurrency must be positive");
+		return Flux.fromIterable(new ArrayList<T>(items))
+				.flatMapSequential(item -> Mono.fromCallable(() -> OperationResult.<T, R>success(item, operation.apply(item)))
+						.onErrorResume(e -> Mono.just(OperationResult.<T, R>failure(item, e)))
+						.subscribeOn(Schedulers.boundedElastic()), concurrency);
+	}
+
+	/**
+	 * Wait for the results of a batch operation and return their values keyed by item,
+	 * failing if any item failed. The exception is thrown once all items have been
+	 * processed, with the first failure as its cause and the others as suppressed
+	 * exceptions. Use it for queries only; callers of operations with side effects need
+	 * the individual results to know which items succeeded.
+	 *
+	 * @param results the results of a batch operation
+	 * @param description describes the operation in the exception message, e.g. "status"
+	 * @param <T> the item type
+	 * @param <R> the type of the value returned by the operation
+	 * @return map of item to value, in the order of the results
+	 * @throws IllegalStateException if any item failed
+	 */
+	public static <T, R> Map<T, R> valuesByTarget(Flux<OperationResult<T, R>> results, String description) {
+		List<OperationResult<T, R>> list = results.collectList().block();
+		List<Throwable> errors = new ArrayList<>();
+		for (OperationResult<T, R> result : list) {
+			if (!result.isSuccess()) {
+				errors.add(result.getError());
+			}
+		}
+		if (!errors.isEmpty()) {
+			IllegalStateException exception = new IllegalStateException(
+					errors.size() + " of " + list.size() + " " + description + " operations failed", errors.get(0));
+			for (Throwable error : errors.subList(1, errors.size())) {
+				exception.addSuppressed(error);
+			}
+			throw exception;
+		}
+		Map<T, R> values = new LinkedHashMap<>(list.size() * 4 / 3 + 1);
+		for (OperationResult<T, R> result : list) {
+			values.put(result.getTarget(), result.getValue());
+		}
+		return values;
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.util.Assert;
+
+/**
+ * Polling implementation of the status watch APIs of the SPI, used by their default
+ * methods until a platform provides native watches.
+ * <p>
+ * The statuses of all watched ids are looked up in rounds. An event is emitted for an id
+ * when its state differs from the previous round, including the first round where the
+ * previous state is {@literal null}. The delay between rounds starts at the minimum
+ * interval, doubles after every round without a change up to the maximum interval and
+ * drops back to the minimum once a change is seen. A failed lookup is skipped for that
+ * round. The returned {@link Flux} polls until it is cancelled.
+ */
+public final class StatusWatchSupport {
+
+	/**
+	 * The default delay between rounds after a change was seen.
+	 */
+	public static final Duration DEFAULT_MIN_INTERVAL = Duration.ofMillis(500);
+
+	/**
+	 * The default maximum delay between rounds.
+	 */
+	public static final Duration DEFAULT_MAX_INTERVAL = Duration.ofSeconds(10);
+
+	private static final int CONCURRENCY = 16;
+
+	private StatusWatchSupport() {
+	}
+
+	/**
+	 * Watch the state of the ids with the default intervals.
+	 *
+	 * @param ids the ids to watch
+	 * @param lookup looks up the status of an id
+	 * @param state extracts the state compared between rounds from a status
+	 * @param eventFactory creates the event for a changed state
+	 * @param <T> the status type
+	 * @param <S> the state type
+	 * @param <E> the event type
+	 * @return the changes of the watched ids
+	 */
+	public static <T, S, E> Flux<E> watch(String[] ids, Function<String, Mono<T>> lookup, Function<T, S> state,
+			EventFactory<T, S, E> eventFactory) {
+		return watch(ids, lookup, state, eventFactory, DEFAULT_MIN_INTERVAL, DEFAULT_MAX_INTERVAL);
+	}
+
+	/**
+	 * Watch the state of the ids.
+	 *
+	 * @param ids the ids to watch
+	 * @param lookup looks up the status of an id
+	 * @param state extracts the state compared between rounds from a status
+	 * @param eventFactory creates the event for a changed state
+	 * @param minInterval the delay between rounds after a change
+	 * @param maxInterval the maximum delay between rounds
+	 * @param <T> the status type
+	 * @param <S> the state type
+	 * @param <E> the event type
+	 * @return the changes of the watched ids
+	 */
+	public static <T, S, E> Flux<E> watch(String[] ids, Function<String, Mono<T>> lookup, Function<T, S> state,
+			EventFactory<T, S, E> eventFactory, Duration minInterval, Duration maxInterval) {
+		Assert.notNull(ids, "ids must not be null");
+		Assert.isTrue(!minInterval.isNegative() && !minInterval.isZero(), "minInterval must be positive");
+		Assert.isTrue(maxInterval.compareTo(minInterval) >= 0, "maxInterval must not be less than minInterval");
+		long min = minInterval.toMillis();
+		long max = maxInterval.toMillis();
+		return Flux.defer(() -> {
+			Map<String, S> states = new ConcurrentHashMap<>();
+			AtomicLong interval = new AtomicLong(min);
+			Flux<E> round = Flux.fromArray(ids)
+					.flatMap(id -> lookup.apply(id)
+							.onErrorResume(e -> Mono.empty())
+							.flatMap(status -> {
+								S current = state.apply(status);
+								S previous = current != null ? states.put(id, current) : states.remove(id);
+								return Objects.equals(previous, current) ? Mono.<E>empty()
+										: Mono.justOrEmpty(eventFactory.create(id, previous, status));
+							}), CONCURRENCY);
+			return round.repeatWhen(emitted -> emitted.concatMap(count -> {
+				long next = count > 0 ? min : Math.min(max, interval.get() * 2);
+				interval.set(next);
+				return Mono.delay(Duration.ofMillis(next));
+			}));
+		});
+	}
+
+	/**
+	 * Creates the event emitted for a changed state.
+	 *
+	 * @param <T> the status type
+	 * @param <S> the state type
+	 * @param <E> the event type
+	 */
+	@FunctionalInterface
+	public interface EventFactory<T, S, E> {
+
+		/**
+		 * Create an event.
+		 *
+		 * @param id the id whose state changed
+		 * @param previousState the state of the previous round, or {@literal null} for the first
+		 * @param status the current status
+		 * @return the event
+		 */
+		E create(String id, S previousState, T status);
+	}
+}
@@ -16,12 +16,26 @@
 
 package org.springframework.cloud.deployer.spi.app;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
+import org.springframework.cloud.deployer.spi.core.AppDefinition;
 import org.springframework.cloud.deployer.spi.core.AppDeploymentRequest;
+import org.springframework.cloud.deployer.spi.core.OperationResult;
 import org.springframework.cloud.deployer.spi.core.RuntimeEnvironmentInfo;
+import org.springframework.cloud.deployer.spi.util.BatchOperationSupport;
+import org.springframework.core.io.ByteArrayResource;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /**
@@ -65,4 +79,125 @@ public class AppDeployerTests {
 		}
 
 	}
+
+	@Test
+	public void testWatchEmitsStateChanges() {
+		AtomicInteger calls = new AtomicInteger();
+		AppDeployer appDeployer = new AppStatusAggregatorTests.SlowAppDeployer() {
+			@Override
+			public AppStatus status(String id) {
+				DeploymentState state = calls.getAndIncrement() < 2 ? DeploymentState.deploying : DeploymentState.deployed;
+				return AppStatus.of(id).generalState(state).build();
+			}
+		};
+
+		List<AppStatusEvent> events = appDeployer.watch("app1").take(2).collectList().block(Duration.ofSeconds(30));
+
+		assertEquals(DeploymentState.deploying, events.get(0).getState());
+		assertNull(events.get(0).getPreviousState());
+		assertEquals(DeploymentState.deployed, events.get(1).getState());
+		assertEquals(DeploymentState.deploying, events.get(1).getPreviousState());
+		assertEquals(3, calls.get());
+	}
+
+	@Test
+	public void testDeployAllRunsDeploymentsConcurrently() {
+		AppStatusAggregatorTests.SlowAppDeployer appDeployer = new AppStatusAggregatorTests.SlowAppDeployer() {
+			@Override
+			public String deploy(AppDeploymentRequest request) {
+				return status(request.getDefinition().getName()).getDeploymentId();
+			}
+		};
+		List<AppDeploymentRequest> requests = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			requests.add(new AppDeploymentRequest(new AppDefinition("app" + i, null), new ByteArrayResource(new byte[0])));
+		}
+
+		List<OperationResult<AppDeploymentRequest, String>> results = appDeployer.deployAll(requests);
+
+		assertEquals(16, results.size());
+		assertEquals("app0", results.get(0).getValue());
+		assertEquals("app15", results.get(15).getValue());
+		assertTrue(appDeployer.maxConcurrent.get() > 1);
+	}
+
+	@Test
+	public void testDeployAllKeepsIdsOfSuccessfulDeployments() {
+		AppDeployer appDeployer = new AppStatusAggregatorTests.SlowAppDeployer() {
+			@Override
+			public String deploy(AppDeploymentRequest request) {
+				if (request.getDefinition().getName().equals("broken")) {
+					throw new IllegalStateException("deploy failed");
+				}
+				return request.getDefinition().getName() + "-id";
+			}
+		};
+		List<AppDeploymentRequest> requests = Arrays.asList(request("app1"), request("broken"), request("app2"));
+
+		List<OperationResult<AppDeploymentRequest, String>> results = appDeployer.deployAll(requests);
+
+		assertEquals(3, results.size());
+		assertEquals("app1-id", results.get(0).getValue());
+		assertFalse(results.get(1).isSuccess());
+		assertEquals("broken", results.get(1).getTarget().getDefinition().getName());
+		assertEquals("deploy failed", results.get(1).getError().getMessage());
+		assertEquals("app2-id", results.get(2).getValue());
+	}
+
+	@Test
+	public void testBatchConcurrencyIsConfigurable() {
+		AppStatusAggregatorTests.SlowAppDeployer appDeployer = new AppStatusAggregatorTests.SlowAppDeployer() {
+			@Override
+			public String deploy(AppDeploymentRequest request) {
+				return status(request.getDefinition().getName()).getDeploymentId();
+			}
+		};
+		List<AppDeploymentRequest> requests = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			requests.add(request("app" + i));
+		}
+		BatchOperationSupport.setDefaultConcurrency(1);
+		try {
+			appDeployer.deployAll(requests);
+		}
+		finally {
+			BatchOperationSupport.setDefaultConcurrency(BatchOperationSupport.DEFAULT_CONCURRENCY);
+		}
+
+		assertEquals(1, appDeployer.maxConcurrent.get());
+	}
+
+	@Test
+	public void testUndeployAllReportsFailuresPerId() {
+		List<String> undeployed = Collections.synchronizedList(new ArrayList<>());
+		AppDeployer appDeployer = new AppStatusAggregatorTests.SlowAppDeployer() {
+			@Override
+			public void undeploy(String id) {
+				if (id.equals("missing")) {
+					throw new IllegalStateException("not deployed");
+				}
+				undeployed.add(id);
+			}
+		};
+
+		List<OperationResult<String, Void>> results = appDeployer
+				.undeployAllReactive(Arrays.asList("app1", "missing", "app2")).collectList().block(Duration.ofSeconds(30));
+
+		assertEquals(3, results.size());
+		assertTrue(results.get(0).isSuccess());
+		assertFalse(results.get(1).isSuccess());
+		assertEquals("missing", results.get(1).getTarget());
+		assertEquals("not deployed", results.get(1).getError().getMessage());
+		assertEquals(2, undeployed.size());
+
+		results = appDeployer.undeployAll(Arrays.asList("app3", "missing"));
+
+		assertTrue(results.get(0).isSuccess());
+		assertFalse(results.get(1).isSuccess());
+		assertEquals(3, undeployed.size());
+	}
+
+	private static AppDeploymentRequest request(String name) {
+		return new AppDeploymentRequest(new AppDefinition(name, null), new ByteArrayResource(new byte[0]));
+	}
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.app;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import reactor.core.Exceptions;
+
+import org.springframework.cloud.deployer.spi.core.AppDeploymentRequest;
+import org.springframework.cloud.deployer.spi.core.RuntimeEnvironmentInfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link AppStatusAggregator}.
+ */
+public class AppStatusAggregatorTests {
+
+	@Test
+	public void statusesAreLookedUpWithBoundedConcurrency() {
+		SlowAppDeployer deployer = new SlowAppDeployer();
+		AppStatusAggregator aggregator = new AppStatusAggregator(deployer);
+		aggregator.setConcurrency(4);
+		String[] ids = new String[40];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = "app" + i;
+		}
+		String caller = Thread.currentThread().getName();
+
+		List<AppStatus> statuses = aggregator.statuses(ids).collectList().block(Duration.ofSeconds(30));
+
+		assertEquals(ids.length, statuses.size());
+		assertTrue(deployer.maxConcurrent.get() <= 4);
+		assertTrue(deployer.maxConcurrent.get() > 1);
+		assertNotEquals(caller, deployer.threads.get("app0"));
+	}
+
+	@Test
+	public void sameIdsAreCoalescedAndCached() {
+		SlowAppDeployer deployer = new SlowAppDeployer();
+		AppStatusAggregator aggregator = new AppStatusAggregator(deployer);
+		aggregator.setCacheTtl(Duration.ofMinutes(1));
+
+		List<AppStatus> statuses = aggregator.statuses("app", "app", "app", "app").collectList().block(Duration.ofSeconds(30));
+		assertEquals(4, statuses.size());
+		assertEquals(1, deployer.calls.get());
+		assertEquals(3, aggregator.getCoalescedCount());
+
+		assertSame(statuses.get(0), aggregator.status("app").block(Duration.ofSeconds(30)));
+		assertEquals(1, deployer.calls.get());
+		assertEquals(1, aggregator.getCacheHitCount());
+
+		aggregator.clearCache();
+		aggregator.status("app").block(Duration.ofSeconds(30));
+		assertEquals(2, deployer.calls.get());
+	}
+
+	@Test
+	public void timedOutLookupIsNotShared() {
+		CountDownLatch release = new CountDownLatch(1);
+		SlowAppDeployer deployer = new SlowAppDeployer() {
+			@Override
+			public AppStatus status(String id) {
+				if (this.calls.incrementAndGet() == 1) {
+					try {
+						release.await();
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return AppStatus.of(id).generalState(DeploymentState.deployed).build();
+			}
+		};
+		AppStatusAggregator aggregator = new AppStatusAggregator(deployer);
+		aggregator.setTimeout(Duration.ofMillis(100));
+		try {
+			aggregator.status("app").block(Duration.ofSeconds(30));
+			fail("Expected the lookup to time out");
+		}
+		catch (RuntimeException e) {
+			assertTrue(Exceptions.unwrap(e) instanceof TimeoutException);
+		}
+		finally {
+			release.countDown();
+		}
+
+		assertEquals(DeploymentState.deployed, aggregator.status("app").block(Duration.ofSeconds(30)).getState());
+		assertEquals(2, deployer.calls.get());
+		assertEquals(0, aggregator.getCoalescedCount());
+	}
+
+	@Test
+	public void defaultStatusesReactiveKeepsTheOrderOfTheIds() {
+		SlowAppDeployer deployer = new SlowAppDeployer();
+		List<AppStatus> statuses = deployer.statusesReactive("app1", "app2", "app3").collectList()
+				.block(Duration.ofSeconds(30));
+		assertEquals(3, statuses.size());
+		assertEquals("app1", statuses.get(0).getDeploymentId());
+		assertEquals("app3", statuses.get(2).getDeploymentId());
+		assertEquals(3, deployer.calls.get());
+		assertTrue(deployer.maxConcurrent.get() > 1);
+	}
+
+	@Test
+	public void defaultStatesLooksUpStatusesConcurrently() {
+		SlowMultiStateAppDeployer deployer = new SlowMultiStateAppDeployer();
+		String[] ids = new String[32];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = "app" + i;
+		}
+
+		Map<String, DeploymentState> states = deployer.statesReactive(ids).block(Duration.ofSeconds(30));
+
+		assertEquals(ids.length, states.size());
+		assertEquals(DeploymentState.deployed, states.get("app31"));
+		assertTrue(deployer.maxConcurrent.get() > 1);
+	}
+
+	static class SlowMultiStateAppDeployer extends SlowAppDeployer implements MultiStateAppDeployer {
+	}
+
+	static class SlowAppDeployer implements AppDeployer {
+
+		final AtomicInteger calls = new AtomicInteger();
+
+		final AtomicInteger concurrent = new AtomicInteger();
+
+		final AtomicInteger maxConcurrent = new AtomicInteger();
+
+		final Map<String, String> threads = new ConcurrentHashMap<>();
+
+		@Override
+		public AppStatus status(String id) {
+			this.calls.incrementAndGet();
+			this.threads.put(id, Thread.currentThread().getName());
+			this.maxConcurrent.accumulateAndGet(this.concurrent.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(50);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				this.concurrent.decrementAndGet();
+			}
+			return AppStatus.of(id).generalState(DeploymentState.deployed).build();
+		}
+
+		@Override
+		public String deploy(AppDeploymentRequest request) {
+			return null;
+		}
+
+		@Override
+		public void undeploy(String id) {
+		}
+
+		@Override
+		public RuntimeEnvironmentInfo environmentInfo() {
+			return null;
+		}
+	}
+}
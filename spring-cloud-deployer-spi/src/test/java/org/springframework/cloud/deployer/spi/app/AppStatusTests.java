@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.app;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link AppStatus}.
+ */
+public class AppStatusTests {
+
+	@Test
+	public void stateIsAggregatedFromInstances() {
+		assertEquals(DeploymentState.unknown, AppStatus.of("app").build().getState());
+		assertEquals(DeploymentState.deployed, status(DeploymentState.deployed, DeploymentState.deployed).getState());
+		assertEquals(DeploymentState.error, status(DeploymentState.deployed, DeploymentState.error).getState());
+		assertEquals(DeploymentState.deploying, status(DeploymentState.deployed, DeploymentState.deploying).getState());
+		assertEquals(DeploymentState.partial, status(DeploymentState.deployed, DeploymentState.failed).getState());
+		assertEquals(DeploymentState.failed, status(DeploymentState.undeployed, DeploymentState.failed).getState());
+		assertEquals(DeploymentState.partial, status(DeploymentState.undeployed, DeploymentState.unknown).getState());
+		assertEquals(DeploymentState.failed, AppStatus.of("app").generalState(DeploymentState.failed).build().getState());
+	}
+
+	@Test
+	public void derivedStateIsComputedOnce() {
+		AtomicInteger calls = new AtomicInteger();
+		AppStatus status = AppStatus.of("app")
+				.with(new Instance("app-0", DeploymentState.deployed, calls))
+				.with(new Instance("app-1", DeploymentState.deploying, calls))
+				.build();
+
+		for (int i = 0; i < 10; i++) {
+			assertEquals(DeploymentState.deploying, status.getState());
+		}
+		assertEquals(2, calls.get());
+	}
+
+	private static AppStatus status(DeploymentState... states) {
+		AppStatus.Builder builder = AppStatus.of("app");
+		for (int i = 0; i < states.length; i++) {
+			builder.with(new Instance("app-" + i, states[i], new AtomicInteger()));
+		}
+		return builder.build();
+	}
+
+	private static class Instance implements AppInstanceStatus {
+
+		private final String id;
+
+		private final DeploymentState state;
+
+		private final AtomicInteger calls;
+
+		Instance(String id, DeploymentState state, AtomicInteger calls) {
+			this.id = id;
+			this.state = state;
+			this.calls = calls;
+		}
+
+		@Override
+		public String getId() {
+			return this.id;
+		}
+
+		@Override
+		public DeploymentState getState() {
+			this.calls.incrementAndGet();
+			return this.state;
+		}
+
+		@Override
+		public Map<String, String> getAttributes() {
+			return Collections.emptyMap();
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.app;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link CompactAppStatus}.
+ */
+public class CompactAppStatusTests {
+
+	@Test
+	public void instancesAndAttributesAreExposedAsMaps() {
+		CompactAppStatus status = CompactAppStatus.builder("app")
+				.with("app-1", DeploymentState.deploying, attributes("host", "b", "port", "8081"))
+				.with("app-0", DeploymentState.deployed, attributes("host", "a", "port", "8080"))
+				.build();
+
+		assertEquals(DeploymentState.deploying, status.getState());
+		assertSame(status.getInstances(), status.getInstances());
+		assertEquals(2, status.getInstances().size());
+		assertEquals("[app-0, app-1]", status.getInstances().keySet().toString());
+		AppInstanceStatus instance = status.getInstances().get("app-1");
+		assertEquals(DeploymentState.deploying, instance.getState());
+		assertEquals(attributes("host", "b", "port", "8081"), instance.getAttributes());
+		assertEquals("8081", instance.getAttributes().get("port"));
+		assertNull(instance.getAttributes().get("missing"));
+		assertNull(status.getInstances().get("app-2"));
+	}
+
+	@Test
+	public void generalStateWithoutInstances() {
+		CompactAppStatus status = CompactAppStatus.builder("app").generalState(DeploymentState.error).build();
+
+		assertEquals(DeploymentState.error, status.getState());
+		assertTrue(status.getInstances().isEmpty());
+		assertEquals(DeploymentState.unknown, CompactAppStatus.builder("app").build().getState());
+	}
+
+	@Test
+	public void lastInstanceWithTheSameIdWins() {
+		CompactAppStatus status = CompactAppStatus.builder("app")
+				.with("app-0", DeploymentState.deploying, null)
+				.with("app-0", DeploymentState.deployed, null)
+				.build();
+
+		assertEquals(1, status.getInstances().size());
+		assertEquals(DeploymentState.deployed, status.getState());
+	}
+
+	@Test
+	public void copyMatchesBuilderStatus() {
+		String[] hosts = { "a", "b", "c" };
+		for (int app = 0; app < 1000; app++) {
+			AppStatus.Builder builder = AppStatus.of("app" + app);
+			for (int i = 0; i < app % 4; i++) {
+				DeploymentState state = DeploymentState.values()[(app + i) % DeploymentState.values().length];
+				Map<String, String> attributes = attributes("host", hosts[i % hosts.length], "index", String.valueOf(i));
+				builder.with(CompactAppStatus.builder("tmp").with("app" + app + "-" + i, state, attributes)
+						.build().getInstances().values().iterator().next());
+			}
+			AppStatus status = builder.build();
+
+			CompactAppStatus copy = CompactAppStatus.copyOf(status);
+
+			assertEquals(status.getDeploymentId(), copy.getDeploymentId());
+			assertEquals(status.getState(), copy.getState());
+			assertEquals(status.getInstances().keySet(), copy.getInstances().keySet());
+			for (AppInstanceStatus instance : status.getInstances().values()) {
+				AppInstanceStatus copied = copy.getInstances().get(instance.getId());
+				assertEquals(instance.getState(), copied.getState());
+				assertEquals(instance.getAttributes(), copied.getAttributes());
+			}
+			assertSame(copy, CompactAppStatus.copyOf(copy));
+		}
+	}
+
+	@Test
+	public void keyDictionaryIsBoundedAndResettable() {
+		CompactAppStatus.clearKeyDictionaries();
+		CompactAppStatus.setMaxKeyDictionaries(2);
+		try {
+			for (int i = 0; i < 4; i++) {
+				CompactAppStatus.builder("app").with("app-0", DeploymentState.deployed, attributes("key" + i, "value"))
+						.build();
+			}
+			assertEquals(2, CompactAppStatus.keyDictionaryCount());
+			CompactAppStatus first = CompactAppStatus.builder("app")
+					.with("app-0", DeploymentState.deployed, attributes("key0", "a")).build();
+			CompactAppStatus second = CompactAppStatus.builder("app")
+					.with("app-1", DeploymentState.deployed, attributes("key0", "b")).build();
+			assertEquals("b", second.getInstances().get("app-1").getAttributes().get("key0"));
+			assertEquals("a", first.getInstances().get("app-0").getAttributes().get("key0"));
+
+			CompactAppStatus.clearKeyDictionaries();
+			assertEquals(0, CompactAppStatus.keyDictionaryCount());
+			CompactAppStatus.setMaxKeyDictionaries(0);
+			CompactAppStatus.builder("app").with("app-0", DeploymentState.deployed, attributes("key0", "value")).build();
+			assertEquals(0, CompactAppStatus.keyDictionaryCount());
+		}
+		finally {
+			CompactAppStatus.setMaxKeyDictionaries(CompactAppStatus.DEFAULT_MAX_KEY_DICTIONARIES);
+		}
+	}
+
+	private static Map<String, String> attributes(String... keysAndValues) {
+		Map<String, String> attributes = new HashMap<>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			attributes.put(keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return attributes;
+	}
+}
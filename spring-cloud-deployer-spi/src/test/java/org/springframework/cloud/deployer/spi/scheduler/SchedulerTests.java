@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import org.springframework.cloud.deployer.spi.core.AppDefinition;
+import org.springframework.cloud.deployer.spi.core.OperationResult;
+import org.springframework.core.io.ByteArrayResource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the default methods of {@link Scheduler}.
+ */
+public class SchedulerTests {
+
+	private final MapScheduler scheduler = new MapScheduler();
+
+	@Test
+	public void scheduleAllAndUnscheduleAllReportEachItem() {
+		List<ScheduleRequest> requests = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			requests.add(request("schedule" + i, "task" + (i % 2)));
+		}
+		requests.add(request("invalid", "task0"));
+
+		List<OperationResult<ScheduleRequest, Void>> results = this.scheduler.scheduleAll(requests);
+
+		assertEquals(21, results.size());
+		assertTrue(results.get(0).isSuccess());
+		assertFalse(results.get(20).isSuccess());
+		assertTrue(results.get(20).getError() instanceof CreateScheduleException);
+		assertEquals(20, this.scheduler.schedules.size());
+
+		List<OperationResult<String, Void>> removed = this.scheduler.unscheduleAll(Arrays.asList("schedule0", "missing"));
+
+		assertTrue(removed.get(0).isSuccess());
+		assertFalse(removed.get(1).isSuccess());
+		assertEquals(19, this.scheduler.schedules.size());
+	}
+
+	@Test
+	public void listReactiveFiltersAndPages() {
+		for (int i = 0; i < 10; i++) {
+			this.scheduler.schedule(request("schedule" + i, "task" + (i % 2)));
+		}
+
+		assertEquals(10, this.scheduler.listReactive(null).count().block(Duration.ofSeconds(10)).intValue());
+		assertEquals(5, this.scheduler.listReactive("task1").count().block(Duration.ofSeconds(10)).intValue());
+		List<String> page = this.scheduler.listReactive(null, 4, 3)
+				.map(ScheduleInfo::getScheduleName)
+				.collectList().block(Duration.ofSeconds(10));
+		assertEquals(Arrays.asList("schedule4", "schedule5", "schedule6"), page);
+		assertEquals(Collections.singletonList("schedule9"), this.scheduler.listReactive("task1", 4, 10)
+				.map(ScheduleInfo::getScheduleName)
+				.collectList().block(Duration.ofSeconds(10)));
+	}
+
+	private static ScheduleRequest request(String scheduleName, String taskDefinitionName) {
+		return new ScheduleRequest(new AppDefinition(taskDefinitionName, null), Collections.emptyMap(), scheduleName,
+				new ByteArrayResource(new byte[0]));
+	}
+
+	static class MapScheduler implements Scheduler {
+
+		final Map<String, ScheduleInfo> schedules = new ConcurrentHashMap<>();
+
+		@Override
+		public void schedule(ScheduleRequest scheduleRequest) {
+			if (scheduleRequest.getScheduleName().equals("invalid")) {
+				throw new CreateScheduleException("invalid", null);
+			}
+			ScheduleInfo scheduleInfo = new ScheduleInfo();
+			scheduleInfo.setScheduleName(scheduleRequest.getScheduleName());
+			scheduleInfo.setTaskDefinitionName(scheduleRequest.getDefinition().getName());
+			this.schedules.put(scheduleInfo.getScheduleName(), scheduleInfo);
+		}
+
+		@Override
+		public void unschedule(String scheduleName) {
+			if (this.schedules.remove(scheduleName) == null) {
+				throw new UnScheduleException("No schedule " + scheduleName);
+			}
+		}
+
+		@Override
+		public List<ScheduleInfo> list(String taskDefinitionName) {
+			return list().stream()
+					.filter(scheduleInfo -> scheduleInfo.getTaskDefinitionName().equals(taskDefinitionName))
+					.collect(Collectors.toList());
+		}
+
+		@Override
+		public List<ScheduleInfo> list() {
+			return this.schedules.values().stream()
+					.sorted((a, b) -> Integer.compare(number(a), number(b)))
+					.collect(Collectors.toList());
+		}
+
+		private static int number(ScheduleInfo scheduleInfo) {
+			return Integer.parseInt(scheduleInfo.getScheduleName().substring("schedule".length()));
+		}
+	}
+}
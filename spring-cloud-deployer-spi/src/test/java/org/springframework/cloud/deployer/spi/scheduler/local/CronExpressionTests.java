@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.scheduler.local;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link CronExpression}.
+ */
+public class CronExpressionTests {
+
+	private static final ZoneId UTC = ZoneId.of("UTC");
+
+	// a Wednesday
+	private static final ZonedDateTime START = ZonedDateTime.of(2020, 1, 1, 10, 0, 30, 0, UTC);
+
+	@Test
+	public void sixFieldExpressions() {
+		assertNext("0 0 12 * * *", START, "2020-01-01T12:00Z");
+		assertNext("*/10 * * * * *", START, "2020-01-01T10:00:40Z");
+		assertNext("5/20 * * * * ?", START, "2020-01-01T10:00:45Z");
+		assertNext("0 15,45 * * * *", START, "2020-01-01T10:15Z");
+		assertNext("0 0 9-17/4 * * *", START, "2020-01-01T13:00Z");
+		assertNext("0 0 0 1 JAN *", START, "2021-01-01T00:00Z");
+	}
+
+	@Test
+	public void fiveFieldExpressionsFireAtSecondZero() {
+		assertNext("*/15 * * * *", START, "2020-01-01T10:15Z");
+		assertNext("30 2 * * *", START, "2020-01-02T02:30Z");
+	}
+
+	@Test
+	public void daysOfWeek() {
+		assertNext("0 0 8 * * SAT-SUN", START, "2020-01-04T08:00Z");
+		assertNext("0 0 8 * * 7", START, "2020-01-05T08:00Z");
+		assertNext("0 0 8 * * 0", START, "2020-01-05T08:00Z");
+		// day of month or day of week when both are restricted
+		assertNext("0 0 0 13 * FRI", START, "2020-01-03T00:00Z");
+		assertNext("0 0 0 13 * FRI", ZonedDateTime.of(2020, 1, 11, 0, 0, 0, 0, UTC), "2020-01-13T00:00Z");
+	}
+
+	@Test
+	public void macros() {
+		assertNext("@hourly", START, "2020-01-01T11:00Z");
+		assertNext("@daily", START, "2020-01-02T00:00Z");
+		assertNext("@weekly", START, "2020-01-05T00:00Z");
+		assertNext("@monthly", START, "2020-02-01T00:00Z");
+		assertNext("@yearly", START, "2021-01-01T00:00Z");
+	}
+
+	@Test
+	public void rareAndImpossibleDates() {
+		assertNext("0 0 0 29 2 *", START, "2020-02-29T00:00Z");
+		assertNext("0 0 0 29 2 *", ZonedDateTime.of(2020, 3, 1, 0, 0, 0, 0, UTC), "2024-02-29T00:00Z");
+		assertNull(CronExpression.parse("0 0 0 30 2 *").next(START));
+	}
+
+	@Test
+	public void invalidExpressions() {
+		for (String expression : new String[] { "BAD", "", "* * * *", "60 * * * * *", "* * 24 * * *", "5-1 * * * * *",
+				"* * * * 13 *", "* * * * * 8", "*/0 * * * * *", "1,,2 * * * * *", "0 0 0 L * *" }) {
+			try {
+				CronExpression.parse(expression);
+				fail("Expected '" + expression + "' to be invalid");
+			}
+			catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	private static void assertNext(String expression, ZonedDateTime after, String expected) {
+		assertEquals(expression, expected, CronExpression.parse(expression).next(after).toOffsetDateTime().toString());
+	}
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.scheduler.local;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.cloud.deployer.spi.core.AppDefinition;
+import org.springframework.cloud.deployer.spi.core.AppDeploymentRequest;
+import org.springframework.cloud.deployer.spi.core.RuntimeEnvironmentInfo;
+import org.springframework.cloud.deployer.spi.scheduler.CreateScheduleException;
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleInfo;
+import org.springframework.cloud.deployer.spi.scheduler.ScheduleRequest;
+import org.springframework.cloud.deployer.spi.scheduler.SchedulerPropertyKeys;
+import org.springframework.cloud.deployer.spi.scheduler.UnScheduleException;
+import org.springframework.cloud.deployer.spi.task.TaskLauncher;
+import org.springframework.cloud.deployer.spi.task.TaskStatus;
+import org.springframework.core.io.ByteArrayResource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link LocalScheduler}, driven by a controlled clock.
+ */
+public class LocalSchedulerTests {
+
+	private final MutableClock clock = new MutableClock(ZonedDateTime.of(2020, 1, 1, 12, 0, 30, 0, ZoneId.of("UTC")));
+
+	private final RecordingTaskLauncher taskLauncher = new RecordingTaskLauncher();
+
+	private final LocalScheduler scheduler = new LocalScheduler(this.taskLauncher, this.clock);
+
+	@After
+	public void close() {
+		this.scheduler.close();
+	}
+
+	@Test
+	public void schedulesAreLaunchedAtTheirFireTimes() {
+		this.scheduler.schedule(request("everyMinute", "task1", "0 * * * * *"));
+		this.scheduler.schedule(request("everyTenSeconds", "task2", "*/10 * * * * *"));
+		assertEquals("2020-01-01T12:01Z[UTC]", this.scheduler.getNextFireTime("everyMinute").toString());
+
+		advance(Duration.ofSeconds(5));
+		this.scheduler.tick();
+		assertEquals(0, this.scheduler.getLaunchCount());
+
+		for (int second = 0; second < 25; second++) {
+			advance(Duration.ofSeconds(1));
+			this.scheduler.tick();
+		}
+		// 12:00:40, 12:00:50, 12:01:00 and 12:01:00
+		awaitLaunches(4);
+		assertEquals(3, Collections.frequency(this.taskLauncher.launched, "task2"));
+		assertEquals("2020-01-01T12:02Z[UTC]", this.scheduler.getNextFireTime("everyMinute").toString());
+	}
+
+	@Test
+	public void missedFireTimesAreNotCaughtUp() {
+		this.scheduler.schedule(request("everySecond", "task", "* * * * * *"));
+
+		advance(Duration.ofMinutes(10));
+		this.scheduler.tick();
+
+		awaitLaunches(1);
+		assertEquals("2020-01-01T12:10:31Z[UTC]", this.scheduler.getNextFireTime("everySecond").toString());
+	}
+
+	@Test
+	public void schedulesAreLaunchedAfterTheSchedulerIsClosedAndStartedAgain() {
+		this.scheduler.schedule(request("everySecond", "task", "* * * * * *"));
+		advance(Duration.ofSeconds(1));
+		this.scheduler.tick();
+		awaitLaunches(1);
+
+		this.scheduler.close();
+		this.scheduler.start();
+		advance(Duration.ofSeconds(1));
+		this.scheduler.tick();
+
+		awaitLaunches(2);
+		assertEquals(0, this.scheduler.getSkippedCount());
+	}
+
+	@Test
+	public void unscheduledSchedulesAreNotLaunched() {
+		this.scheduler.schedule(request("everyMinute", "task", "0 * * * * *"));
+		this.scheduler.unschedule("everyMinute");
+		assertEquals(0, this.scheduler.timerCount());
+
+		advance(Duration.ofMinutes(5));
+		this.scheduler.tick();
+
+		assertEquals(0, this.scheduler.getLaunchCount());
+		assertNull(this.scheduler.getNextFireTime("everyMinute"));
+		try {
+			this.scheduler.unschedule("everyMinute");
+			fail("Expected UnScheduleException");
+		}
+		catch (UnScheduleException e) {
+			assertEquals("Failed to unschedule schedule everyMinute does not exist.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void invalidAndDuplicateSchedulesAreRejected() {
+		this.scheduler.schedule(request("schedule", "task", "0 * * * * *"));
+		for (ScheduleRequest request : new ScheduleRequest[] { request("schedule", "task", "0 * * * * *"),
+				request("invalid", "task", "BAD"), request("never", "task", "0 0 0 30 2 *") }) {
+			try {
+				this.scheduler.schedule(request);
+				fail("Expected CreateScheduleException");
+			}
+			catch (CreateScheduleException e) {
+				assertEquals("Failed to create schedule " + request.getScheduleName(), e.getMessage());
+			}
+		}
+		assertEquals(1, this.scheduler.list().size());
+	}
+
+	@Test
+	public void manySchedulesAreListedAndLaunched() {
+		this.scheduler.setLaunchQueueCapacity(5000);
+		for (int i = 0; i < 5000; i++) {
+			this.scheduler.schedule(request("schedule" + i, "task" + (i % 10), (i % 60) + " * * * * *"));
+		}
+		assertEquals(5000, this.scheduler.list().size());
+		assertEquals(500, this.scheduler.list("task3").size());
+		ScheduleInfo scheduleInfo = this.scheduler.list("task3").get(0);
+		assertEquals(scheduleInfo.getScheduleProperties().get(SchedulerPropertyKeys.CRON_EXPRESSION),
+				(Integer.parseInt(scheduleInfo.getScheduleName().substring("schedule".length())) % 60) + " * * * * *");
+
+		for (int second = 0; second < 60; second++) {
+			advance(Duration.ofSeconds(1));
+			this.scheduler.tick();
+		}
+
+		awaitLaunches(5000);
+	}
+
+	private void advance(Duration duration) {
+		this.clock.instant = this.clock.instant.plus(duration);
+	}
+
+	private void awaitLaunches(int count) {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (this.taskLauncher.launched.size() < count) {
+			if (System.currentTimeMillis() > deadline) {
+				fail("Expected " + count + " launches, got " + this.taskLauncher.launched.size());
+			}
+			try {
+				Thread.sleep(5);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				fail("Interrupted");
+			}
+		}
+		assertEquals(count, this.scheduler.getLaunchCount());
+	}
+
+	private static ScheduleRequest request(String scheduleName, String taskDefinitionName, String cronExpression) {
+		return new ScheduleRequest(new AppDefinition(taskDefinitionName, null),
+				Collections.singletonMap(SchedulerPropertyKeys.CRON_EXPRESSION, cronExpression), scheduleName,
+				new ByteArrayResource(new byte[0]));
+	}
+
+	static class MutableClock extends Clock {
+
+		private final ZoneId zone;
+
+		volatile Instant instant;
+
+		MutableClock(ZonedDateTime time) {
+			this.zone = time.getZone();
+			this.instant = time.toInstant();
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return this.zone;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Instant instant() {
+			return this.instant;
+		}
+	}
+
+	static class RecordingTaskLauncher implements TaskLauncher {
+
+		final List<String> launched = Collections.synchronizedList(new ArrayList<>());
+
+		@Override
+		public String launch(AppDeploymentRequest request) {
+			this.launched.add(request.getDefinition().getName());
+			return request.getDefinition().getName();
+		}
+
+		@Override
+		public void cancel(String id) {
+		}
+
+		@Override
+		public TaskStatus status(String id) {
+			return null;
+		}
+
+		@Override
+		public void cleanup(String id) {
+		}
+
+		@Override
+		public void destroy(String appName) {
+		}
+
+		@Override
+		public RuntimeEnvironmentInfo environmentInfo() {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.scheduler.local;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link TimingWheel}.
+ */
+public class TimingWheelTests {
+
+	@Test
+	public void timersExpireExactlyAtTheirDeadline() {
+		TimingWheel<Long> wheel = new TimingWheel<>(1000);
+		long[] deadlines = { 1001, 1063, 1064, 1065, 1000 + 64 * 64, 1000 + 64 * 64 * 64 + 7, 5000, 5000 };
+		for (long deadline : deadlines) {
+			wheel.add(deadline, deadline);
+		}
+		assertNull(wheel.add(1000, 0L));
+
+		for (long tick = 1001; tick <= 1000 + 64 * 64 * 64 + 7; tick++) {
+			for (Long deadline : wheel.advance(tick)) {
+				assertEquals(tick, deadline.longValue());
+			}
+		}
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void cancelledTimersAreRemovedRightAway() {
+		TimingWheel<String> wheel = new TimingWheel<>(0);
+		TimingWheel.Timer<String> soon = wheel.add(10, "soon");
+		TimingWheel.Timer<String> later = wheel.add(10, "later");
+		TimingWheel.Timer<String> far = wheel.add(100000, "far");
+		wheel.add(10, "kept");
+
+		soon.cancel();
+		far.cancel();
+		far.cancel();
+		assertEquals(2, wheel.size());
+
+		assertEquals(Arrays.asList("later", "kept"), wheel.advance(10));
+		later.cancel();
+		assertEquals(0, wheel.size());
+		assertTrue(wheel.advance(200000).isEmpty());
+	}
+
+	@Test(timeout = 10000)
+	public void largeJumpsSkipEmptyBuckets() {
+		TimingWheel<Long> wheel = new TimingWheel<>(0);
+		assertTrue(wheel.advance(1L << 40).isEmpty());
+		assertEquals(1L << 40, wheel.currentTick());
+
+		long start = wheel.currentTick();
+		long[] deadlines = { start + 1, start + 64 * 64 * 64 + 3, start + (1L << 35), start + (1L << 38) };
+		for (long deadline : deadlines) {
+			wheel.add(deadline, deadline);
+		}
+		assertEquals(Arrays.asList(deadlines[0], deadlines[1]), wheel.advance(start + (1L << 34)));
+		assertEquals(Arrays.asList(deadlines[2], deadlines[3]), wheel.advance(start + (1L << 39)));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void randomTimersFireInDeadlineOrderUnlessCancelled() {
+		randomTimersFireInDeadlineOrderUnlessCancelled(1 << 16);
+		// far beyond the range of the wheel, only feasible when empty buckets are skipped
+		randomTimersFireInDeadlineOrderUnlessCancelled(1L << 40);
+	}
+
+	private void randomTimersFireInDeadlineOrderUnlessCancelled(long maxJump) {
+		Random random = new Random(42);
+		TimingWheel<Integer> wheel = new TimingWheel<>(random.nextInt(1 << 20));
+		List<TimingWheel.Timer<Integer>> timers = new ArrayList<>();
+		List<Boolean> cancelled = new ArrayList<>();
+		for (int round = 0; round < 200; round++) {
+			for (int i = 0; i < 100; i++) {
+				// delays spread over all levels, some beyond the range of the wheel
+				long delay = 1 + (long) Math.pow(2, random.nextDouble() * 40);
+				timers.add(wheel.add(wheel.currentTick() + delay, timers.size()));
+				cancelled.add(false);
+			}
+			for (int i = 0; i < 10; i++) {
+				int index = random.nextInt(timers.size());
+				timers.get(index).cancel();
+				cancelled.set(index, true);
+			}
+			long from = wheel.currentTick();
+			long to = from + (long) (random.nextDouble() * maxJump);
+
+			List<Integer> fired = wheel.advance(to);
+
+			List<Integer> expected = new ArrayList<>();
+			for (int i = 0; i < timers.size(); i++) {
+				long deadline = timers.get(i).deadlineTick();
+				if (!cancelled.get(i) && deadline > from && deadline <= to) {
+					expected.add(i);
+				}
+			}
+			expected.sort(Comparator.comparingLong((Integer i) -> timers.get(i).deadlineTick()).thenComparing(i -> i));
+			List<Integer> actual = new ArrayList<>(fired);
+			actual.sort(Comparator.comparingLong((Integer i) -> timers.get(i).deadlineTick()).thenComparing(i -> i));
+			assertEquals(expected, actual);
+			for (int i = 1; i < fired.size(); i++) {
+				assertTrue(timers.get(fired.get(i - 1)).deadlineTick() <= timers.get(fired.get(i)).deadlineTick());
+			}
+			for (Integer index : fired) {
+				cancelled.set(index, true);
+			}
+			assertEquals(Collections.frequency(cancelled, false), wheel.size());
+		}
+	}
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.cloud.deployer.spi.core.AppDefinition;
+import org.springframework.cloud.deployer.spi.core.AppDeploymentRequest;
+import org.springframework.core.io.ByteArrayResource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link TaskLaunchQueue}.
+ */
+public class TaskLaunchQueueTests {
+
+	private final LimitedTaskLauncher taskLauncher = new LimitedTaskLauncher();
+
+	private TaskLaunchQueue queue;
+
+	@After
+	public void close() {
+		if (this.queue != null) {
+			this.queue.close();
+		}
+	}
+
+	@Test
+	public void launchesAreAdmittedUpToTheConcurrencyLimit() throws Exception {
+		this.taskLauncher.maximum = 2;
+		this.queue = queue(10);
+		List<CompletableFuture<String>> futures = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			futures.add(this.queue.submit(request("task" + i)));
+		}
+
+		await(() -> this.taskLauncher.launched.size() == 2);
+		Thread.sleep(100);
+		assertEquals(2, this.taskLauncher.launched.size());
+		assertEquals(3, this.queue.getQueueDepth());
+		assertEquals("task0", futures.get(0).get(5, TimeUnit.SECONDS));
+
+		this.taskLauncher.running.remove("task0");
+		await(() -> this.taskLauncher.launched.size() == 3);
+		this.taskLauncher.running.clear();
+		await(() -> this.taskLauncher.launched.size() == 5);
+
+		assertEquals(Arrays.asList("task0", "task1", "task2", "task3", "task4"), this.taskLauncher.launched);
+		assertEquals(0, this.queue.getQueueDepth());
+		assertEquals(5, this.queue.getLaunchedCount());
+		assertTrue(this.queue.getMaxWaitTime().compareTo(this.queue.getAverageWaitTime()) >= 0);
+	}
+
+	@Test
+	public void higherPriorityIsLaunchedFirstAndEqualPriorityInOrder() {
+		this.taskLauncher.maximum = 0;
+		this.queue = queue(10);
+		this.queue.submit(request("low1"), 0);
+		this.queue.submit(request("high"), 5);
+		this.queue.submit(request("low2"), 0);
+		this.queue.submit(request("lowest"), -1);
+
+		this.taskLauncher.maximum = 10;
+		await(() -> this.taskLauncher.launched.size() == 4);
+
+		assertEquals(Arrays.asList("high", "low1", "low2", "lowest"), this.taskLauncher.launched);
+	}
+
+	@Test
+	public void fullQueueRejectsAndCancelledRequestsAreRemoved() throws Exception {
+		this.taskLauncher.maximum = 0;
+		this.queue = queue(2);
+		CompletableFuture<String> first = this.queue.submit(request("task1"));
+		this.queue.submit(request("task2"));
+		try {
+			this.queue.submit(request("task3")).get(5, TimeUnit.SECONDS);
+			fail("Expected the queue to be full");
+		}
+		catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof RejectedExecutionException);
+		}
+
+		first.cancel(false);
+		assertEquals(1, this.queue.getQueueDepth());
+		this.taskLauncher.maximum = 10;
+		await(() -> this.taskLauncher.launched.size() == 1);
+		assertEquals(Collections.singletonList("task2"), this.taskLauncher.launched);
+	}
+
+	@Test
+	public void failedLaunchCompletesExceptionally() throws Exception {
+		this.taskLauncher.maximum = 10;
+		this.queue = queue(10);
+		try {
+			this.queue.launch(request("fail")).block(Duration.ofSeconds(5));
+			fail("Expected the launch to fail");
+		}
+		catch (IllegalStateException e) {
+			assertEquals("launch failed", e.getMessage());
+		}
+		assertEquals("task", this.queue.launch(request("task")).block(Duration.ofSeconds(5)));
+		assertEquals(1, this.queue.getFailedCount());
+	}
+
+	@Test
+	public void failingCapacityQueriesAreRetried() throws Exception {
+		this.taskLauncher.maximum = 10;
+		this.taskLauncher.failingCountQueries = 3;
+		this.queue = queue(10);
+
+		assertEquals("task", this.queue.submit(request("task")).get(5, TimeUnit.SECONDS));
+		assertEquals(0, this.taskLauncher.failingCountQueries);
+	}
+
+	@Test
+	public void errorDuringLaunchDoesNotStallTheQueue() throws Exception {
+		this.taskLauncher.maximum = 1;
+		this.queue = queue(10);
+		CompletableFuture<String> error = this.queue.submit(request("error"), 1);
+		CompletableFuture<String> task = this.queue.submit(request("task"));
+
+		assertEquals("task", task.get(5, TimeUnit.SECONDS));
+		assertTrue(error.isCompletedExceptionally());
+		assertEquals(1, this.queue.getFailedCount());
+	}
+
+	@Test
+	public void taskIsCancelledIfItsRequestIsCancelledWhileLaunching() throws Exception {
+		this.taskLauncher.maximum = 10;
+		this.taskLauncher.launching = new CountDownLatch(1);
+		this.queue = queue(10);
+		CompletableFuture<String> future = this.queue.submit(request("task"));
+		await(() -> this.taskLauncher.launched.size() == 1);
+
+		future.cancel(false);
+		this.taskLauncher.launching.countDown();
+
+		await(() -> this.taskLauncher.cancelled.contains("task"));
+		assertEquals(1, this.queue.getLaunchedCount());
+	}
+
+	private TaskLaunchQueue queue(int capacity) {
+		TaskLaunchQueue queue = new TaskLaunchQueue(this.taskLauncher, capacity);
+		queue.setPollInterval(Duration.ofMillis(10));
+		return queue;
+	}
+
+	private static AppDeploymentRequest request(String name) {
+		return new AppDeploymentRequest(new AppDefinition(name, null), new ByteArrayResource(new byte[0]));
+	}
+
+	private static void await(BooleanSupplier condition) {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) {
+				fail("Condition not met in time");
+			}
+			try {
+				Thread.sleep(5);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				fail("Interrupted");
+			}
+		}
+	}
+
+	static class LimitedTaskLauncher extends TaskLauncherTests.StubTaskLauncher {
+
+		final List<String> launched = Collections.synchronizedList(new ArrayList<>());
+
+		final Set<String> running = ConcurrentHashMap.newKeySet();
+
+		final Set<String> cancelled = ConcurrentHashMap.newKeySet();
+
+		volatile int maximum;
+
+		volatile int failingCountQueries;
+
+		volatile CountDownLatch launching;
+
+		@Override
+		public String launch(AppDeploymentRequest request) {
+			String name = request.getDefinition().getName();
+			if (name.equals("fail")) {
+				throw new IllegalStateException("launch failed");
+			}
+			if (name.equals("error")) {
+				throw new AssertionError("launch error");
+			}
+			this.launched.add(name);
+			this.running.add(name);
+			if (this.launching != null) {
+				try {
+					this.launching.await();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return name;
+		}
+
+		@Override
+		public void cancel(String id) {
+			this.cancelled.add(id);
+		}
+
+		@Override
+		public int getMaximumConcurrentTasks() {
+			return this.maximum;
+		}
+
+		@Override
+		public int getRunningTaskExecutionCount() {
+			if (this.failingCountQueries > 0) {
+				this.failingCountQueries--;
+				throw new IllegalStateException("platform unavailable");
+			}
+			return this.running.size();
+		}
+	}
+}
@@ -16,12 +16,25 @@
 
 package org.springframework.cloud.deployer.spi.task;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
 import org.junit.Test;
 
 import org.springframework.cloud.deployer.spi.core.AppDeploymentRequest;
+import org.springframework.cloud.deployer.spi.core.OperationResult;
 import org.springframework.cloud.deployer.spi.core.RuntimeEnvironmentInfo;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /**
@@ -85,4 +98,98 @@ public class TaskLauncherTests {
 			assertEquals(e.getMessage(), "'getMaximumConcurrentTasks' is not implemented.");
 		}
 	}
+
+	@Test
+	public void testWatchEmitsStateChanges() {
+		AtomicInteger calls = new AtomicInteger();
+		LaunchState[] states = { LaunchState.launching, LaunchState.running, LaunchState.running, LaunchState.complete };
+		TaskLauncher taskLauncher = new StubTaskLauncher() {
+			@Override
+			public TaskStatus status(String id) {
+				return new TaskStatus(id, states[Math.min(calls.getAndIncrement(), states.length - 1)], null);
+			}
+		};
+
+		List<TaskStatusEvent> events = taskLauncher.watch("task1").take(3).collectList().block(Duration.ofSeconds(30));
+
+		assertEquals(Arrays.asList(LaunchState.launching, LaunchState.running, LaunchState.complete),
+				events.stream().map(TaskStatusEvent::getState).collect(Collectors.toList()));
+		assertNull(events.get(0).getPreviousState());
+		assertEquals(LaunchState.running, events.get(2).getPreviousState());
+		assertEquals("task1", events.get(2).getTaskLaunchId());
+	}
+
+	@Test
+	public void testStatusesAreKeyedByIdInOrder() {
+		TaskLauncher taskLauncher = new StubTaskLauncher() {
+			@Override
+			public TaskStatus status(String id) {
+				return new TaskStatus(id, id.startsWith("done") ? LaunchState.complete : LaunchState.running, null);
+			}
+		};
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			ids.add((i % 2 == 0 ? "done" : "running") + i);
+		}
+
+		Map<String, TaskStatus> statuses = taskLauncher.statuses(ids);
+
+		assertEquals(ids, new ArrayList<>(statuses.keySet()));
+		assertEquals(LaunchState.complete, statuses.get("done0").getState());
+		assertEquals(LaunchState.running, statuses.get("running49").getState());
+	}
+
+	@Test
+	public void testCleanupAllReportsEachId() {
+		List<String> cleanedUp = Collections.synchronizedList(new ArrayList<>());
+		TaskLauncher taskLauncher = new StubTaskLauncher() {
+			@Override
+			public void cleanup(String id) {
+				if (id.equals("broken")) {
+					throw new IllegalStateException("cleanup failed");
+				}
+				cleanedUp.add(id);
+			}
+		};
+
+		List<OperationResult<String, Void>> results = taskLauncher.cleanupAll(Arrays.asList("task1", "broken", "task2"));
+
+		assertEquals(Arrays.asList("task1", "broken", "task2"),
+				results.stream().map(OperationResult::getTarget).collect(Collectors.toList()));
+		assertTrue(results.get(0).isSuccess());
+		assertFalse(results.get(1).isSuccess());
+		assertEquals("cleanup failed", results.get(1).getError().getMessage());
+		assertTrue(results.get(2).isSuccess());
+		assertEquals(2, cleanedUp.size());
+	}
+
+	static class StubTaskLauncher implements TaskLauncher {
+
+		@Override
+		public String launch(AppDeploymentRequest request) {
+			return null;
+		}
+
+		@Override
+		public void cancel(String id) {
+		}
+
+		@Override
+		public TaskStatus status(String id) {
+			return null;
+		}
+
+		@Override
+		public void cleanup(String id) {
+		}
+
+		@Override
+		public void destroy(String appName) {
+		}
+
+		@Override
+		public RuntimeEnvironmentInfo environmentInfo() {
+			return null;
+		}
+	}
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.deployer.spi.task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.cloud.deployer.spi.core.AppDefinition;
+import org.springframework.cloud.deployer.spi.core.AppDeploymentRequest;
+import org.springframework.cloud.deployer.spi.core.OperationResult;
+import org.springframework.core.io.ByteArrayResource;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link TrackingTaskLauncher}.
+ */
+public class TrackingTaskLauncherTests {
+
+	private final PlatformTaskLauncher platform = new PlatformTaskLauncher();
+
+	private final TrackingTaskLauncher taskLauncher = new TrackingTaskLauncher(this.platform);
+
+	@After
+	public void close() {
+		this.taskLauncher.close();
+	}
+
+	@Test
+	public void countFollowsLaunchesAndTerminalStates() {
+		for (int i = 0; i < 4; i++) {
+			this.taskLauncher.launch(request("task" + i));
+		}
+		assertEquals(4, this.taskLauncher.getRunningTaskExecutionCount());
+
+		this.platform.states.put("task0", LaunchState.complete);
+		this.platform.states.put("task1", LaunchState.running);
+		this.taskLauncher.status("task0");
+		this.taskLauncher.status("task1");
+		assertEquals(3, this.taskLauncher.getRunningTaskExecutionCount());
+
+		this.taskLauncher.cancel("task1");
+		this.taskLauncher.cleanup("task2");
+		assertEquals(1, this.taskLauncher.getRunningTaskExecutionCount());
+		assertEquals(0, this.platform.countQueries.get());
+	}
+
+	@Test
+	public void reconcileDropsFinishedTasksAndCountsUntrackedOnes() {
+		this.taskLauncher.launch(request("task0"));
+		this.taskLauncher.launch(request("task1"));
+		this.platform.states.put("task0", LaunchState.failed);
+		this.platform.states.put("task1", LaunchState.running);
+		this.platform.states.put("other0", LaunchState.running);
+		this.platform.states.put("other1", LaunchState.running);
+
+		this.taskLauncher.reconcile();
+
+		assertEquals(1, this.platform.countQueries.get());
+		assertEquals(1, this.platform.batchQueries.get());
+		assertEquals(0, this.platform.statusQueries.get());
+		assertEquals(3, this.taskLauncher.getRunningTaskExecutionCount());
+	}
+
+	@Test
+	public void unknownTasksAreDroppedAfterOneInterval() throws InterruptedException {
+		this.taskLauncher.setReconcileInterval(Duration.ofMillis(50));
+		this.taskLauncher.launch(request("task0"));
+		this.platform.states.put("task0", LaunchState.unknown);
+		this.taskLauncher.reconcile();
+		assertEquals(1, this.taskLauncher.getRunningTaskExecutionCount());
+
+		Thread.sleep(200);
+
+		assertEquals(0, this.taskLauncher.getRunningTaskExecutionCount());
+	}
+
+	private static AppDeploymentRequest request(String name) {
+		return new AppDeploymentRequest(new AppDefinition(name, null), new ByteArrayResource(new byte[0]));
+	}
+
+	static class PlatformTaskLauncher extends TaskLauncherTests.StubTaskLauncher {
+
+		final Map<String, LaunchState> states = new ConcurrentHashMap<>();
+
+		final AtomicInteger countQueries = new AtomicInteger();
+
+		final AtomicInteger statusQueries = new AtomicInteger();
+
+		final AtomicInteger batchQueries = new AtomicInteger();
+
+		@Override
+		public String launch(AppDeploymentRequest request) {
+			String id = request.getDefinition().getName();
+			this.states.put(id, LaunchState.launching);
+			return id;
+		}
+
+		@Override
+		public TaskStatus status(String id) {
+			this.statusQueries.incrementAndGet();
+			return new TaskStatus(id, this.states.getOrDefault(id, LaunchState.unknown), null);
+		}
+
+		@Override
+		public Flux<OperationResult<String, TaskStatus>> statusesReactive(Collection<String> ids) {
+			this.batchQueries.incrementAndGet();
+			return Flux.fromIterable(new ArrayList<>(ids)).map(id -> OperationResult.success(id,
+					new TaskStatus(id, this.states.getOrDefault(id, LaunchState.unknown), null)));
+		}
+
+		@Override
+		public int getRunningTaskExecutionCount() {
+			this.countQueries.incrementAndGet();
+			return (int) this.states.values().stream()
+					.filter(state -> state == LaunchState.launching || state == LaunchState.running)
+					.count();
+		}
+	}
+}